@@ -5,6 +5,7 @@ plugins {
   id("org.springframework.boot") version "3.5.6"
   id("io.spring.dependency-management") version "1.1.7"
   id("org.openapi.generator") version "7.14.0"
+  id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "dev.playo"
@@ -20,6 +21,10 @@ tasks.withType<JavaCompile> {
   dependsOn("openApiGenerate")
 }
 
+jmh {
+  jmhVersion.set("1.37")
+}
+
 tasks.withType<BootJar> {
   archiveFileName.set("app.jar")
 }
@@ -66,13 +71,15 @@ dependencies {
   implementation("org.springframework.boot:spring-boot-starter-actuator")
   implementation("org.springframework.boot:spring-boot-starter-data-jpa")
   implementation("org.springframework.boot:spring-boot-starter-web")
+  implementation("com.github.ben-manes.caffeine:caffeine")
   implementation("org.flywaydb:flyway-core")
   implementation("org.flywaydb:flyway-database-postgresql")
+  // listens to the change notifications of other replicas through the driver api
+  implementation("org.postgresql:postgresql")
 
   compileOnly("org.projectlombok:lombok")
   developmentOnly("org.springframework.boot:spring-boot-devtools")
   developmentOnly("org.springframework.boot:spring-boot-docker-compose")
-  runtimeOnly("org.postgresql:postgresql")
   annotationProcessor("org.projectlombok:lombok")
 
   testImplementation("org.wiremock.integrations:wiremock-spring-boot:3.10.0")
@@ -94,5 +101,10 @@ tasks.withType<Test> {
 }
 
 tasks.withType<Test> {
-  useJUnitPlatform()
+  useJUnitPlatform {
+    // benchmarks seed large datasets, run them explicitly using: ./gradlew test -Pbenchmark --tests "*Benchmark"
+    if (!project.hasProperty("benchmark")) {
+      excludeTags("benchmark")
+    }
+  }
 }
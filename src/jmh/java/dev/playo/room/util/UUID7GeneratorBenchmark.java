@@ -0,0 +1,76 @@
+package dev.playo.room.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of the {@link UUID7Generator} with the previous implementation, which allocated a new byte
+ * array and called a shared {@link SecureRandom} for every id. Run using: ./gradlew jmh
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UUID7GeneratorBenchmark {
+
+  @Benchmark
+  @Threads(1)
+  public UUID generatorSingleThreaded() {
+    return UUID7Generator.generateUuid();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public UUID previousGeneratorSingleThreaded() {
+    return PreviousUUID7Generator.generateUuid();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public UUID generatorMultiThreaded() {
+    return UUID7Generator.generateUuid();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public UUID previousGeneratorMultiThreaded() {
+    return PreviousUUID7Generator.generateUuid();
+  }
+
+  /**
+   * The implementation of the generator before the entropy buffers and the monotonic counter were introduced.
+   */
+  private static final class PreviousUUID7Generator {
+
+    private static final Random RANDOM = new SecureRandom();
+    private static final VarHandle BYTE_ARRAY_LONG_VIEW_HANDLE =
+      MethodHandles.byteArrayViewVarHandle(Long.TYPE.arrayType(), ByteOrder.BIG_ENDIAN);
+
+    private static UUID generateUuid() {
+      var bytes = new byte[10];
+      RANDOM.nextBytes(bytes);
+      var randA = ((bytes[0] & 0xFF) << 8) + (bytes[1] & 0xFF);
+      var randB = (long) BYTE_ARRAY_LONG_VIEW_HANDLE.get(bytes, 2);
+
+      var timestamp = System.currentTimeMillis();
+      var rawMsb = (timestamp << 16) | randA;
+      var msb = (rawMsb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000007000L;
+      var lsb = (randB & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+      return new UUID(msb, lsb);
+    }
+  }
+}
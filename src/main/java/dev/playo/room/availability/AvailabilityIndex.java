@@ -0,0 +1,394 @@
+package dev.playo.room.availability;
+
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.booking.data.allocation.AllocationSlice;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.util.TransactionHooks;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of all booking allocations, grouped by room. Used to answer time-overlap questions without a round
+ * trip to the database. The index is loaded from the {@code booking_allocations} table on startup, kept up to date by
+ * the booking write paths after their transaction committed, and periodically reloaded to pick up changes made by
+ * other replicas. The exclusion constraint in the database stays the source of truth for bookings. Every change of a
+ * timeline is mirrored into the {@link FreeBusyIndex}, which answers most overlap checks within a single day.
+ * <p>
+ * Changes of the write paths are applied under a lock that a reload takes to publish its result. A change that
+ * commits while a reload reads the allocations is recorded and applied to the reloaded index before it replaces the
+ * current one, as the allocations read by the reload might not contain it yet. All changes are idempotent, so a
+ * change that is already part of the reloaded allocations is applied again without effect.
+ */
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+  private final boolean enabled;
+  private final BookingAllocationRepository allocationRepository;
+  private final FreeBusyIndex freeBusyIndex;
+
+  private final Object changeLock = new Object();
+
+  private volatile boolean ready;
+  // guarded by the change lock, only set while a reload reads the allocations
+  private @Nullable List<Change> changesDuringReload;
+  private volatile Map<UUID, RoomTimeline> timelines = new ConcurrentHashMap<>();
+  private volatile Map<UUID, Footprint> footprints = new ConcurrentHashMap<>();
+
+  @Autowired
+  public AvailabilityIndex(
+    @Value("${room.availability.index-enabled:true}") boolean enabled,
+    @NonNull BookingAllocationRepository allocationRepository,
+    @NonNull FreeBusyIndex freeBusyIndex
+  ) {
+    this.enabled = enabled;
+    this.allocationRepository = allocationRepository;
+    this.freeBusyIndex = freeBusyIndex;
+  }
+
+  /**
+   * Converts the given instant to epoch microseconds, the precision used by the database columns.
+   *
+   * @param instant the instant to convert.
+   * @return the given instant in epoch microseconds.
+   */
+  public static long toEpochMicros(@NonNull Instant instant) {
+    return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+  }
+
+  /**
+   * Get if the index is enabled and was loaded at least once, meaning that it can be used to answer queries.
+   *
+   * @return true if the index can be queried, false if callers need to fall back to the database.
+   */
+  public boolean isAvailable() {
+    return this.enabled && this.ready;
+  }
+
+  /**
+   * Checks if the given room has at least one allocation overlapping the given time range.
+   *
+   * @param roomId    the id of the room to check.
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return true if the room is allocated during the given time range, false otherwise.
+   */
+  public boolean isOccupied(@NonNull UUID roomId, @NonNull Instant startTime, @NonNull Instant endTime) {
+    var timeline = this.timelines.get(roomId);
+    return timeline != null && overlaps(
+      this.freeBusyIndex.probe(startTime, endTime),
+      roomId,
+      timeline,
+      toEpochMicros(startTime),
+      toEpochMicros(endTime));
+  }
+
+  /**
+   * Checks if any of the given rooms is allocated during the given time range. Rooms that are free according to the
+   * index are not looked up in the database, the bookings of other replicas are picked up by the next reload and are
+   * rejected by the exclusion constraint until then. An occupied result is confirmed against the database, as the
+   * allocation might have been cancelled on another replica in the meantime.
+   *
+   * @param roomIds   the ids of the rooms to check.
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return true if at least one of the rooms is allocated during the given time range, false otherwise.
+   */
+  public boolean isAnyOccupied(
+    @NonNull Collection<UUID> roomIds,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime
+  ) {
+    var occupiedInMemory = roomIds.stream().anyMatch(roomId -> this.isOccupied(roomId, startTime, endTime));
+    return occupiedInMemory && this.allocationRepository.existsOverlapping(roomIds, startTime, endTime);
+  }
+
+  /**
+   * Checks if the given room has no allocation within the booking hours of the given day.
+   *
+   * @param roomId the id of the room to check.
+   * @param date   the day to check.
+   * @return true if the room has no allocation on the given day, false otherwise.
+   */
+  public boolean isFreeOn(@NonNull UUID roomId, @NonNull LocalDate date) {
+    return this.freeBusyIndex.isDayFree(roomId, date);
+  }
+
+  /**
+   * Checks the given time range against the free/busy bitsets of the room first and only falls back to the timeline
+   * of the room if the bitsets cannot answer the check on their own.
+   */
+  private static boolean overlaps(
+    @Nullable FreeBusyIndex.Probe probe,
+    @NonNull UUID roomId,
+    @NonNull RoomTimeline timeline,
+    long start,
+    long end
+  ) {
+    if (probe != null) {
+      var occupancy = probe.check(roomId);
+      if (occupancy != FreeBusyIndex.Occupancy.UNKNOWN) {
+        return occupancy == FreeBusyIndex.Occupancy.BUSY;
+      }
+    }
+
+    return timeline.overlaps(start, end);
+  }
+
+  /**
+   * Get the timeline of all allocations of the given room.
+   *
+   * @param roomId the id of the room to get the timeline of.
+   * @return the timeline of the given room, an empty timeline if the room has no allocations.
+   */
+  public @NonNull RoomTimeline timeline(@NonNull UUID roomId) {
+    return this.timelines.getOrDefault(roomId, RoomTimeline.EMPTY);
+  }
+
+  /**
+   * Collects the ids of all rooms that have at least one allocation overlapping the given time range.
+   *
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return the ids of all rooms that are occupied during the given time range.
+   */
+  public @NonNull Set<UUID> occupiedRooms(@NonNull Instant startTime, @NonNull Instant endTime) {
+    var start = toEpochMicros(startTime);
+    var end = toEpochMicros(endTime);
+    var probe = this.freeBusyIndex.probe(startTime, endTime);
+
+    Set<UUID> occupied = new HashSet<>();
+    this.timelines.forEach((roomId, timeline) -> {
+      if (overlaps(probe, roomId, timeline, start, end)) {
+        occupied.add(roomId);
+      }
+    });
+    return occupied;
+  }
+
+  /**
+   * Collects the ids of all rooms that are occupied per given time window. All windows are checked in a single pass
+   * over the rooms, so every window sees the same state of a room even if bookings are registered concurrently.
+   *
+   * @param windows the time windows to check.
+   * @return the ids of the occupied rooms per window, in the order of the given windows.
+   */
+  public @NonNull List<Set<UUID>> occupiedRooms(@NonNull List<TimeWindow> windows) {
+    var starts = new long[windows.size()];
+    var ends = new long[windows.size()];
+    var probes = new FreeBusyIndex.Probe[windows.size()];
+    List<Set<UUID>> occupied = new ArrayList<>(windows.size());
+    for (var index = 0; index < windows.size(); index++) {
+      var window = windows.get(index);
+      starts[index] = toEpochMicros(window.startTime());
+      ends[index] = toEpochMicros(window.endTime());
+      probes[index] = this.freeBusyIndex.probe(window.startTime(), window.endTime());
+      occupied.add(new HashSet<>());
+    }
+
+    this.timelines.forEach((roomId, timeline) -> {
+      for (var index = 0; index < starts.length; index++) {
+        if (overlaps(probes[index], roomId, timeline, starts[index], ends[index])) {
+          occupied.get(index).add(roomId);
+        }
+      }
+    });
+    return occupied;
+  }
+
+  /**
+   * Registers all allocations of the given booking once the current transaction committed.
+   *
+   * @param booking the booking whose allocations should be added to the index.
+   */
+  public void registerBooking(@NonNull BookingEntity booking) {
+    var bookingId = booking.getId();
+    var start = toEpochMicros(booking.getStartTime());
+    var end = toEpochMicros(booking.getEndTime());
+    var roomIds = booking.getAllocations().stream().map(allocation -> allocation.getId().getRoomId()).toList();
+
+    TransactionHooks.afterCommit(() -> this.apply((timelines, footprints, freeBusyIndex) -> {
+      for (var roomId : roomIds) {
+        timelines.compute(roomId, (_, timeline) -> {
+          var updated = (timeline == null ? RoomTimeline.EMPTY : timeline).with(bookingId, start, end);
+          if (freeBusyIndex != null) {
+            freeBusyIndex.rebuildDays(roomId, updated, start, end);
+          }
+          return updated;
+        });
+      }
+      footprints.put(bookingId, new Footprint(Set.copyOf(roomIds), start, end));
+    }));
+  }
+
+  /**
+   * Removes all allocations of the given bookings once the current transaction committed.
+   *
+   * @param bookingIds the ids of the bookings to remove from the index.
+   */
+  public void removeBookings(@NonNull Collection<UUID> bookingIds) {
+    var toRemove = List.copyOf(bookingIds);
+    TransactionHooks.afterCommit(() -> this.apply((timelines, footprints, freeBusyIndex) -> {
+      for (var bookingId : toRemove) {
+        var footprint = footprints.remove(bookingId);
+        if (footprint != null) {
+          for (var roomId : footprint.roomIds()) {
+            timelines.computeIfPresent(roomId, (_, timeline) -> {
+              var updated = timeline.without(bookingId);
+              if (freeBusyIndex != null) {
+                freeBusyIndex.rebuildDays(roomId, updated, footprint.start(), footprint.end());
+              }
+              return updated;
+            });
+          }
+        }
+      }
+    }));
+  }
+
+  /**
+   * Removes all allocations that ended before the given point in time once the current transaction committed.
+   *
+   * @param instant the point in time before which allocations should be removed.
+   */
+  public void evictEndedBefore(@NonNull Instant instant) {
+    var limit = toEpochMicros(instant);
+    TransactionHooks.afterCommit(() -> this.apply((timelines, footprints, freeBusyIndex) -> {
+      timelines.replaceAll((_, timeline) -> timeline.withoutEndedBefore(limit));
+      footprints.values().removeIf(footprint -> footprint.end() < limit);
+      if (freeBusyIndex != null) {
+        freeBusyIndex.evictBefore(LocalDate.ofInstant(instant, ZoneId.systemDefault()));
+      }
+    }));
+  }
+
+  /**
+   * Applies the given change to the current index and records it for the reload that is in progress, if any.
+   */
+  private void apply(@NonNull Change change) {
+    synchronized (this.changeLock) {
+      change.applyTo(this.timelines, this.footprints, this.freeBusyIndex);
+      if (this.changesDuringReload != null) {
+        this.changesDuringReload.add(change);
+      }
+    }
+  }
+
+  /**
+   * Loads the full index from the database as soon as the application is ready to serve requests.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    this.reload();
+  }
+
+  /**
+   * Periodically reloads the full index from the database, to include changes that were made by other replicas of the
+   * application.
+   */
+  @Scheduled(
+    initialDelayString = "${room.availability.refresh-millis:60000}",
+    fixedDelayString = "${room.availability.refresh-millis:60000}")
+  public synchronized void reload() {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this.changeLock) {
+      this.changesDuringReload = new ArrayList<>();
+    }
+
+    try {
+      this.load();
+    } finally {
+      synchronized (this.changeLock) {
+        this.changesDuringReload = null;
+      }
+    }
+  }
+
+  private void load() {
+    var slices = this.allocationRepository.findAllSlices();
+    Map<UUID, List<RoomTimeline.Interval>> intervalsByRoom = new HashMap<>();
+    Map<UUID, Set<UUID>> roomsByBooking = new HashMap<>();
+    Map<UUID, AllocationSlice> sliceByBooking = new HashMap<>();
+    for (var slice : slices) {
+      intervalsByRoom.computeIfAbsent(slice.roomId(), _ -> new ArrayList<>()).add(new RoomTimeline.Interval(
+        slice.bookingId(),
+        toEpochMicros(slice.startTime()),
+        toEpochMicros(slice.endTime())));
+      roomsByBooking.computeIfAbsent(slice.bookingId(), _ -> new HashSet<>()).add(slice.roomId());
+      sliceByBooking.put(slice.bookingId(), slice);
+    }
+
+    Map<UUID, RoomTimeline> timelines = new ConcurrentHashMap<>();
+    intervalsByRoom.forEach((roomId, intervals) -> timelines.put(roomId, RoomTimeline.of(intervals)));
+    Map<UUID, Footprint> footprints = new ConcurrentHashMap<>();
+    roomsByBooking.forEach((bookingId, roomIds) -> {
+      var slice = sliceByBooking.get(bookingId);
+      footprints.put(
+        bookingId,
+        new Footprint(Set.copyOf(roomIds), toEpochMicros(slice.startTime()), toEpochMicros(slice.endTime())));
+    });
+
+    synchronized (this.changeLock) {
+      // the free/busy bitsets are rebuilt from the final timelines below
+      for (var change : this.changesDuringReload) {
+        change.applyTo(timelines, footprints, null);
+      }
+
+      this.freeBusyIndex.replaceAll(timelines);
+      this.timelines = timelines;
+      this.footprints = footprints;
+      this.ready = true;
+    }
+
+    log.debug("Loaded availability index with {} allocations for {} rooms", slices.size(), timelines.size());
+  }
+
+  /**
+   * The rooms a booking allocates and the time range of the allocation, used to remove bookings without scanning all
+   * rooms.
+   */
+  private record Footprint(@NonNull Set<UUID> roomIds, long start, long end) {
+
+  }
+
+  /**
+   * A change of the index made by a write path, applied to the given maps of an index.
+   */
+  @FunctionalInterface
+  private interface Change {
+
+    /**
+     * Applies this change to the given maps.
+     *
+     * @param timelines     the timelines of the rooms.
+     * @param footprints    the footprints of the bookings.
+     * @param freeBusyIndex the free/busy index to update, null if it is rebuilt from the timelines afterward.
+     */
+    void applyTo(
+      @NonNull Map<UUID, RoomTimeline> timelines,
+      @NonNull Map<UUID, Footprint> footprints,
+      @Nullable FreeBusyIndex freeBusyIndex);
+  }
+}
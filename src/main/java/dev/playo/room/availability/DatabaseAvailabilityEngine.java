@@ -0,0 +1,157 @@
+package dev.playo.room.availability;
+
+import static dev.playo.room.util.DateTimeNormalizer.toTimestampArrayLiteral;
+
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.room.CharacteristicSqlBuilder;
+import dev.playo.room.room.data.RoomEntity;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import lombok.NonNull;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves available rooms directly in the database. Availability is determined from the {@code booking_allocations}
+ * table, so that allocations of composite rooms (the parent and all children of a booked room) are respected. The
+ * overlap check is written as an anti-join on {@code tstzrange(start_time, end_time, '[)')}, which matches the
+ * expression of the gist index of the {@code booking_allocations_no_overlap} constraint.
+ */
+@Component
+public class DatabaseAvailabilityEngine {
+
+  private final EntityManager entityManager;
+
+  @Autowired
+  public DatabaseAvailabilityEngine(@NonNull EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Finds all rooms that have no allocation overlapping the given time range and match all given characteristics.
+   *
+   * @param startTime       the inclusive start of the time range.
+   * @param endTime         the exclusive end of the time range.
+   * @param characteristics the characteristics that all returned rooms must match, can be null.
+   * @return all rooms that are available during the given time range.
+   */
+  public @NonNull List<RoomEntity> findAvailableRooms(
+    @NonNull Instant startTime,
+    @NonNull Instant endTime,
+    @Nullable List<SearchCharacteristic> characteristics
+  ) {
+    var sql = new StringBuilder("""
+      SELECT r.* FROM rooms r WHERE NOT EXISTS (
+        SELECT 1 FROM booking_allocations a
+        WHERE a.room_id = r.id
+          AND tstzrange(a.start_time, a.end_time, '[)')
+            && tstzrange(CAST(:startTime AS timestamptz), CAST(:endTime AS timestamptz), '[)'))
+      """);
+
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("startTime", startTime);
+    parameters.put("endTime", endTime);
+
+    CharacteristicSqlBuilder.appendFilters(sql, parameters, characteristics);
+    return this.executeRoomQuery(sql, parameters);
+  }
+
+  /**
+   * Finds the available rooms for multiple time windows in a single round trip. The windows are passed as two arrays
+   * which are unnested and checked laterally per room against the allocations, every room is returned once together
+   * with the (one based) indexes of the windows it is available in.
+   *
+   * @param windows         the time windows to check.
+   * @param characteristics the characteristics that all returned rooms must match, can be null.
+   * @return all rooms that are available in at least one window and the ids of the available rooms per window.
+   */
+  public @NonNull WindowedRooms findAvailableRooms(
+    @NonNull List<TimeWindow> windows,
+    @Nullable List<SearchCharacteristic> characteristics
+  ) {
+    var sql = new StringBuilder("""
+      SELECT r.*, w.window_indexes FROM rooms r
+      CROSS JOIN LATERAL (
+        SELECT string_agg(CAST(w.idx AS text), ',') AS window_indexes
+        FROM unnest(CAST(:windowStarts AS timestamptz[]), CAST(:windowEnds AS timestamptz[]))
+          WITH ORDINALITY AS w(start_time, end_time, idx)
+        WHERE NOT EXISTS (
+          SELECT 1 FROM booking_allocations a
+          WHERE a.room_id = r.id
+            AND tstzrange(a.start_time, a.end_time, '[)') && tstzrange(w.start_time, w.end_time, '[)'))
+      ) w
+      WHERE w.window_indexes IS NOT NULL
+      """);
+
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("windowStarts", toTimestampArrayLiteral(windows.stream().map(TimeWindow::startTime).toList()));
+    parameters.put("windowEnds", toTimestampArrayLiteral(windows.stream().map(TimeWindow::endTime).toList()));
+    CharacteristicSqlBuilder.appendFilters(sql, parameters, characteristics);
+
+    var query = this.entityManager.createNativeQuery(sql.toString())
+      .unwrap(NativeQuery.class)
+      .addEntity("r", RoomEntity.class)
+      .addScalar("window_indexes", StandardBasicTypes.STRING);
+    parameters.forEach(query::setParameter);
+
+    List<RoomEntity> rooms = new ArrayList<>();
+    List<Set<UUID>> availableRoomIds = new ArrayList<>(windows.size());
+    for (var index = 0; index < windows.size(); index++) {
+      availableRoomIds.add(new HashSet<>());
+    }
+    for (var row : (List<?>) query.getResultList()) {
+      var columns = (Object[]) row;
+      var room = (RoomEntity) columns[0];
+      rooms.add(room);
+      for (var windowIndex : ((String) columns[1]).split(",")) {
+        availableRoomIds.get(Integer.parseInt(windowIndex) - 1).add(room.getId());
+      }
+    }
+
+    return new WindowedRooms(rooms, availableRoomIds);
+  }
+
+  /**
+   * Finds all rooms that are not part of the given excluded rooms and match all given characteristics. Used when the
+   * occupied rooms were already resolved by another source.
+   *
+   * @param excludedRoomIds the ids of the rooms to exclude.
+   * @param characteristics the characteristics that all returned rooms must match, can be null.
+   * @return all rooms that are not excluded and match the given characteristics.
+   */
+  public @NonNull List<RoomEntity> findRoomsExcluding(
+    @NonNull Collection<UUID> excludedRoomIds,
+    @Nullable List<SearchCharacteristic> characteristics
+  ) {
+    var sql = new StringBuilder("SELECT r.* FROM rooms r WHERE TRUE");
+    Map<String, Object> parameters = new HashMap<>();
+    if (!excludedRoomIds.isEmpty()) {
+      sql.append(" AND r.id NOT IN (:excludedRoomIds)");
+      parameters.put("excludedRoomIds", excludedRoomIds);
+    }
+
+    CharacteristicSqlBuilder.appendFilters(sql, parameters, characteristics);
+    return this.executeRoomQuery(sql, parameters);
+  }
+
+  @SuppressWarnings("unchecked")
+  private @NonNull List<RoomEntity> executeRoomQuery(
+    @NonNull StringBuilder sql,
+    @NonNull Map<String, Object> parameters
+  ) {
+    var query = this.entityManager.createNativeQuery(sql.toString(), RoomEntity.class);
+    parameters.forEach(query::setParameter);
+    return query.getResultList();
+  }
+}
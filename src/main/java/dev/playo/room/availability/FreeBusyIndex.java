@@ -0,0 +1,293 @@
+package dev.playo.room.availability;
+
+import dev.playo.room.config.BusinessConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact free/busy representation of the allocations of every room, one {@code long[]} bitset per room and day. Each
+ * bit represents a fixed slot (5 minutes by default) between the early and the late booking limit of the day, a set
+ * bit means that at least one allocation intersects the slot. Overlap checks within a single day are answered with a
+ * few word operations: if no bit is set in the requested range the room is free, if the requested range is aligned to
+ * the slots any set bit means that the room is busy. Unaligned ranges with set bits need to be checked against the
+ * exact timeline of the room.
+ * <p>
+ * The bitsets are maintained by the {@link AvailabilityIndex} whenever the timeline of a room changes. The arrays are
+ * never modified after they were published, changes always replace the array of the affected day.
+ */
+@Component
+public class FreeBusyIndex {
+
+  private final long slotMicros;
+  private final BusinessConfiguration businessConfiguration;
+
+  private volatile Map<UUID, Map<Long, long[]>> days = new ConcurrentHashMap<>();
+
+  @Autowired
+  public FreeBusyIndex(
+    @Value("${room.availability.slot-minutes:5}") int slotMinutes,
+    @NonNull BusinessConfiguration businessConfiguration,
+    @NonNull MeterRegistry meterRegistry
+  ) {
+    this.slotMicros = TimeUnit.MINUTES.toMicros(slotMinutes);
+    this.businessConfiguration = businessConfiguration;
+
+    Gauge.builder("room.availability.free_busy.memory", this, FreeBusyIndex::estimatedMemoryBytes)
+      .description("Estimated memory used by the free/busy bitsets of all rooms")
+      .baseUnit("bytes")
+      .register(meterRegistry);
+    Gauge.builder("room.availability.free_busy.days", this, FreeBusyIndex::dayCount)
+      .description("Amount of room days that have a free/busy bitset")
+      .register(meterRegistry);
+  }
+
+  private static @NonNull ZoneId zone() {
+    return ZoneId.systemDefault();
+  }
+
+  private static long toEpochMicros(@NonNull LocalDate date, @NonNull LocalTime time) {
+    return AvailabilityIndex.toEpochMicros(date.atTime(time).atZone(zone()).toInstant());
+  }
+
+  private static @NonNull LocalDate toLocalDate(long epochMicros) {
+    return Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS).atZone(zone()).toLocalDate();
+  }
+
+  private static void setRange(@NonNull long[] words, int fromSlot, int toSlot) {
+    for (var slot = fromSlot; slot < toSlot; ) {
+      var word = slot >>> 6;
+      var wordEnd = Math.min(toSlot, (word + 1) << 6);
+      var mask = rangeMask(slot & 63, wordEnd - (word << 6));
+      words[word] |= mask;
+      slot = wordEnd;
+    }
+  }
+
+  private static boolean anySet(@NonNull long[] words, int fromSlot, int toSlot) {
+    for (var slot = fromSlot; slot < toSlot; ) {
+      var word = slot >>> 6;
+      var wordEnd = Math.min(toSlot, (word + 1) << 6);
+      if ((words[word] & rangeMask(slot & 63, wordEnd - (word << 6))) != 0) {
+        return true;
+      }
+      slot = wordEnd;
+    }
+
+    return false;
+  }
+
+  /**
+   * Builds a mask with the bits from the inclusive start to the exclusive end set, the end can be at most 64.
+   */
+  private static long rangeMask(int fromBit, int toBit) {
+    var upper = toBit == 64 ? -1L : (1L << toBit) - 1;
+    return upper & (-1L << fromBit);
+  }
+
+  /**
+   * Prepares the check of the given half-open time range against the bitsets of multiple rooms.
+   *
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return the probe for the given time range, null if the range is not covered by a single day of bitsets.
+   */
+  public @Nullable Probe probe(@NonNull Instant startTime, @NonNull Instant endTime) {
+    var date = startTime.atZone(zone()).toLocalDate();
+    var windowStart = toEpochMicros(date, this.businessConfiguration.getEarlyBookingTime());
+    var windowEnd = toEpochMicros(date, this.businessConfiguration.getLateBookingTime());
+    var start = AvailabilityIndex.toEpochMicros(startTime);
+    var end = AvailabilityIndex.toEpochMicros(endTime);
+    if (start < windowStart || end > windowEnd || start >= end) {
+      return null;
+    }
+
+    var offsetStart = start - windowStart;
+    var offsetEnd = end - windowStart;
+    var fromSlot = (int) (offsetStart / this.slotMicros);
+    var toSlot = (int) ((offsetEnd + this.slotMicros - 1) / this.slotMicros);
+    var aligned = offsetStart % this.slotMicros == 0 && offsetEnd % this.slotMicros == 0;
+    return new Probe(this.days, date.toEpochDay(), fromSlot, toSlot, aligned);
+  }
+
+  /**
+   * Checks if the given room has no allocation on the given day, within the booking hours.
+   *
+   * @param roomId the id of the room to check.
+   * @param date   the day to check.
+   * @return true if no allocation of the room intersects the booking hours of the given day.
+   */
+  public boolean isDayFree(@NonNull UUID roomId, @NonNull LocalDate date) {
+    var roomDays = this.days.get(roomId);
+    return roomDays == null || !roomDays.containsKey(date.toEpochDay());
+  }
+
+  /**
+   * Recomputes the bitsets of all days that are touched by the given time range from the given timeline of the room.
+   * Must be called whenever the timeline of a room changed, with the time range of the changed allocation.
+   *
+   * @param roomId   the id of the room whose timeline changed.
+   * @param timeline the updated timeline of the room.
+   * @param start    the inclusive start of the changed time range, in epoch microseconds.
+   * @param end      the exclusive end of the changed time range, in epoch microseconds.
+   */
+  void rebuildDays(@NonNull UUID roomId, @NonNull RoomTimeline timeline, long start, long end) {
+    var roomDays = this.days.computeIfAbsent(roomId, _ -> new ConcurrentHashMap<>());
+    var lastDay = toLocalDate(end - 1);
+    for (var day = toLocalDate(start); !day.isAfter(lastDay); day = day.plusDays(1)) {
+      var bits = this.buildDay(timeline, day);
+      if (bits == null) {
+        roomDays.remove(day.toEpochDay());
+      } else {
+        roomDays.put(day.toEpochDay(), bits);
+      }
+    }
+  }
+
+  /**
+   * Replaces all bitsets with ones computed from the given timelines.
+   *
+   * @param timelines the timelines of all rooms.
+   */
+  void replaceAll(@NonNull Map<UUID, RoomTimeline> timelines) {
+    Map<UUID, Map<Long, long[]>> days = new ConcurrentHashMap<>();
+    timelines.forEach((roomId, timeline) -> {
+      Map<Long, long[]> roomDays = new ConcurrentHashMap<>();
+      timeline.forEachOverlapping(Long.MIN_VALUE, Long.MAX_VALUE, (start, end) -> {
+        var lastDay = toLocalDate(end - 1);
+        for (var day = toLocalDate(start); !day.isAfter(lastDay); day = day.plusDays(1)) {
+          var epochDay = day.toEpochDay();
+          if (!roomDays.containsKey(epochDay)) {
+            var bits = this.buildDay(timeline, day);
+            if (bits != null) {
+              roomDays.put(epochDay, bits);
+            }
+          }
+        }
+      });
+      days.put(roomId, roomDays);
+    });
+    this.days = days;
+  }
+
+  /**
+   * Removes the bitsets of all days before the given day.
+   *
+   * @param date the first day to keep.
+   */
+  void evictBefore(@NonNull LocalDate date) {
+    var limit = date.toEpochDay();
+    this.days.values().forEach(roomDays -> roomDays.keySet().removeIf(epochDay -> epochDay < limit));
+  }
+
+  /**
+   * Computes the bitset of a single day of a room from the given timeline.
+   *
+   * @return the bitset of the day, null if no allocation intersects the booking hours of the day.
+   */
+  private @Nullable long[] buildDay(@NonNull RoomTimeline timeline, @NonNull LocalDate day) {
+    var windowStart = toEpochMicros(day, this.businessConfiguration.getEarlyBookingTime());
+    var windowEnd = toEpochMicros(day, this.businessConfiguration.getLateBookingTime());
+    var slotCount = (int) ((windowEnd - windowStart + this.slotMicros - 1) / this.slotMicros);
+
+    var words = new long[(slotCount + 63) >>> 6];
+    var empty = new boolean[]{true};
+    timeline.forEachOverlapping(windowStart, windowEnd, (start, end) -> {
+      var fromSlot = (int) ((Math.max(start, windowStart) - windowStart) / this.slotMicros);
+      var toSlot = (int) ((Math.min(end, windowEnd) - windowStart + this.slotMicros - 1) / this.slotMicros);
+      setRange(words, fromSlot, toSlot);
+      empty[0] = false;
+    });
+    return empty[0] ? null : words;
+  }
+
+  private long estimatedMemoryBytes() {
+    // array header plus the words of each bitset, and roughly the size of a map entry with a boxed key
+    var bytes = 0L;
+    for (var roomDays : this.days.values()) {
+      for (var words : roomDays.values()) {
+        bytes += 16L + words.length * 8L + 48L;
+      }
+    }
+
+    return bytes;
+  }
+
+  private long dayCount() {
+    return this.days.values().stream().mapToLong(Map::size).sum();
+  }
+
+  /**
+   * A prepared check of a time range within a single day against the bitsets of rooms.
+   */
+  public static final class Probe {
+
+    private final Map<UUID, Map<Long, long[]>> days;
+    private final long epochDay;
+    private final int fromSlot;
+    private final int toSlot;
+    private final boolean aligned;
+
+    private Probe(
+      @NonNull Map<UUID, Map<Long, long[]>> days,
+      long epochDay,
+      int fromSlot,
+      int toSlot,
+      boolean aligned
+    ) {
+      this.days = days;
+      this.epochDay = epochDay;
+      this.fromSlot = fromSlot;
+      this.toSlot = toSlot;
+      this.aligned = aligned;
+    }
+
+    /**
+     * Checks the time range of this probe against the bitset of the given room.
+     *
+     * @param roomId the id of the room to check.
+     * @return the occupancy of the room during the time range of this probe.
+     */
+    public @NonNull Occupancy check(@NonNull UUID roomId) {
+      var roomDays = this.days.get(roomId);
+      var words = roomDays == null ? null : roomDays.get(this.epochDay);
+      if (words == null || !anySet(words, this.fromSlot, this.toSlot)) {
+        return Occupancy.FREE;
+      }
+
+      return this.aligned ? Occupancy.BUSY : Occupancy.UNKNOWN;
+    }
+  }
+
+  /**
+   * The result of a check against the bitsets.
+   */
+  public enum Occupancy {
+    /**
+     * No allocation intersects the checked time range.
+     */
+    FREE,
+    /**
+     * At least one allocation overlaps with the checked time range.
+     */
+    BUSY,
+    /**
+     * An allocation intersects a slot that is only partially covered by the checked time range, the exact timeline
+     * needs to be checked.
+     */
+    UNKNOWN
+  }
+}
@@ -0,0 +1,250 @@
+package dev.playo.room.availability;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import lombok.NonNull;
+
+/**
+ * Immutable, sorted set of the allocated intervals of a single room. Intervals are half-open ({@code [start, end)}),
+ * sorted by their start and augmented with the running maximum of their end, which allows answering overlap queries
+ * with a single binary search even if the intervals themselves overlap (for example while the local state lags behind
+ * the database). All time values are given in epoch microseconds, matching the precision of the database columns.
+ */
+public final class RoomTimeline {
+
+  public static final RoomTimeline EMPTY = new RoomTimeline(new UUID[0], new long[0], new long[0]);
+
+  private final UUID[] bookingIds;
+  private final long[] starts;
+  private final long[] ends;
+  private final long[] maxEnds;
+
+  private RoomTimeline(@NonNull UUID[] bookingIds, @NonNull long[] starts, @NonNull long[] ends) {
+    this.bookingIds = bookingIds;
+    this.starts = starts;
+    this.ends = ends;
+    this.maxEnds = new long[ends.length];
+
+    var max = Long.MIN_VALUE;
+    for (var index = 0; index < ends.length; index++) {
+      max = Math.max(max, ends[index]);
+      this.maxEnds[index] = max;
+    }
+  }
+
+  /**
+   * Creates a new timeline from the given intervals, which do not need to be sorted.
+   *
+   * @param intervals the intervals to put into the timeline.
+   * @return a new timeline holding the given intervals.
+   */
+  public static @NonNull RoomTimeline of(@NonNull List<Interval> intervals) {
+    var sorted = intervals.stream().sorted(Comparator.comparingLong(Interval::start)).toList();
+    var bookingIds = new UUID[sorted.size()];
+    var starts = new long[sorted.size()];
+    var ends = new long[sorted.size()];
+    for (var index = 0; index < sorted.size(); index++) {
+      var interval = sorted.get(index);
+      bookingIds[index] = interval.bookingId();
+      starts[index] = interval.start();
+      ends[index] = interval.end();
+    }
+
+    return new RoomTimeline(bookingIds, starts, ends);
+  }
+
+  /**
+   * Checks if any interval of this timeline overlaps with the given half-open interval.
+   *
+   * @param start the inclusive start of the interval to check, in epoch microseconds.
+   * @param end   the exclusive end of the interval to check, in epoch microseconds.
+   * @return true if at least one allocated interval overlaps with the given interval, false otherwise.
+   */
+  public boolean overlaps(long start, long end) {
+    var candidates = this.countStartingBefore(end);
+    return candidates > 0 && this.maxEnds[candidates - 1] > start;
+  }
+
+  /**
+   * Finds the earliest point in time from which the given half-open interval could be free. If no interval overlaps
+   * the given interval, the given start is returned. Otherwise, the latest end of all intervals starting before the
+   * given end is returned, as every interval starting before that point overlaps with an allocation as well. Used to
+   * sweep over the timeline when searching free slots.
+   *
+   * @param start the inclusive start of the interval to check, in epoch microseconds.
+   * @param end   the exclusive end of the interval to check, in epoch microseconds.
+   * @return the given start if the interval is free, otherwise a point in time after the given start.
+   */
+  public long freeFrom(long start, long end) {
+    var candidates = this.countStartingBefore(end);
+    if (candidates == 0 || this.maxEnds[candidates - 1] <= start) {
+      return start;
+    }
+
+    return this.maxEnds[candidates - 1];
+  }
+
+  /**
+   * Passes every interval of this timeline that overlaps with the given half-open interval to the given consumer, in
+   * the order of their start.
+   *
+   * @param start    the inclusive start of the interval to check, in epoch microseconds.
+   * @param end      the exclusive end of the interval to check, in epoch microseconds.
+   * @param consumer the consumer to pass the start and end of the overlapping intervals to.
+   */
+  public void forEachOverlapping(long start, long end, @NonNull IntervalConsumer consumer) {
+    var candidates = this.countStartingBefore(end);
+
+    // the running maximum of the ends is sorted, skip all intervals that ended before the given start at once
+    var low = 0;
+    var high = candidates;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (this.maxEnds[mid] <= start) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    for (var index = low; index < candidates; index++) {
+      if (this.ends[index] > start) {
+        consumer.accept(this.starts[index], this.ends[index]);
+      }
+    }
+  }
+
+  /**
+   * Get the amount of intervals that are stored in this timeline.
+   *
+   * @return the amount of intervals in this timeline.
+   */
+  public int size() {
+    return this.starts.length;
+  }
+
+  /**
+   * Returns a copy of this timeline that additionally contains the given interval. An existing interval of the same
+   * booking is replaced.
+   *
+   * @param bookingId the id of the booking the interval belongs to.
+   * @param start     the inclusive start of the interval, in epoch microseconds.
+   * @param end       the exclusive end of the interval, in epoch microseconds.
+   * @return a new timeline containing the given interval.
+   */
+  public @NonNull RoomTimeline with(@NonNull UUID bookingId, long start, long end) {
+    var base = this.without(bookingId);
+    var length = base.starts.length;
+    var insertAt = base.countStartingBefore(start);
+
+    var newBookingIds = new UUID[length + 1];
+    var newStarts = new long[length + 1];
+    var newEnds = new long[length + 1];
+    System.arraycopy(base.bookingIds, 0, newBookingIds, 0, insertAt);
+    System.arraycopy(base.starts, 0, newStarts, 0, insertAt);
+    System.arraycopy(base.ends, 0, newEnds, 0, insertAt);
+    newBookingIds[insertAt] = bookingId;
+    newStarts[insertAt] = start;
+    newEnds[insertAt] = end;
+    System.arraycopy(base.bookingIds, insertAt, newBookingIds, insertAt + 1, length - insertAt);
+    System.arraycopy(base.starts, insertAt, newStarts, insertAt + 1, length - insertAt);
+    System.arraycopy(base.ends, insertAt, newEnds, insertAt + 1, length - insertAt);
+    return new RoomTimeline(newBookingIds, newStarts, newEnds);
+  }
+
+  /**
+   * Returns a copy of this timeline without the interval of the given booking.
+   *
+   * @param bookingId the id of the booking to remove.
+   * @return a timeline without the given booking, this instance if the booking is not part of this timeline.
+   */
+  public @NonNull RoomTimeline without(@NonNull UUID bookingId) {
+    for (var index = 0; index < this.bookingIds.length; index++) {
+      if (this.bookingIds[index].equals(bookingId)) {
+        return this.copyWithout(index);
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * Returns a copy of this timeline that only contains the intervals which end after the given point in time.
+   *
+   * @param instant the point in time, in epoch microseconds.
+   * @return a timeline without the intervals ended before the given time, this instance if nothing was removed.
+   */
+  public @NonNull RoomTimeline withoutEndedBefore(long instant) {
+    var kept = 0;
+    for (var end : this.ends) {
+      if (end >= instant) {
+        kept++;
+      }
+    }
+
+    if (kept == this.ends.length) {
+      return this;
+    }
+
+    var newBookingIds = new UUID[kept];
+    var newStarts = new long[kept];
+    var newEnds = new long[kept];
+    var target = 0;
+    for (var index = 0; index < this.ends.length; index++) {
+      if (this.ends[index] >= instant) {
+        newBookingIds[target] = this.bookingIds[index];
+        newStarts[target] = this.starts[index];
+        newEnds[target] = this.ends[index];
+        target++;
+      }
+    }
+
+    return new RoomTimeline(newBookingIds, newStarts, newEnds);
+  }
+
+  private @NonNull RoomTimeline copyWithout(int index) {
+    var length = this.starts.length;
+    var newBookingIds = new UUID[length - 1];
+    var newStarts = new long[length - 1];
+    var newEnds = new long[length - 1];
+    System.arraycopy(this.bookingIds, 0, newBookingIds, 0, index);
+    System.arraycopy(this.starts, 0, newStarts, 0, index);
+    System.arraycopy(this.ends, 0, newEnds, 0, index);
+    System.arraycopy(this.bookingIds, index + 1, newBookingIds, index, length - index - 1);
+    System.arraycopy(this.starts, index + 1, newStarts, index, length - index - 1);
+    System.arraycopy(this.ends, index + 1, newEnds, index, length - index - 1);
+    return new RoomTimeline(newBookingIds, newStarts, newEnds);
+  }
+
+  private int countStartingBefore(long instant) {
+    var low = 0;
+    var high = this.starts.length;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (this.starts[mid] < instant) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * A single allocated interval of a booking, in epoch microseconds.
+   */
+  public record Interval(@NonNull UUID bookingId, long start, long end) {
+
+  }
+
+  /**
+   * Consumer of the start and end of an interval, in epoch microseconds.
+   */
+  @FunctionalInterface
+  public interface IntervalConsumer {
+
+    void accept(long start, long end);
+  }
+}
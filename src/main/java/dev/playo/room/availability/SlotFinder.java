@@ -0,0 +1,199 @@
+package dev.playo.room.availability;
+
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.config.BusinessConfiguration;
+import dev.playo.room.exception.GeneralProblemException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds the earliest free slots of a fixed duration across a set of rooms. Every room is swept along its sorted
+ * allocations, jumping over blocked time ranges and times outside the allowed booking hours. The best slots are kept in
+ * a priority queue bounded to the requested amount of slots, and the sweep of a room stops as soon as its next slot
+ * cannot improve the current result, so the cost depends on the amount of requested slots and not on the search
+ * horizon.
+ */
+@Component
+public class SlotFinder {
+
+  private static final Comparator<FreeSlot> EARLIEST_FIRST = Comparator
+    .comparing(FreeSlot::startTime)
+    .thenComparing(FreeSlot::roomId);
+
+  private final AvailabilityIndex availabilityIndex;
+  private final BookingAllocationRepository allocationRepository;
+  private final BusinessConfiguration businessConfiguration;
+
+  @Autowired
+  public SlotFinder(
+    @NonNull AvailabilityIndex availabilityIndex,
+    @NonNull BookingAllocationRepository allocationRepository,
+    @NonNull BusinessConfiguration businessConfiguration
+  ) {
+    this.availabilityIndex = availabilityIndex;
+    this.allocationRepository = allocationRepository;
+    this.businessConfiguration = businessConfiguration;
+  }
+
+  /**
+   * Finds the earliest free slots of the given duration in the given rooms. Slots of the same room do not overlap and
+   * every slot lies within the allowed booking hours of a single day.
+   *
+   * @param roomIds   the ids of the rooms to search the slots in.
+   * @param startTime the earliest start of a slot.
+   * @param endTime   the latest end of a slot.
+   * @param duration  the duration of each slot.
+   * @param limit     the maximum amount of slots to return.
+   * @return the earliest free slots, ordered by their start time.
+   * @throws GeneralProblemException if the duration does not fit into the allowed booking hours of a day.
+   */
+  public @NonNull List<FreeSlot> findEarliestSlots(
+    @NonNull Collection<UUID> roomIds,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime,
+    @NonNull Duration duration,
+    int limit
+  ) {
+    var bookingHours = Duration.between(
+      this.businessConfiguration.getEarlyBookingTime(),
+      this.businessConfiguration.getLateBookingTime());
+    if (duration.isNegative() || duration.isZero() || duration.compareTo(bookingHours) > 0) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "Slots must be longer than zero and fit between %s and %s.".formatted(
+          this.businessConfiguration.getEarlyBookingTime(),
+          this.businessConfiguration.getLateBookingTime()));
+    }
+
+    if (roomIds.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    var timelines = this.loadTimelines(roomIds, startTime, endTime);
+
+    // max-heap on the start time, the head is the worst slot that is currently part of the result
+    var best = new PriorityQueue<>(limit, EARLIEST_FIRST.reversed());
+    for (var roomId : roomIds) {
+      var timeline = timelines.getOrDefault(roomId, RoomTimeline.EMPTY);
+      var cursor = startTime;
+      while (true) {
+        var slotStart = this.nextFreeStart(timeline, cursor, endTime, duration);
+        if (slotStart == null) {
+          break;
+        }
+
+        var slot = new FreeSlot(roomId, slotStart, slotStart.plus(duration));
+        if (best.size() < limit) {
+          best.add(slot);
+        } else if (EARLIEST_FIRST.compare(slot, best.peek()) < 0) {
+          best.poll();
+          best.add(slot);
+        } else {
+          // all further slots of this room start even later
+          break;
+        }
+
+        cursor = slot.endTime();
+      }
+    }
+
+    var slots = new ArrayList<>(best);
+    slots.sort(EARLIEST_FIRST);
+    return slots;
+  }
+
+  private @NonNull Map<UUID, RoomTimeline> loadTimelines(
+    @NonNull Collection<UUID> roomIds,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime
+  ) {
+    Map<UUID, RoomTimeline> timelines = new HashMap<>();
+    if (this.availabilityIndex.isAvailable()) {
+      for (var roomId : roomIds) {
+        timelines.put(roomId, this.availabilityIndex.timeline(roomId));
+      }
+
+      return timelines;
+    }
+
+    Map<UUID, List<RoomTimeline.Interval>> intervalsByRoom = new HashMap<>();
+    for (var slice : this.allocationRepository.findSlicesByRoomsBetween(roomIds, startTime, endTime)) {
+      intervalsByRoom.computeIfAbsent(slice.roomId(), _ -> new ArrayList<>()).add(new RoomTimeline.Interval(
+        slice.bookingId(),
+        AvailabilityIndex.toEpochMicros(slice.startTime()),
+        AvailabilityIndex.toEpochMicros(slice.endTime())));
+    }
+
+    intervalsByRoom.forEach((roomId, intervals) -> timelines.put(roomId, RoomTimeline.of(intervals)));
+    return timelines;
+  }
+
+  /**
+   * Sweeps the given timeline from the given cursor until a free slot of the given duration is found which lies
+   * within the booking hours of a single day.
+   *
+   * @return the start of the next free slot, null if there is no free slot before the given end time.
+   */
+  private Instant nextFreeStart(
+    @NonNull RoomTimeline timeline,
+    @NonNull Instant cursor,
+    @NonNull Instant endTime,
+    @NonNull Duration duration
+  ) {
+    var zone = ZoneId.systemDefault();
+    var candidate = cursor;
+    while (true) {
+      var localCandidate = candidate.atZone(zone);
+      var dayStart = localCandidate.toLocalDate().atTime(this.businessConfiguration.getEarlyBookingTime()).atZone(zone);
+      var dayEnd = localCandidate.toLocalDate().atTime(this.businessConfiguration.getLateBookingTime()).atZone(zone);
+      if (localCandidate.isBefore(dayStart)) {
+        candidate = dayStart.toInstant();
+      } else if (localCandidate.plus(duration).isAfter(dayEnd)) {
+        candidate = localCandidate.toLocalDate()
+          .plusDays(1)
+          .atTime(this.businessConfiguration.getEarlyBookingTime())
+          .atZone(zone)
+          .toInstant();
+        continue;
+      }
+
+      var candidateEnd = candidate.plus(duration);
+      if (candidateEnd.isAfter(endTime)) {
+        return null;
+      }
+
+      var start = AvailabilityIndex.toEpochMicros(candidate);
+      var freeFrom = timeline.freeFrom(start, AvailabilityIndex.toEpochMicros(candidateEnd));
+      if (freeFrom == start) {
+        return candidate;
+      }
+
+      candidate = Instant.EPOCH.plus(freeFrom, ChronoUnit.MICROS);
+    }
+  }
+
+  /**
+   * A free slot in a room.
+   *
+   * @param roomId    the id of the room.
+   * @param startTime the inclusive start of the slot.
+   * @param endTime   the exclusive end of the slot.
+   */
+  public record FreeSlot(@NonNull UUID roomId, @NonNull Instant startTime, @NonNull Instant endTime) {
+
+  }
+}
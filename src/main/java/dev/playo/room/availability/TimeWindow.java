@@ -0,0 +1,14 @@
+package dev.playo.room.availability;
+
+import java.time.Instant;
+import lombok.NonNull;
+
+/**
+ * A time range of an availability inquiry, the start is inclusive and the end is exclusive.
+ *
+ * @param startTime the inclusive start of the time range.
+ * @param endTime   the exclusive end of the time range.
+ */
+public record TimeWindow(@NonNull Instant startTime, @NonNull Instant endTime) {
+
+}
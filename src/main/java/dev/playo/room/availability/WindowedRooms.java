@@ -0,0 +1,17 @@
+package dev.playo.room.availability;
+
+import dev.playo.room.room.data.RoomEntity;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.NonNull;
+
+/**
+ * The result of an availability inquiry over multiple time windows.
+ *
+ * @param rooms            all rooms that are available in at least one of the windows.
+ * @param availableRoomIds the ids of the available rooms per window, in the order of the requested windows.
+ */
+public record WindowedRooms(@NonNull List<RoomEntity> rooms, @NonNull List<Set<UUID>> availableRoomIds) {
+
+}
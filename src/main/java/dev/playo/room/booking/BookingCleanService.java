@@ -1,7 +1,11 @@
 package dev.playo.room.booking;
 
+import dev.playo.room.availability.AvailabilityIndex;
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.building.BuildingScheduleCache;
+import dev.playo.room.occupancy.OccupancyRollup;
 import jakarta.transaction.Transactional;
+import java.time.Instant;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,17 +16,38 @@ import org.springframework.stereotype.Service;
 public class BookingCleanService {
 
   private final BookingRepository bookingRepository;
+  private final AvailabilityIndex availabilityIndex;
+  private final BuildingScheduleCache scheduleCache;
+  private final OccupancyRollup occupancyRollup;
 
   @Autowired
-  public BookingCleanService(BookingRepository bookingRepository) {
+  public BookingCleanService(
+    BookingRepository bookingRepository,
+    AvailabilityIndex availabilityIndex,
+    BuildingScheduleCache scheduleCache,
+    OccupancyRollup occupancyRollup
+  ) {
     this.bookingRepository = bookingRepository;
+    this.availabilityIndex = availabilityIndex;
+    this.scheduleCache = scheduleCache;
+    this.occupancyRollup = occupancyRollup;
   }
 
   @Transactional
   @Scheduled(cron = "${room.booking.clean-cron:0 1/5 * * * *}")
   public void cleanOutdatedBookings() {
     log.debug("Cleaning outdated bookings...");
+    // everything that ended before now is irrelevant for future inquiries, stragglers are dropped on the next reload
+    var cleanTime = Instant.now();
     var count = this.bookingRepository.deleteAllOutdatedBookings();
+    this.availabilityIndex.evictEndedBefore(cleanTime);
+    if (count > 0) {
+      this.scheduleCache.bookingsEndedBefore(cleanTime);
+    }
+
+    // the occupancy of removed bookings is kept, they took place; only rollups older than the retention are removed
+    this.occupancyRollup.pruneExpired(cleanTime);
+
     log.info("Cleaned {} outdated bookings", count);
   }
 }
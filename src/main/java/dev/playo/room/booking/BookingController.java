@@ -2,10 +2,19 @@ package dev.playo.room.booking;
 
 import dev.playo.generated.roommanagement.api.BookingsApi;
 import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.BookingPage;
+import dev.playo.generated.roommanagement.model.BookingSeries;
+import dev.playo.generated.roommanagement.model.BulkBookingRequest;
+import dev.playo.generated.roommanagement.model.BulkBookingResponse;
+import dev.playo.generated.roommanagement.model.ExportFormat;
 import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.generated.roommanagement.model.RoomBookingSeriesRequest;
+import dev.playo.room.building.BuildingService;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -16,15 +25,46 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 public class BookingController implements BookingsApi {
 
   private final BookingService bookingService;
+  private final BookingIdempotencyService bookingIdempotencyService;
+  private final BulkBookingService bulkBookingService;
+  private final BookingSeriesService bookingSeriesService;
+  private final BookingExportService bookingExportService;
+  private final BuildingService buildingService;
 
   @Autowired
-  public BookingController(BookingService bookingService) {
+  public BookingController(
+    BookingService bookingService,
+    BookingIdempotencyService bookingIdempotencyService,
+    BulkBookingService bulkBookingService,
+    BookingSeriesService bookingSeriesService,
+    BookingExportService bookingExportService,
+    BuildingService buildingService
+  ) {
     this.bookingService = bookingService;
+    this.bookingIdempotencyService = bookingIdempotencyService;
+    this.bulkBookingService = bulkBookingService;
+    this.bookingSeriesService = bookingSeriesService;
+    this.bookingExportService = bookingExportService;
+    this.buildingService = buildingService;
   }
 
   @Override
-  public ResponseEntity<Booking> bookRoom(RoomBookingRequest roomBookingRequest) {
-    return ResponseEntity.ok(this.bookingService.createBooking(roomBookingRequest));
+  public ResponseEntity<Booking> bookRoom(RoomBookingRequest roomBookingRequest, String idempotencyKey) {
+    if (idempotencyKey == null) {
+      return ResponseEntity.ok(this.bookingService.createBooking(roomBookingRequest));
+    }
+
+    return ResponseEntity.ok(this.bookingIdempotencyService.createBooking(idempotencyKey, roomBookingRequest));
+  }
+
+  @Override
+  public ResponseEntity<BulkBookingResponse> bookRoomsBulk(BulkBookingRequest bulkBookingRequest) {
+    return ResponseEntity.ok(this.bulkBookingService.createBookings(bulkBookingRequest.getBookings()));
+  }
+
+  @Override
+  public ResponseEntity<BookingSeries> bookRoomSeries(RoomBookingSeriesRequest roomBookingSeriesRequest) {
+    return ResponseEntity.ok(this.bookingSeriesService.createSeries(roomBookingSeriesRequest));
   }
 
   @Override
@@ -35,7 +75,54 @@ public class BookingController implements BookingsApi {
 
   @Override
   public ResponseEntity<List<Booking>> getAllBookings() {
-    return ResponseEntity.ok(this.bookingService.allKnownBookings());
+    return ResponseEntity.ok(this.streamJsonBookings(null, null));
+  }
+
+  @Override
+  public ResponseEntity<BookingPage> getBookingPage(
+    UUID cursor,
+    Integer limit,
+    OffsetDateTime from,
+    OffsetDateTime to
+  ) {
+    return ResponseEntity.ok(this.bookingService.findBookings(cursor, limit, from, to));
+  }
+
+  @Override
+  public ResponseEntity<List<Booking>> streamAllBookings(OffsetDateTime from, OffsetDateTime to) {
+    return ResponseEntity.ok(this.streamJsonBookings(from, to));
+  }
+
+  @Override
+  public ResponseEntity<Resource> exportBookings(
+    OffsetDateTime from,
+    OffsetDateTime to,
+    UUID buildingId,
+    ExportFormat format
+  ) {
+    var exportFormat = format == null ? BookingExportFormat.NDJSON : BookingExportFormat.valueOf(format.name());
+
+    // validated before the response is committed, so that invalid requests are still answered with a problem detail
+    var range = this.bookingService.bookingTimeRange(from, to);
+    if (buildingId != null) {
+      this.buildingService.findBuildingById(buildingId);
+    }
+
+    var export = new StreamedResource(outputStream ->
+      this.bookingExportService.writeBookings(range, buildingId, exportFormat, outputStream));
+    return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(export);
+  }
+
+  /**
+   * Streams all bookings overlapping the given time range as a single json array, ordered by their id. Every booking
+   * is serialized directly from the database cursor into the response, so the memory used does not depend on the
+   * amount of bookings.
+   */
+  private StreamedList<Booking> streamJsonBookings(OffsetDateTime from, OffsetDateTime to) {
+    // validated before the response is committed, so that invalid requests are still answered with a problem detail
+    var range = this.bookingService.bookingTimeRange(from, to);
+    return new StreamedList<>(outputStream ->
+      this.bookingExportService.writeBookings(range, null, BookingExportFormat.JSON, outputStream));
   }
 
   @Override
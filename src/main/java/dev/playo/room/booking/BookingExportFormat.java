@@ -0,0 +1,34 @@
+package dev.playo.room.booking;
+
+import java.nio.charset.StandardCharsets;
+import lombok.Getter;
+import lombok.NonNull;
+import org.springframework.http.MediaType;
+
+/**
+ * The formats in which bookings can be streamed.
+ */
+@Getter
+public enum BookingExportFormat {
+
+  /**
+   * A single json array containing all bookings.
+   */
+  JSON(MediaType.APPLICATION_JSON),
+
+  /**
+   * One json object per booking, each followed by a line break.
+   */
+  NDJSON(MediaType.APPLICATION_NDJSON),
+
+  /**
+   * A header line followed by one line per booking, multi-valued columns are separated by semicolons.
+   */
+  CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+  private final MediaType mediaType;
+
+  BookingExportFormat(@NonNull MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+}
@@ -0,0 +1,163 @@
+package dev.playo.room.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.room.availability.TimeWindow;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.BookingRow;
+import dev.playo.room.util.DateTimeNormalizer;
+import jakarta.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.ThrowingConsumer;
+
+/**
+ * Streams bookings of a time range into an output stream. The bookings are read through a forward-only database
+ * cursor within a read-only transaction and every booking is written as soon as it was read, so the memory used is
+ * bounded by the fetch size of the cursor and the write buffer, independent of the amount of exported bookings.
+ */
+@Service
+public class BookingExportService {
+
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  private static final String CSV_HEADER =
+    "id,room_id,start_time,end_time,lecturer_ids,student_group_names,series_id\n";
+
+  private final BookingRepository bookingRepository;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter bookingWriter;
+
+  @Autowired
+  public BookingExportService(
+    @NonNull BookingRepository bookingRepository,
+    @NonNull TransactionTemplate transactionTemplate,
+    @NonNull ObjectMapper objectMapper
+  ) {
+    this.bookingRepository = bookingRepository;
+    this.objectMapper = objectMapper;
+    // the output is flushed when the write buffer is full instead of after every booking
+    this.bookingWriter = objectMapper.writerFor(Booking.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  private static void writeCsvLine(@NonNull Writer writer, @NonNull BookingRow row) throws IOException {
+    writer.write(row.id().toString());
+    writer.write(',');
+    writer.write(row.roomId().toString());
+    writer.write(',');
+    writer.write(formatTime(row.startTime()));
+    writer.write(',');
+    writer.write(formatTime(row.endTime()));
+    writer.write(',');
+    writer.write(csvField(joined(row.lecturerIds())));
+    writer.write(',');
+    writer.write(csvField(joined(row.studentGroupNames())));
+    writer.write(',');
+    if (row.seriesId() != null) {
+      writer.write(row.seriesId().toString());
+    }
+
+    writer.write('\n');
+  }
+
+  private static @NonNull String formatTime(@NonNull Instant instant) {
+    return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(DateTimeNormalizer.fromInstant(instant));
+  }
+
+  private static @NonNull String joined(@Nullable Collection<?> values) {
+    if (values == null) {
+      return "";
+    }
+
+    return values.stream().map(String::valueOf).collect(Collectors.joining(";"));
+  }
+
+  /**
+   * Quotes the given value as described in RFC 4180 if it contains a separator, a quote or a line break.
+   */
+  private static @NonNull String csvField(@NonNull String value) {
+    for (var index = 0; index < value.length(); index++) {
+      var character = value.charAt(index);
+      if (character == ',' || character == '"' || character == '\n' || character == '\r') {
+        return '"' + value.replace("\"", "\"\"") + '"';
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * Writes all bookings overlapping the given time range in the given format, ordered by the booking id.
+   *
+   * @param range        the time range of the bookings.
+   * @param buildingId   the id of the building to export the bookings of, null to export the bookings of all rooms.
+   * @param format       the format in which the bookings are written.
+   * @param outputStream the stream to write the bookings to.
+   * @throws IOException if the bookings could not be written.
+   */
+  public void writeBookings(
+    @NonNull TimeWindow range,
+    @Nullable UUID buildingId,
+    @NonNull BookingExportFormat format,
+    @NonNull OutputStream outputStream
+  ) throws IOException {
+    var bufferedOutputStream = new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE);
+    switch (format) {
+      case JSON -> {
+        try (var bookings = this.bookingWriter.writeValuesAsArray(bufferedOutputStream)) {
+          this.forEachBooking(range, buildingId, row -> bookings.write(row.toBookingDto()));
+        }
+      }
+      case NDJSON -> {
+        try (var generator = this.objectMapper.createGenerator(bufferedOutputStream)) {
+          // every booking is terminated by a line break instead of being separated by the default space
+          generator.setRootValueSeparator(null);
+          this.forEachBooking(range, buildingId, row -> {
+            this.bookingWriter.writeValue(generator, row.toBookingDto());
+            generator.writeRaw('\n');
+          });
+        }
+      }
+      case CSV -> {
+        var writer = new BufferedWriter(new OutputStreamWriter(bufferedOutputStream, StandardCharsets.UTF_8));
+        try (writer) {
+          writer.write(CSV_HEADER);
+          this.forEachBooking(range, buildingId, row -> writeCsvLine(writer, row));
+        }
+      }
+    }
+  }
+
+  private void forEachBooking(
+    @NonNull TimeWindow range,
+    @Nullable UUID buildingId,
+    @NonNull ThrowingConsumer<BookingRow> consumer
+  ) {
+    this.readOnlyTransactionTemplate.executeWithoutResult(_ -> {
+      var rows = buildingId == null
+        ? this.bookingRepository.streamRows(range.startTime(), range.endTime())
+        : this.bookingRepository.streamRowsByBuilding(buildingId, range.startTime(), range.endTime());
+      try (rows) {
+        rows.forEach(consumer);
+      }
+    });
+  }
+}
@@ -0,0 +1,324 @@
+package dev.playo.room.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.booking.data.idempotency.IdempotencyKeyRepository;
+import dev.playo.room.exception.GeneralProblemException;
+import jakarta.annotation.Nullable;
+import jakarta.transaction.Transactional;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Executes booking requests at most once per client chosen idempotency key. The first result of a key, the booking or
+ * the problem, is stored in the {@code idempotency_keys} table, so that all replicas agree on it, and in a bounded,
+ * expiring in-memory cache in front of it. A key is claimed in the table before the booking is created; duplicates
+ * that arrive while the first request is in flight wait for its result instead of creating the booking again.
+ * <p>
+ * A claim is only held for a short lease while the booking is created, the key expires after its full time to live
+ * once the result is stored. If a replica stops before storing the result, the lease runs out and the next request
+ * with the key takes the claim over, instead of being rejected as in flight until the key expires.
+ * <p>
+ * The result of a created booking is stored in the transaction that saves the booking, so a booking is never committed
+ * without its result. Every claim has its own token and a result is only stored, or a claim released, by the request
+ * that still holds the claim. A request whose claim was taken over after its lease ran out rolls its booking back.
+ */
+@Slf4j
+@Service
+public class BookingIdempotencyService {
+
+  private static final long POLL_INTERVAL_MILLIS = 50;
+
+  private final Duration keyTtl;
+  private final Duration claimLease;
+  private final Duration waitTimeout;
+  private final BookingService bookingService;
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  private final Cache<String, StoredResult> results;
+  private final Map<String, CompletableFuture<StoredResult>> inFlight = new ConcurrentHashMap<>();
+
+  @Autowired
+  public BookingIdempotencyService(
+    @Value("${room.booking.idempotency.ttl-minutes:1440}") long keyTtlMinutes,
+    @Value("${room.booking.idempotency.lease-seconds:30}") long claimLeaseSeconds,
+    @Value("${room.booking.idempotency.max-cached-results:10000}") long maxCachedResults,
+    @Value("${room.booking.idempotency.wait-millis:10000}") long waitMillis,
+    @NonNull BookingService bookingService,
+    @NonNull IdempotencyKeyRepository idempotencyKeyRepository,
+    @NonNull TransactionTemplate transactionTemplate,
+    @NonNull ObjectMapper objectMapper
+  ) {
+    this.keyTtl = Duration.ofMinutes(keyTtlMinutes);
+    this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
+    this.waitTimeout = Duration.ofMillis(waitMillis);
+    this.bookingService = bookingService;
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.results = Caffeine.newBuilder()
+      .maximumSize(maxCachedResults)
+      .expireAfterWrite(this.keyTtl)
+      .build();
+  }
+
+  private static @NonNull GeneralProblemException stillInFlightProblem() {
+    return new GeneralProblemException(
+      HttpStatus.CONFLICT,
+      "A request with the same idempotency key is still being processed, please try again.");
+  }
+
+  /**
+   * Creates the requested booking unless a request with the same idempotency key was already processed, in which case
+   * the result of that request is returned or its problem is thrown again.
+   *
+   * @param idempotencyKey the idempotency key chosen by the client.
+   * @param request        the booking to create.
+   * @return the booking that was created for the given key.
+   * @throws GeneralProblemException if the booking could not be created, or if the key was used for a different
+   *                                 request.
+   */
+  public @NonNull Booking createBooking(@NonNull String idempotencyKey, @NonNull RoomBookingRequest request) {
+    var requestHash = this.hash(request);
+    var cachedResult = this.results.getIfPresent(idempotencyKey);
+    if (cachedResult != null) {
+      log.debug("Replaying cached result of idempotency key {}", idempotencyKey);
+      return this.replay(cachedResult, requestHash);
+    }
+
+    // duplicates on this replica wait for the request that is already in flight
+    var future = new CompletableFuture<StoredResult>();
+    var inFlightResult = this.inFlight.putIfAbsent(idempotencyKey, future);
+    if (inFlightResult != null) {
+      log.debug("Waiting for in-flight request with idempotency key {}", idempotencyKey);
+      return this.replay(this.await(inFlightResult), requestHash);
+    }
+
+    try {
+      var result = this.executeOnce(idempotencyKey, requestHash, request);
+      future.complete(result);
+      return this.replay(result, requestHash);
+    } catch (RuntimeException exception) {
+      future.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      this.inFlight.remove(idempotencyKey, future);
+    }
+  }
+
+  /**
+   * Removes all expired idempotency keys, the cached results expire on their own.
+   */
+  @Transactional
+  @Scheduled(cron = "${room.booking.idempotency.clean-cron:0 3/5 * * * *}")
+  public void cleanExpiredKeys() {
+    var count = this.idempotencyKeyRepository.deleteAllExpired();
+    log.debug("Cleaned {} expired idempotency keys", count);
+  }
+
+  /**
+   * Claims the given key and creates the booking, or waits for the result of the request that claimed the key on
+   * another replica. A claim whose lease ran out without a result is taken over.
+   */
+  private @NonNull StoredResult executeOnce(
+    @NonNull String idempotencyKey,
+    @NonNull String requestHash,
+    @NonNull RoomBookingRequest request
+  ) {
+    var claimToken = UUID.randomUUID();
+    if (!this.claim(idempotencyKey, requestHash, claimToken)) {
+      var storedResult = this.awaitStoredResult(idempotencyKey);
+      if (storedResult != null) {
+        return storedResult;
+      }
+
+      // the other request released its claim or stopped without a result
+      if (!this.claim(idempotencyKey, requestHash, claimToken)) {
+        throw stillInFlightProblem();
+      }
+    }
+
+    StoredResult result;
+    try {
+      var booking = this.bookingService.createBooking(
+        request,
+        createdBooking -> this.complete(
+          idempotencyKey,
+          claimToken,
+          new StoredResult(requestHash, HttpStatus.OK.value(), this.serialize(createdBooking))));
+      result = new StoredResult(requestHash, HttpStatus.OK.value(), this.serialize(booking));
+    } catch (GeneralProblemException exception) {
+      // also thrown if the claim was lost while creating the booking, storing the problem fails the same way then
+      result = new StoredResult(requestHash, exception.getStatus().value(), exception.getDescription());
+      var problem = result;
+      this.transactionTemplate.executeWithoutResult(_ -> this.complete(idempotencyKey, claimToken, problem));
+    } catch (RuntimeException exception) {
+      // unexpected failures are not remembered, the client is allowed to retry them
+      this.transactionTemplate.executeWithoutResult(
+        _ -> this.idempotencyKeyRepository.release(idempotencyKey, claimToken));
+      throw exception;
+    }
+
+    this.results.put(idempotencyKey, result);
+    return result;
+  }
+
+  /**
+   * Claims the given key for the lease, unless another request holds a claim on it whose lease did not run out yet.
+   *
+   * @return true if the key was claimed, false if it is claimed by another request.
+   */
+  private boolean claim(@NonNull String idempotencyKey, @NonNull String requestHash, @NonNull UUID claimToken) {
+    var leaseEnd = Instant.now().plus(this.claimLease);
+    var claimed = this.transactionTemplate.execute(
+      _ -> this.idempotencyKeyRepository.claim(idempotencyKey, requestHash, claimToken, leaseEnd));
+    return claimed != null && claimed > 0;
+  }
+
+  /**
+   * Stores the given result of the key in the current transaction, if the request still holds its claim on the key.
+   *
+   * @throws GeneralProblemException if the claim was taken over by another request after its lease ran out.
+   */
+  private void complete(@NonNull String idempotencyKey, @NonNull UUID claimToken, @NonNull StoredResult result) {
+    var expiresAt = Instant.now().plus(this.keyTtl);
+    var completed = this.idempotencyKeyRepository.complete(
+      idempotencyKey,
+      claimToken,
+      result.status(),
+      result.body(),
+      expiresAt);
+    if (completed == 0) {
+      log.warn("Lost the claim of idempotency key {} before storing its result", idempotencyKey);
+      throw stillInFlightProblem();
+    }
+  }
+
+  /**
+   * Polls the stored result of a key that was claimed by another replica until it is available.
+   *
+   * @return the stored result, or null if the claim was released or its lease ran out without a result.
+   */
+  private @Nullable StoredResult awaitStoredResult(@NonNull String idempotencyKey) {
+    var deadline = Instant.now().plus(this.waitTimeout);
+    while (Instant.now().isBefore(deadline)) {
+      var claim = this.idempotencyKeyRepository.findById(idempotencyKey).orElse(null);
+      if (claim == null) {
+        // the other request failed unexpectedly and released the key
+        return null;
+      }
+
+      if (claim.getResponseStatus() != null) {
+        var result = new StoredResult(claim.getRequestHash(), claim.getResponseStatus(), claim.getResponseBody());
+        this.results.put(idempotencyKey, result);
+        return result;
+      }
+
+      if (claim.getExpiresAt().isBefore(Instant.now())) {
+        return null;
+      }
+
+      try {
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    throw stillInFlightProblem();
+  }
+
+  private @NonNull StoredResult await(@NonNull CompletableFuture<StoredResult> future) {
+    try {
+      return future.get(this.waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+
+      throw new IllegalStateException(exception.getCause());
+    } catch (TimeoutException exception) {
+      throw stillInFlightProblem();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw stillInFlightProblem();
+    }
+  }
+
+  /**
+   * Converts the given stored result back into the booking, or throws its problem again.
+   */
+  private @NonNull Booking replay(@NonNull StoredResult result, @NonNull String requestHash) {
+    if (!result.requestHash().equals(requestHash)) {
+      throw new GeneralProblemException(
+        HttpStatus.UNPROCESSABLE_ENTITY,
+        "The idempotency key was already used for a different request.");
+    }
+
+    if (result.status() != HttpStatus.OK.value()) {
+      throw new GeneralProblemException(HttpStatus.valueOf(result.status()), result.body());
+    }
+
+    try {
+      return this.objectMapper.readValue(result.body(), Booking.class);
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException("Unable to read the stored booking", exception);
+    }
+  }
+
+  private @NonNull String serialize(@NonNull Booking booking) {
+    try {
+      return this.objectMapper.writeValueAsString(booking);
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException("Unable to serialize the created booking", exception);
+    }
+  }
+
+  /**
+   * Computes a fingerprint of the given request, to detect keys that are reused for a different request.
+   */
+  private @NonNull String hash(@NonNull RoomBookingRequest request) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(this.objectMapper.writeValueAsBytes(request)));
+    } catch (NoSuchAlgorithmException | JsonProcessingException exception) {
+      throw new IllegalStateException("Unable to compute the fingerprint of the booking request", exception);
+    }
+  }
+
+  /**
+   * The result of the first request of an idempotency key.
+   *
+   * @param requestHash the fingerprint of the request that produced the result.
+   * @param status      the http status of the result.
+   * @param body        the serialized booking on success, the description of the problem otherwise.
+   */
+  private record StoredResult(@NonNull String requestHash, int status, @NonNull String body) {
+
+  }
+}
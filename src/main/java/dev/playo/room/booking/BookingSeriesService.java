@@ -0,0 +1,215 @@
+package dev.playo.room.booking;
+
+import static dev.playo.room.util.DateTimeNormalizer.fromInstant;
+import static dev.playo.room.util.DateTimeNormalizer.toInstant;
+import static dev.playo.room.util.DateTimeNormalizer.toLocalDateTime;
+import static dev.playo.room.util.DateTimeNormalizer.toTimestampArrayLiteral;
+
+import dev.playo.generated.roommanagement.model.BookingSeries;
+import dev.playo.generated.roommanagement.model.InquiryWindow;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.generated.roommanagement.model.RoomBookingSeriesRequest;
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.booking.data.series.BookingSeriesEntity;
+import dev.playo.room.booking.data.series.BookingSeriesRepository;
+import dev.playo.room.booking.data.series.Recurrence;
+import dev.playo.room.building.BuildingScheduleCache;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.occupancy.OccupancyRollup;
+import dev.playo.room.room.RoomService;
+import dev.playo.room.room.data.RoomEntity;
+import dev.playo.room.student.StudentGroupClient;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates recurring booking series. A series is validated once for its first occurrence, as all occurrences share the
+ * same local times, and checked for conflicts with a single query over all occurrences while holding the locks of the
+ * allocated rooms. Either all occurrences are booked or none.
+ */
+@Slf4j
+@Service
+public class BookingSeriesService {
+
+  private static final int MAX_OCCURRENCES = 100;
+
+  private final RoomService roomService;
+  private final BookingService bookingService;
+  private final BookingRepository bookingRepository;
+  private final BookingSeriesRepository seriesRepository;
+  private final BookingAllocationRepository allocationRepository;
+  private final StudentGroupClient studentGroupClient;
+  private final AvailabilityIndex availabilityIndex;
+  private final BuildingScheduleCache scheduleCache;
+  private final OccupancyRollup occupancyRollup;
+  private final RoomLocks roomLocks;
+  private final TransactionTemplate transactionTemplate;
+
+  @Autowired
+  public BookingSeriesService(
+    @NonNull RoomService roomService,
+    @NonNull BookingService bookingService,
+    @NonNull BookingRepository bookingRepository,
+    @NonNull BookingSeriesRepository seriesRepository,
+    @NonNull BookingAllocationRepository allocationRepository,
+    @NonNull StudentGroupClient studentGroupClient,
+    @NonNull AvailabilityIndex availabilityIndex,
+    @NonNull BuildingScheduleCache scheduleCache,
+    @NonNull OccupancyRollup occupancyRollup,
+    @NonNull RoomLocks roomLocks,
+    @NonNull TransactionTemplate transactionTemplate
+  ) {
+    this.roomService = roomService;
+    this.bookingService = bookingService;
+    this.bookingRepository = bookingRepository;
+    this.seriesRepository = seriesRepository;
+    this.allocationRepository = allocationRepository;
+    this.studentGroupClient = studentGroupClient;
+    this.availabilityIndex = availabilityIndex;
+    this.scheduleCache = scheduleCache;
+    this.occupancyRollup = occupancyRollup;
+    this.roomLocks = roomLocks;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  private static @NonNull GeneralProblemException conflictingOccurrencesProblem(
+    @NonNull RoomEntity room,
+    @NonNull List<BookingEntity> occurrences,
+    @NonNull List<Integer> conflictingIndexes
+  ) {
+    var conflicts = conflictingIndexes.stream()
+      .map(occurrences::get)
+      .map(occurrence -> new InquiryWindow()
+        .startTime(fromInstant(occurrence.getStartTime()))
+        .endTime(fromInstant(occurrence.getEndTime())))
+      .toList();
+    return new GeneralProblemException(
+      HttpStatus.CONFLICT,
+      "%d of %d occurrences of the series in room %s overlap with existing bookings.".formatted(
+        conflicts.size(),
+        occurrences.size(),
+        room.getName()),
+      Map.of("conflicts", conflicts));
+  }
+
+  /**
+   * Books the requested room for every occurrence of the requested series.
+   *
+   * @param request the series to book.
+   * @return the created series including the bookings of all occurrences.
+   * @throws GeneralProblemException if the series is invalid or if at least one occurrence overlaps with an existing
+   *                                 booking, in which case all conflicting occurrences are listed in the problem.
+   */
+  public @NonNull BookingSeries createSeries(@NonNull RoomBookingSeriesRequest request) {
+    log.info(
+      "Creating {} booking series for room {} from {} until {}",
+      request.getRecurrence(),
+      request.getRoomId(),
+      request.getStartTime(),
+      request.getUntil());
+
+    // all occurrences share the local times of the first occurrence, validating it covers the whole series
+    var firstOccurrence = new RoomBookingRequest()
+      .roomId(request.getRoomId())
+      .startTime(request.getStartTime())
+      .endTime(request.getEndTime())
+      .lecturerIds(request.getLecturerIds())
+      .studentGroupNames(request.getStudentGroupNames())
+      .groupSize(request.getGroupSize());
+    this.bookingService.validateRequest(firstOccurrence);
+
+    var exceptionDates = Objects.requireNonNullElse(request.getExceptionDates(), Set.<LocalDate>of());
+    var rule = new RecurrenceRule(
+      toLocalDateTime(request.getStartTime()),
+      toLocalDateTime(request.getEndTime()),
+      Recurrence.valueOf(request.getRecurrence().name()),
+      request.getUntil(),
+      exceptionDates);
+    var requestedRoom = this.roomService.findRoomWithCompositionById(request.getRoomId());
+    var allocatedRooms = BookingService.allocatedRooms(requestedRoom);
+    BookingService.ensureEnoughSeatsPresent(
+      BookingService.availableSeats(requestedRoom),
+      request.getGroupSize(),
+      request.getStudentGroupNames(),
+      this.studentGroupClient::getStudentGroupsByNames);
+
+    var series = new BookingSeriesEntity();
+    series.setRoom(requestedRoom);
+    series.setRecurrence(rule.recurrence());
+    series.setStartTime(toInstant(request.getStartTime()));
+    series.setEndTime(toInstant(request.getEndTime()));
+    series.setUntil(rule.until());
+    series.setExceptionDates(new HashSet<>(exceptionDates));
+
+    // the occurrences are expanded once, directly into the bookings that are checked and inserted as one batch
+    var bookings = rule.occurrences()
+      .limit(MAX_OCCURRENCES + 1)
+      .map(occurrence -> {
+        var booking = BookingService.newBookingEntity(
+          requestedRoom,
+          allocatedRooms,
+          occurrence.startTime(),
+          occurrence.endTime(),
+          request.getLecturerIds(),
+          request.getStudentGroupNames());
+        booking.setSeries(series);
+        return booking;
+      })
+      .toList();
+    if (bookings.isEmpty()) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST, "The series does not have any occurrence.");
+    }
+
+    if (bookings.size() > MAX_OCCURRENCES) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "A series can have at most %d occurrences.".formatted(MAX_OCCURRENCES));
+    }
+
+    var roomIds = allocatedRooms.stream().map(RoomEntity::getId).toList();
+    return this.roomLocks.withRoomsLocked(roomIds, () -> {
+      // check all occurrences against the allocations of all affected rooms at once
+      var conflictingIndexes = this.allocationRepository.findOverlappingIndexes(
+        roomIds,
+        toTimestampArrayLiteral(bookings.stream().map(BookingEntity::getStartTime).toList()),
+        toTimestampArrayLiteral(bookings.stream().map(BookingEntity::getEndTime).toList()));
+      if (!conflictingIndexes.isEmpty()) {
+        throw conflictingOccurrencesProblem(requestedRoom, bookings, conflictingIndexes);
+      }
+
+      try {
+        var created = this.transactionTemplate.execute(_ -> {
+          this.seriesRepository.save(series);
+          var savedBookings = this.bookingRepository.saveAll(bookings);
+          this.bookingRepository.flush();
+          savedBookings.forEach(this.availabilityIndex::registerBooking);
+          savedBookings.forEach(this.scheduleCache::bookingChanged);
+          this.occupancyRollup.bookingsCreated(savedBookings);
+          return series.toBookingSeriesDto(savedBookings);
+        });
+        log.info("Booking series {} created with {} occurrences", created.getId(), created.getBookings().size());
+        return created;
+      } catch (DataIntegrityViolationException exception) {
+        // a booking was created concurrently after the conflict check, the exclusion constraint rejected the series
+        log.trace("Data integrity violation while creating booking series: {}", exception.getMessage());
+        throw new GeneralProblemException(
+          HttpStatus.CONFLICT,
+          "The series in room %s overlaps with an existing booking.".formatted(requestedRoom.getName()));
+      }
+    });
+  }
+}
@@ -4,60 +4,223 @@ import static dev.playo.room.util.DateTimeNormalizer.toInstant;
 import static dev.playo.room.util.DateTimeNormalizer.toLocalDateTime;
 
 import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.BookingPage;
 import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.TimeWindow;
 import dev.playo.room.booking.data.BookingEntity;
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.BookingRow;
 import dev.playo.room.booking.data.allocation.BookingAllocation;
 import dev.playo.room.booking.data.allocation.BookingAllocationId;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.building.BuildingScheduleCache;
 import dev.playo.room.config.BusinessConfiguration;
 import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.occupancy.OccupancyRollup;
 import dev.playo.room.room.RoomService;
 import dev.playo.room.room.data.RoomEntity;
 import dev.playo.room.student.StudentGroupClient;
+import dev.playo.room.student.dto.StudentGroupResponse;
 import dev.playo.room.util.Characteristics;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
 @Service
 public class BookingService {
 
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 1000;
+  // the smallest uuid, bookings with ids after it are on the first page
+  private static final UUID FIRST_CURSOR = new UUID(0, 0);
+  private static final Instant UNBOUNDED_END_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
   private final RoomService roomService;
   private final BookingRepository bookingRepository;
   private final StudentGroupClient studentGroupClient;
+  private final AvailabilityIndex availabilityIndex;
+  private final BuildingScheduleCache scheduleCache;
+  private final OccupancyRollup occupancyRollup;
   private final BusinessConfiguration businessConfiguration;
+  private final TransactionTemplate transactionTemplate;
+  private final BookingAllocationRepository allocationRepository;
+  private final RoomLocks roomLocks;
 
   @Autowired
   public BookingService(
     @NonNull RoomService roomService,
     @NonNull BookingRepository bookingRepository,
     @NonNull StudentGroupClient studentGroupClient,
-    @NonNull BusinessConfiguration businessConfiguration
+    @NonNull AvailabilityIndex availabilityIndex,
+    @NonNull BuildingScheduleCache scheduleCache,
+    @NonNull OccupancyRollup occupancyRollup,
+    @NonNull BusinessConfiguration businessConfiguration,
+    @NonNull TransactionTemplate transactionTemplate,
+    @NonNull BookingAllocationRepository allocationRepository,
+    @NonNull RoomLocks roomLocks
   ) {
     this.roomService = roomService;
     this.bookingRepository = bookingRepository;
     this.studentGroupClient = studentGroupClient;
+    this.availabilityIndex = availabilityIndex;
+    this.scheduleCache = scheduleCache;
+    this.occupancyRollup = occupancyRollup;
     this.businessConfiguration = businessConfiguration;
+    this.transactionTemplate = transactionTemplate;
+    this.allocationRepository = allocationRepository;
+    this.roomLocks = roomLocks;
   }
 
-  @Transactional
+  /**
+   * Creates a booking for the given request, see {@link #createBooking(RoomBookingRequest, Consumer)}.
+   *
+   * @param request the booking to create.
+   * @return the created booking.
+   * @throws GeneralProblemException if the request is invalid or overlaps with an existing booking.
+   */
   public @NonNull Booking createBooking(@NonNull RoomBookingRequest request) {
+    return this.createBooking(request, _ -> {});
+  }
+
+  /**
+   * Creates a booking for the given request. Everything that can reject the request, including the check against the
+   * in-memory allocation index, runs before the write transaction is opened. Under contention most requests are
+   * conflicts, which are then answered without an insert, a violated exclusion constraint and a rollback. The
+   * exclusion constraint stays the source of truth for bookings that were created concurrently.
+   * <p>
+   * The student groups are resolved concurrently before the rooms are locked, so that neither a lock nor a database
+   * connection is held during the remote calls. Concurrent requests for the same rooms are serialized by the
+   * {@link RoomLocks}: a request waiting for the lock sees the booking of the request before it in the conflict check
+   * instead of failing at the exclusion constraint.
+   *
+   * @param request       the booking to create.
+   * @param inTransaction called with the created booking in the transaction that saves it, an exception thrown by it
+   *                      rolls the booking back.
+   * @return the created booking.
+   * @throws GeneralProblemException if the request is invalid or overlaps with an existing booking.
+   */
+  public @NonNull Booking createBooking(
+    @NonNull RoomBookingRequest request,
+    @NonNull Consumer<Booking> inTransaction
+  ) {
     log.info(
       "Creating booking for room {} from {} to {}",
       request.getRoomId(),
       request.getStartTime(),
       request.getEndTime());
 
+    this.validateRequest(request);
+    var requestedRoom = this.roomService.findRoomWithCompositionById(request.getRoomId());
+    var composedRooms = allocatedRooms(requestedRoom);
+    var roomIds = composedRooms.stream().map(RoomEntity::getId).toList();
+
+    // reject obvious conflicts before resolving the student groups
+    this.ensureNotOccupied(request, requestedRoom, roomIds);
+    ensureEnoughSeatsPresent(
+      availableSeats(requestedRoom),
+      request.getGroupSize(),
+      request.getStudentGroupNames(),
+      this.studentGroupClient::getStudentGroupsByNames);
+
+    return this.roomLocks.withRoomsLocked(
+      roomIds,
+      () -> this.createLockedBooking(request, requestedRoom, composedRooms, roomIds, inTransaction));
+  }
+
+  private @NonNull Booking createLockedBooking(
+    @NonNull RoomBookingRequest request,
+    @NonNull RoomEntity requestedRoom,
+    @NonNull List<RoomEntity> composedRooms,
+    @NonNull List<UUID> roomIds,
+    @NonNull Consumer<Booking> inTransaction
+  ) {
+    var startTime = toLocalDateTime(request.getStartTime());
+    var endTime = toLocalDateTime(request.getEndTime());
+
+    // check again while holding the lock, the rooms might have been booked while resolving the student groups
+    this.ensureNotOccupied(request, requestedRoom, roomIds);
+
+    var bookingEntity = newBookingEntity(request, requestedRoom, composedRooms);
+    log.info(
+      "Entering booking creation for room {} from {} to {}",
+      requestedRoom.getName(),
+      request.getStartTime(),
+      request.getEndTime());
+    try {
+      var booking = this.transactionTemplate.execute(_ -> {
+        var savedBooking = this.bookingRepository.saveAndFlush(bookingEntity);
+        this.availabilityIndex.registerBooking(savedBooking);
+        this.scheduleCache.bookingChanged(savedBooking);
+        this.occupancyRollup.bookingsCreated(List.of(savedBooking));
+        var createdBooking = savedBooking.toBookingDto();
+        inTransaction.accept(createdBooking);
+        return createdBooking;
+      });
+      log.info("Booking for room {} created with ID {}", requestedRoom.getName(), booking.getId());
+      return booking;
+    } catch (DataIntegrityViolationException exception) {
+      log.trace("Data integrity violation while creating booking: {}", exception.getMessage());
+      throw overlappingBookingProblem(requestedRoom, startTime, endTime);
+    }
+  }
+
+  /**
+   * Ensures that none of the given rooms is allocated during the requested time range, as far as known without
+   * inserting the booking.
+   */
+  private void ensureNotOccupied(
+    @NonNull RoomBookingRequest request,
+    @NonNull RoomEntity requestedRoom,
+    @NonNull List<UUID> roomIds
+  ) {
+    if (this.isAnyOccupied(roomIds, toInstant(request.getStartTime()), toInstant(request.getEndTime()))) {
+      log.debug("Rejected overlapping booking for room {} before inserting it", requestedRoom.getName());
+      throw overlappingBookingProblem(
+        requestedRoom,
+        toLocalDateTime(request.getStartTime()),
+        toLocalDateTime(request.getEndTime()));
+    }
+  }
+
+  /**
+   * Checks if any of the given rooms is allocated during the given time range.
+   */
+  private boolean isAnyOccupied(@NonNull List<UUID> roomIds, @NonNull Instant startTime, @NonNull Instant endTime) {
+    if (this.roomLocks.isCrossReplica()) {
+      // another replica might have booked the rooms while waiting for the lock, which this index does not know yet
+      return this.allocationRepository.existsOverlapping(roomIds, startTime, endTime);
+    }
+
+    return this.availabilityIndex.isAvailable() && this.availabilityIndex.isAnyOccupied(roomIds, startTime, endTime);
+  }
+
+  /**
+   * Validates the parts of the given booking request that do not depend on the requested room.
+   *
+   * @param request the request to validate.
+   * @throws GeneralProblemException if the request is invalid.
+   */
+  void validateRequest(@NonNull RoomBookingRequest request) {
     //TODO: document
     var startTime = toLocalDateTime(request.getStartTime());
     var endTime = toLocalDateTime(request.getEndTime());
@@ -95,75 +258,127 @@ public class BookingService {
         HttpStatus.BAD_REQUEST,
         "Either student group IDs or group size must be provided.");
     }
+  }
+
+  /**
+   * Get all rooms that are allocated by a booking of the given room: the room itself, all rooms it is composed of and
+   * its parent room.
+   *
+   * @param requestedRoom the room that is booked.
+   * @return all rooms that are allocated by a booking of the given room.
+   */
+  static @NonNull List<RoomEntity> allocatedRooms(@NonNull RoomEntity requestedRoom) {
+    List<RoomEntity> composedRooms = new ArrayList<>();
+    composedRooms.add(requestedRoom);
+    composedRooms.addAll(requestedRoom.getComposedOf());
+
+    var parentRoom = requestedRoom.getParent();
+    if (parentRoom != null) {
+      composedRooms.add(parentRoom);
+    }
 
-    var requestedRoom = this.roomService.findRoomById(request.getRoomId());
-    var availableSeats = requestedRoom.getCharacteristics()
+    return composedRooms;
+  }
+
+  /**
+   * Get the amount of seats of the given room.
+   *
+   * @param room the room to get the seats of.
+   * @return the amount of seats of the given room.
+   * @throws GeneralProblemException if the room has no seats characteristic.
+   */
+  static int availableSeats(@NonNull RoomEntity room) {
+    var availableSeats = room.getCharacteristics()
       .stream()
       .filter(characteristic -> characteristic.getType().equals(Characteristics.SEATS_CHARACTERISTIC))
       .map(characteristic -> (int) characteristic.getValue())
       .findAny()
       .orElse(null);
     if (availableSeats == null) {
-      log.error("Room {}:{} does not have a seats characteristic defined.",
-        requestedRoom.getName(),
-        requestedRoom.getId());
+      log.error("Room {}:{} does not have a seats characteristic defined.", room.getName(), room.getId());
       throw new GeneralProblemException(
         HttpStatus.INTERNAL_SERVER_ERROR,
-        "Room %s does not have a seats characteristic defined.".formatted(requestedRoom.getName()));
+        "Room %s does not have a seats characteristic defined.".formatted(room.getName()));
     }
 
-    this.ensureEnoughSeatsPresent(availableSeats, request.getGroupSize(), request.getStudentGroupNames());
+    return availableSeats;
+  }
 
-    var startInstant = toInstant(request.getStartTime());
-    var endInstant = toInstant(request.getEndTime());
+  /**
+   * Creates a new, not yet persisted booking for the given request including the allocations of all given rooms.
+   *
+   * @param request        the request to create the booking for.
+   * @param requestedRoom  the room that is booked.
+   * @param allocatedRooms all rooms that are allocated by the booking.
+   * @return the new booking entity.
+   */
+  static @NonNull BookingEntity newBookingEntity(
+    @NonNull RoomBookingRequest request,
+    @NonNull RoomEntity requestedRoom,
+    @NonNull List<RoomEntity> allocatedRooms
+  ) {
+    return newBookingEntity(
+      requestedRoom,
+      allocatedRooms,
+      toInstant(request.getStartTime()),
+      toInstant(request.getEndTime()),
+      request.getLecturerIds(),
+      request.getStudentGroupNames());
+  }
 
+  /**
+   * Creates a new, not yet persisted booking of the given time range including the allocations of all given rooms.
+   *
+   * @param requestedRoom     the room that is booked.
+   * @param allocatedRooms    all rooms that are allocated by the booking.
+   * @param startTime         the start of the booking.
+   * @param endTime           the end of the booking.
+   * @param lecturerIds       the ids of the lecturers of the booking.
+   * @param studentGroupNames the names of the student groups of the booking.
+   * @return the new booking entity.
+   */
+  static @NonNull BookingEntity newBookingEntity(
+    @NonNull RoomEntity requestedRoom,
+    @NonNull List<RoomEntity> allocatedRooms,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime,
+    @NonNull Set<UUID> lecturerIds,
+    @NonNull Set<String> studentGroupNames
+  ) {
     var bookingEntity = new BookingEntity();
     bookingEntity.setRoom(requestedRoom);
-    bookingEntity.setStartTime(startInstant);
-    bookingEntity.setEndTime(endInstant);
-    bookingEntity.setLecturerIds(request.getLecturerIds());
-    bookingEntity.setStudentGroupIds(request.getStudentGroupNames());
+    bookingEntity.setStartTime(startTime);
+    bookingEntity.setEndTime(endTime);
+    bookingEntity.setLecturerIds(new HashSet<>(lecturerIds));
+    bookingEntity.setStudentGroupIds(new HashSet<>(studentGroupNames));
 
-    List<RoomEntity> composedRooms = new ArrayList<>();
-    composedRooms.add(requestedRoom);
-    composedRooms.addAll(requestedRoom.getComposedOf());
-
-    var parentRoom = requestedRoom.getParent();
-    if (parentRoom != null) {
-      composedRooms.add(parentRoom);
-    }
-
-    for (var roomToAllocate : composedRooms) {
+    for (var roomToAllocate : allocatedRooms) {
       var allocation = new BookingAllocation();
       var allocationId = new BookingAllocationId();
 
       allocation.setId(allocationId);
       allocation.setRoom(roomToAllocate);
       allocation.setBooking(bookingEntity);
-      allocation.setStartTime(startInstant);
-      allocation.setEndTime(endInstant);
+      allocation.setStartTime(startTime);
+      allocation.setEndTime(endTime);
 
       bookingEntity.getAllocations().add(allocation);
     }
 
-    log.info(
-      "Entering booking creation for room {} from {} to {}",
-      requestedRoom.getName(),
-      request.getStartTime(),
-      request.getEndTime());
-    try {
-      var booking = this.bookingRepository.saveAndFlush(bookingEntity);
-      log.info("Booking for room {} created with ID {}", requestedRoom.getName(), booking.getId());
-      return booking.toBookingDto();
-    } catch (DataIntegrityViolationException exception) {
-      log.trace("Data integrity violation while creating booking: {}", exception.getMessage());
-      throw new GeneralProblemException(
-        HttpStatus.CONFLICT,
-        "Booking for room %s from %s to %s overlaps with an existing booking.".formatted(
-          requestedRoom.getName(),
-          startTime,
-          endTime));
-    }
+    return bookingEntity;
+  }
+
+  static @NonNull GeneralProblemException overlappingBookingProblem(
+    @NonNull RoomEntity room,
+    @NonNull LocalDateTime startTime,
+    @NonNull LocalDateTime endTime
+  ) {
+    return new GeneralProblemException(
+      HttpStatus.CONFLICT,
+      "Booking for room %s from %s to %s overlaps with an existing booking.".formatted(
+        room.getName(),
+        startTime,
+        endTime));
   }
 
   public @NonNull BookingEntity findBooking(@NonNull UUID bookingId) {
@@ -177,18 +392,93 @@ public class BookingService {
     return booking;
   }
 
-  public @NonNull List<Booking> allKnownBookings() {
-    return this.bookingRepository.findAll().stream()
-      .map(BookingEntity::toBookingDto)
-      .toList();
+  /**
+   * Finds a page of the bookings overlapping the given time range. The pages are ordered by the booking id, the next
+   * page starts after the last booking of the current page, which is returned as cursor if there are further bookings.
+   *
+   * @param cursor the id of the last booking of the previous page, null for the first page.
+   * @param limit  the maximum amount of bookings in the page, null for the default page size.
+   * @param from   the inclusive start of the time range, null for no lower bound.
+   * @param to     the exclusive end of the time range, null for no upper bound.
+   * @return the bookings of the page and the cursor of the next page.
+   * @throws GeneralProblemException if the limit is out of range or the time range is empty.
+   */
+  public @NonNull BookingPage findBookings(
+    @Nullable UUID cursor,
+    @Nullable Integer limit,
+    @Nullable OffsetDateTime from,
+    @Nullable OffsetDateTime to
+  ) {
+    var pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "The limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+    }
+
+    // one more booking than requested is read to know whether there is a next page
+    var range = this.bookingTimeRange(from, to);
+    var rows = this.bookingRepository.findRowsAfter(
+      cursor == null ? FIRST_CURSOR : cursor,
+      range.startTime(),
+      range.endTime(),
+      Limit.of(pageSize + 1));
+
+    var bookings = rows.stream().limit(pageSize).map(BookingRow::toBookingDto).toList();
+    var page = new BookingPage().bookings(bookings);
+    if (rows.size() > pageSize) {
+      page.nextCursor(bookings.getLast().getId());
+    }
+
+    return page;
+  }
+
+  /**
+   * Converts the given bounds of a booking query into a time range, missing bounds are replaced by the earliest or
+   * latest point in time a booking can have.
+   *
+   * @param from the inclusive start of the time range, null for no lower bound.
+   * @param to   the exclusive end of the time range, null for no upper bound.
+   * @return the time range of the given bounds.
+   * @throws GeneralProblemException if the time range is empty.
+   */
+  public @NonNull TimeWindow bookingTimeRange(@Nullable OffsetDateTime from, @Nullable OffsetDateTime to) {
+    var startTime = from == null ? Instant.EPOCH : toInstant(from);
+    var endTime = to == null ? UNBOUNDED_END_TIME : toInstant(to);
+    if (!startTime.isBefore(endTime)) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST, "The start of the time range must be before its end");
+    }
+
+    return new TimeWindow(startTime, endTime);
   }
 
   public void cancelBooking(@NonNull UUID bookingId) {
-    var booking = this.findBooking(bookingId);
-    this.bookingRepository.delete(booking);
+    // the room of the booking is resolved in the transaction, to invalidate the schedule of its building
+    this.transactionTemplate.executeWithoutResult(_ -> {
+      var booking = this.findBooking(bookingId);
+      this.bookingRepository.delete(booking);
+      this.availabilityIndex.removeBookings(List.of(bookingId));
+      this.scheduleCache.bookingChanged(booking);
+      this.occupancyRollup.bookingCancelled(booking);
+    });
   }
 
-  private void ensureEnoughSeatsPresent(int availableSeats, Integer groupSize, Set<String> studentGroupNames) {
+  /**
+   * Ensures that the room has enough seats for the given group size, or for the students of the given groups if no
+   * group size is given.
+   *
+   * @param availableSeats    the amount of seats of the room.
+   * @param groupSize         the requested group size, can be null.
+   * @param studentGroupNames the names of the requested student groups.
+   * @param studentGroups     resolves the given student groups at once, unknown groups are missing in the result.
+   * @throws GeneralProblemException if the room does not have enough seats.
+   */
+  static void ensureEnoughSeatsPresent(
+    int availableSeats,
+    Integer groupSize,
+    Set<String> studentGroupNames,
+    Function<Set<String>, Map<String, StudentGroupResponse>> studentGroups
+  ) {
     if (groupSize != null && groupSize > availableSeats) {
       throw new GeneralProblemException(
         HttpStatus.BAD_REQUEST,
@@ -196,9 +486,10 @@ public class BookingService {
     }
 
     if (groupSize == null && !studentGroupNames.isEmpty()) {
+      var resolvedGroups = studentGroups.apply(studentGroupNames);
       int size = 0;
       for (var groupName : studentGroupNames) {
-        var studentGroup = this.studentGroupClient.getStudentGroupByName(groupName);
+        var studentGroup = resolvedGroups.get(groupName);
         size += studentGroup == null ? 0 : studentGroup.studentsCount();
       }
 
@@ -0,0 +1,338 @@
+package dev.playo.room.booking;
+
+import static dev.playo.room.util.DateTimeNormalizer.toInstant;
+
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.BulkBookingResponse;
+import dev.playo.generated.roommanagement.model.BulkBookingResult;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.RoomTimeline;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.building.BuildingScheduleCache;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.occupancy.OccupancyRollup;
+import dev.playo.room.room.RoomService;
+import dev.playo.room.room.data.RoomEntity;
+import dev.playo.room.student.StudentGroupClient;
+import dev.playo.room.student.dto.StudentGroupResponse;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates many bookings at once, for example when importing a semester. All requests are validated up front, the
+ * requested rooms and student groups are resolved once for the whole batch and conflicts (with existing allocations and
+ * between the requested bookings) are detected in memory based on a single query. The remaining bookings are inserted
+ * in chunks, each chunk in its own transaction using jdbc batch inserts. If a chunk fails because of a concurrently
+ * created booking, the bookings of that chunk are retried one by one, so that a single conflict never rolls back the
+ * other bookings.
+ */
+@Slf4j
+@Service
+public class BulkBookingService {
+
+  private static final int MAX_BOOKINGS = 10_000;
+
+  private final int chunkSize;
+  private final RoomService roomService;
+  private final BookingService bookingService;
+  private final BookingRepository bookingRepository;
+  private final BookingAllocationRepository allocationRepository;
+  private final StudentGroupClient studentGroupClient;
+  private final AvailabilityIndex availabilityIndex;
+  private final BuildingScheduleCache scheduleCache;
+  private final OccupancyRollup occupancyRollup;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+
+  @Autowired
+  public BulkBookingService(
+    @Value("${room.booking.bulk.chunk-size:500}") int chunkSize,
+    @NonNull RoomService roomService,
+    @NonNull BookingService bookingService,
+    @NonNull BookingRepository bookingRepository,
+    @NonNull BookingAllocationRepository allocationRepository,
+    @NonNull StudentGroupClient studentGroupClient,
+    @NonNull AvailabilityIndex availabilityIndex,
+    @NonNull BuildingScheduleCache scheduleCache,
+    @NonNull OccupancyRollup occupancyRollup,
+    @NonNull TransactionTemplate transactionTemplate,
+    @NonNull EntityManager entityManager
+  ) {
+    this.chunkSize = chunkSize;
+    this.roomService = roomService;
+    this.bookingService = bookingService;
+    this.bookingRepository = bookingRepository;
+    this.allocationRepository = allocationRepository;
+    this.studentGroupClient = studentGroupClient;
+    this.availabilityIndex = availabilityIndex;
+    this.scheduleCache = scheduleCache;
+    this.occupancyRollup = occupancyRollup;
+    this.transactionTemplate = transactionTemplate;
+    this.entityManager = entityManager;
+  }
+
+  private static @NonNull BulkBookingResult rejected(
+    int index,
+    @NonNull BulkBookingResult.StatusEnum status,
+    @NonNull String message
+  ) {
+    return new BulkBookingResult(index, status).message(message);
+  }
+
+  /**
+   * Creates all bookings of the given requests that are valid and do not conflict with existing bookings or with
+   * bookings earlier in the given list.
+   *
+   * @param requests the bookings to create.
+   * @return the result of every requested booking, in the order of the requests.
+   * @throws GeneralProblemException if no or too many bookings are requested.
+   */
+  public @NonNull BulkBookingResponse createBookings(@NonNull List<RoomBookingRequest> requests) {
+    if (requests.isEmpty() || requests.size() > MAX_BOOKINGS) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "Between 1 and %d bookings can be requested at once.".formatted(MAX_BOOKINGS));
+    }
+
+    log.info("Creating {} bookings in bulk", requests.size());
+    var results = new BulkBookingResult[requests.size()];
+    // the student groups are resolved before the transaction, so that no connection is held during the remote calls
+    var studentGroups = this.studentGroupClient.getStudentGroupsByNames(requests.stream()
+      .filter(request -> request.getGroupSize() == null)
+      .flatMap(request -> request.getStudentGroupNames().stream())
+      .toList());
+    // the rooms are resolved in a transaction so that their composition can be loaded lazily
+    var accepted = this.transactionTemplate.execute(_ -> {
+      var prepared = this.prepareBookings(requests, studentGroups, results);
+      return this.rejectConflicts(prepared, results);
+    });
+
+    for (var from = 0; from < accepted.size(); from += this.chunkSize) {
+      var chunk = accepted.subList(from, Math.min(accepted.size(), from + this.chunkSize));
+      this.insertChunk(chunk, results);
+    }
+
+    var response = new BulkBookingResponse(0, 0, 0, List.of(results));
+    for (var result : results) {
+      switch (result.getStatus()) {
+        case CREATED -> response.setCreated(response.getCreated() + 1);
+        case CONFLICT -> response.setConflicts(response.getConflicts() + 1);
+        case INVALID -> response.setInvalid(response.getInvalid() + 1);
+      }
+    }
+
+    log.info(
+      "Bulk booking finished: {} created, {} conflicts, {} invalid",
+      response.getCreated(),
+      response.getConflicts(),
+      response.getInvalid());
+    return response;
+  }
+
+  /**
+   * Validates all requests and resolves their rooms, the rooms are resolved once for the whole batch. Invalid requests
+   * are reported in the given results.
+   */
+  private @NonNull List<PreparedBooking> prepareBookings(
+    @NonNull List<RoomBookingRequest> requests,
+    @NonNull Map<String, StudentGroupResponse> studentGroups,
+    @NonNull BulkBookingResult[] results
+  ) {
+    Set<UUID> roomIds = new HashSet<>();
+    for (var index = 0; index < requests.size(); index++) {
+      var request = requests.get(index);
+      try {
+        this.bookingService.validateRequest(request);
+        roomIds.add(request.getRoomId());
+      } catch (GeneralProblemException exception) {
+        results[index] = rejected(index, BulkBookingResult.StatusEnum.INVALID, exception.getDescription());
+      }
+    }
+
+    var rooms = this.roomService.findRoomsByIds(roomIds)
+      .stream()
+      .collect(Collectors.toMap(RoomEntity::getId, Function.identity()));
+    Map<UUID, List<RoomEntity>> allocatedRoomsByRoom = new HashMap<>();
+    List<PreparedBooking> prepared = new ArrayList<>();
+    for (var index = 0; index < requests.size(); index++) {
+      if (results[index] != null) {
+        continue;
+      }
+
+      var request = requests.get(index);
+      var room = rooms.get(request.getRoomId());
+      if (room == null) {
+        results[index] = rejected(
+          index,
+          BulkBookingResult.StatusEnum.INVALID,
+          "Room with ID %s does not exist".formatted(request.getRoomId()));
+        continue;
+      }
+
+      try {
+        BookingService.ensureEnoughSeatsPresent(
+          BookingService.availableSeats(room),
+          request.getGroupSize(),
+          request.getStudentGroupNames(),
+          _ -> studentGroups);
+      } catch (GeneralProblemException exception) {
+        results[index] = rejected(index, BulkBookingResult.StatusEnum.INVALID, exception.getDescription());
+        continue;
+      }
+
+      var allocatedRooms = allocatedRoomsByRoom.computeIfAbsent(room.getId(), _ -> BookingService.allocatedRooms(room));
+      prepared.add(new PreparedBooking(
+        index,
+        request,
+        room,
+        allocatedRooms,
+        toInstant(request.getStartTime()),
+        toInstant(request.getEndTime())));
+    }
+
+    return prepared;
+  }
+
+  /**
+   * Rejects all prepared bookings that overlap with an existing allocation or with a booking earlier in the batch. The
+   * existing allocations of all affected rooms are loaded with a single query.
+   */
+  private @NonNull List<PreparedBooking> rejectConflicts(
+    @NonNull List<PreparedBooking> prepared,
+    @NonNull BulkBookingResult[] results
+  ) {
+    if (prepared.isEmpty()) {
+      return prepared;
+    }
+
+    Set<UUID> roomIds = new HashSet<>();
+    var from = prepared.getFirst().startTime();
+    var to = prepared.getFirst().endTime();
+    for (var booking : prepared) {
+      booking.allocatedRooms().forEach(room -> roomIds.add(room.getId()));
+      from = booking.startTime().isBefore(from) ? booking.startTime() : from;
+      to = booking.endTime().isAfter(to) ? booking.endTime() : to;
+    }
+
+    Map<UUID, List<RoomTimeline.Interval>> intervalsByRoom = new HashMap<>();
+    for (var slice : this.allocationRepository.findSlicesByRoomsBetween(roomIds, from, to)) {
+      intervalsByRoom.computeIfAbsent(slice.roomId(), _ -> new ArrayList<>()).add(new RoomTimeline.Interval(
+        slice.bookingId(),
+        AvailabilityIndex.toEpochMicros(slice.startTime()),
+        AvailabilityIndex.toEpochMicros(slice.endTime())));
+    }
+
+    Map<UUID, RoomTimeline> timelines = new HashMap<>();
+    intervalsByRoom.forEach((roomId, intervals) -> timelines.put(roomId, RoomTimeline.of(intervals)));
+
+    List<PreparedBooking> accepted = new ArrayList<>(prepared.size());
+    for (var booking : prepared) {
+      var start = AvailabilityIndex.toEpochMicros(booking.startTime());
+      var end = AvailabilityIndex.toEpochMicros(booking.endTime());
+      var conflicting = booking.allocatedRooms()
+        .stream()
+        .anyMatch(room -> timelines.getOrDefault(room.getId(), RoomTimeline.EMPTY).overlaps(start, end));
+      if (conflicting) {
+        results[booking.index()] = rejected(
+          booking.index(),
+          BulkBookingResult.StatusEnum.CONFLICT,
+          "Booking overlaps with an existing booking.");
+        continue;
+      }
+
+      // reserve the rooms for the following bookings of the batch, the id is only a placeholder
+      var placeholder = UUID.randomUUID();
+      for (var room : booking.allocatedRooms()) {
+        timelines.merge(
+          room.getId(),
+          RoomTimeline.EMPTY.with(placeholder, start, end),
+          (timeline, _) -> timeline.with(placeholder, start, end));
+      }
+      accepted.add(booking);
+    }
+
+    return accepted;
+  }
+
+  /**
+   * Inserts the given bookings in a single transaction. If the transaction fails because one of the bookings conflicts
+   * with a concurrently created booking, the bookings are retried one by one in their own transactions.
+   */
+  private void insertChunk(@NonNull List<PreparedBooking> chunk, @NonNull BulkBookingResult[] results) {
+    try {
+      var created = this.transactionTemplate.execute(_ -> this.persist(chunk));
+      for (var index = 0; index < chunk.size(); index++) {
+        var booking = chunk.get(index);
+        results[booking.index()] = new BulkBookingResult(booking.index(), BulkBookingResult.StatusEnum.CREATED)
+          .booking(created.get(index));
+      }
+    } catch (DataIntegrityViolationException exception) {
+      log.debug("Bulk booking chunk of {} bookings conflicted, retrying one by one", chunk.size());
+      for (var booking : chunk) {
+        try {
+          var created = this.transactionTemplate.execute(_ -> this.persist(List.of(booking)));
+          results[booking.index()] = new BulkBookingResult(booking.index(), BulkBookingResult.StatusEnum.CREATED)
+            .booking(created.getFirst());
+        } catch (DataIntegrityViolationException singleException) {
+          log.trace("Data integrity violation while creating booking: {}", singleException.getMessage());
+          results[booking.index()] = rejected(
+            booking.index(),
+            BulkBookingResult.StatusEnum.CONFLICT,
+            "Booking overlaps with an existing booking.");
+        }
+      }
+    } finally {
+      // the persistence context might be shared with the request, do not keep thousands of bookings in it
+      this.entityManager.clear();
+    }
+  }
+
+  private @NonNull List<Booking> persist(@NonNull List<PreparedBooking> bookings) {
+    List<BookingEntity> entities = new ArrayList<>(bookings.size());
+    for (var booking : bookings) {
+      entities.add(BookingService.newBookingEntity(booking.request(), booking.room(), booking.allocatedRooms()));
+    }
+
+    // flushed as jdbc batches, see hibernate.jdbc.batch_size and hibernate.order_inserts
+    var saved = this.bookingRepository.saveAll(entities);
+    this.bookingRepository.flush();
+    saved.forEach(this.availabilityIndex::registerBooking);
+    saved.forEach(this.scheduleCache::bookingChanged);
+    this.occupancyRollup.bookingsCreated(saved);
+    return saved.stream().map(BookingEntity::toBookingDto).toList();
+  }
+
+  /**
+   * A validated booking request with its resolved rooms.
+   */
+  private record PreparedBooking(
+    int index,
+    @NonNull RoomBookingRequest request,
+    @NonNull RoomEntity room,
+    @NonNull List<RoomEntity> allocatedRooms,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime
+  ) {
+
+  }
+}
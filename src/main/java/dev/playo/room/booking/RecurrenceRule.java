@@ -0,0 +1,46 @@
+package dev.playo.room.booking;
+
+import dev.playo.room.availability.TimeWindow;
+import dev.playo.room.booking.data.series.Recurrence;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.NonNull;
+
+/**
+ * The rule of a booking series. Occurrences keep the local start and end time of the first occurrence in the system
+ * default time zone (Europe/Berlin), so a lecture at 10:00 stays at 10:00 after a daylight saving time change.
+ *
+ * @param firstStart     the local start of the first occurrence.
+ * @param firstEnd       the local end of the first occurrence.
+ * @param recurrence     the interval in which the occurrences repeat.
+ * @param until          the last day on which an occurrence can start.
+ * @param exceptionDates the days on which the occurrence is skipped.
+ */
+public record RecurrenceRule(
+  @NonNull LocalDateTime firstStart,
+  @NonNull LocalDateTime firstEnd,
+  @NonNull Recurrence recurrence,
+  @NonNull LocalDate until,
+  @NonNull Set<LocalDate> exceptionDates
+) {
+
+  /**
+   * Lazily expands the occurrences of this rule, in chronological order.
+   *
+   * @return a stream of the time ranges of all occurrences of this rule.
+   */
+  public @NonNull Stream<TimeWindow> occurrences() {
+    var zone = ZoneId.systemDefault();
+    var duration = Duration.between(this.firstStart, this.firstEnd);
+    return Stream.iterate(
+        this.firstStart,
+        start -> !start.toLocalDate().isAfter(this.until),
+        start -> start.plusWeeks(this.recurrence.getIntervalWeeks()))
+      .filter(start -> !this.exceptionDates.contains(start.toLocalDate()))
+      .map(start -> new TimeWindow(start.atZone(zone).toInstant(), start.plus(duration).atZone(zone).toInstant()));
+  }
+}
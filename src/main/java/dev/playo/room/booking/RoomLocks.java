@@ -0,0 +1,140 @@
+package dev.playo.room.booking;
+
+import dev.playo.room.exception.GeneralProblemException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serializes the creation of bookings per room. Every room id is mapped to one of a fixed amount of lock stripes, all
+ * stripes of the rooms a booking allocates are taken in ascending stripe order, so two bookings that share a room can
+ * never deadlock and bookings of unrelated rooms only wait for each other if their rooms share a stripe.
+ * <p>
+ * The stripes only serialize the bookings of this replica. In the cross-replica mode a Postgres transaction level
+ * advisory lock is taken per room in addition, ordered by the lock key, and the locked action runs in that
+ * transaction. The advisory locks are released when the transaction ends.
+ */
+@Slf4j
+@Component
+public class RoomLocks {
+
+  private final boolean enabled;
+  private final boolean crossReplica;
+  private final long timeoutMillis;
+  private final ReentrantLock[] stripes;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Autowired
+  public RoomLocks(
+    @Value("${room.booking.locking.enabled:true}") boolean enabled,
+    @Value("${room.booking.locking.cross-replica:false}") boolean crossReplica,
+    @Value("${room.booking.locking.stripes:1024}") int stripes,
+    @Value("${room.booking.locking.timeout-millis:10000}") long timeoutMillis,
+    @NonNull JdbcTemplate jdbcTemplate,
+    @NonNull TransactionTemplate transactionTemplate
+  ) {
+    this.enabled = enabled;
+    this.crossReplica = crossReplica;
+    this.timeoutMillis = timeoutMillis;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+
+    // a power of two allows to select the stripe using a mask
+    this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripes))];
+    for (var index = 0; index < this.stripes.length; index++) {
+      this.stripes[index] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Derives the key of the advisory lock of the given room.
+   */
+  private static long advisoryLockKey(@NonNull UUID roomId) {
+    return roomId.getMostSignificantBits() ^ roomId.getLeastSignificantBits();
+  }
+
+  private static @NonNull GeneralProblemException roomsBusyProblem() {
+    return new GeneralProblemException(
+      HttpStatus.SERVICE_UNAVAILABLE,
+      "The requested room is currently being booked by too many requests, please try again.");
+  }
+
+  /**
+   * Get if the locks serialize bookings across all replicas. In that case the in-memory availability index of this
+   * replica might not know about bookings that were created by another replica while waiting for the lock.
+   *
+   * @return true if the locked actions are serialized across all replicas.
+   */
+  public boolean isCrossReplica() {
+    return this.enabled && this.crossReplica;
+  }
+
+  /**
+   * Runs the given action while holding the locks of all given rooms.
+   *
+   * @param roomIds the ids of all rooms to lock.
+   * @param action  the action to run while the rooms are locked.
+   * @param <T>     the type of the result of the action.
+   * @return the result of the action.
+   * @throws GeneralProblemException if the locks could not be acquired within the configured timeout.
+   */
+  public <T> T withRoomsLocked(@NonNull Collection<UUID> roomIds, @NonNull Supplier<T> action) {
+    if (!this.enabled) {
+      return action.get();
+    }
+
+    var mask = this.stripes.length - 1;
+    var stripeIndexes = roomIds.stream().mapToInt(roomId -> roomId.hashCode() & mask).distinct().sorted().toArray();
+    var acquired = 0;
+    try {
+      for (; acquired < stripeIndexes.length; acquired++) {
+        if (!this.stripes[stripeIndexes[acquired]].tryLock(this.timeoutMillis, TimeUnit.MILLISECONDS)) {
+          log.debug("Timed out waiting for the lock of rooms {}", roomIds);
+          throw roomsBusyProblem();
+        }
+      }
+
+      if (!this.crossReplica) {
+        return action.get();
+      }
+
+      return this.transactionTemplate.execute(_ -> {
+        this.lockAcrossReplicas(roomIds);
+        return action.get();
+      });
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw roomsBusyProblem();
+    } catch (PessimisticLockingFailureException exception) {
+      log.debug("Timed out waiting for the advisory locks of rooms {}", roomIds);
+      throw roomsBusyProblem();
+    } finally {
+      for (var index = acquired - 1; index >= 0; index--) {
+        this.stripes[stripeIndexes[index]].unlock();
+      }
+    }
+  }
+
+  /**
+   * Takes the advisory locks of the given rooms in the current transaction, ordered by their keys.
+   */
+  private void lockAcrossReplicas(@NonNull Collection<UUID> roomIds) {
+    this.jdbcTemplate.execute("SET LOCAL lock_timeout = " + this.timeoutMillis);
+    var keys = roomIds.stream().mapToLong(RoomLocks::advisoryLockKey).distinct().sorted().toArray();
+    for (var key : keys) {
+      this.jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", key);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package dev.playo.room.booking;
+
+import lombok.NonNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A response body that is written by a {@link StreamingResponseBody} instead of being serialized, so that the
+ * generated api can declare the type of the streamed content. The {@link StreamedBodyHttpMessageConverter} writes the
+ * content directly into the response.
+ */
+public interface StreamedBody {
+
+  /**
+   * Get the writer of the content of this body.
+   *
+   * @return the writer of the content of this body.
+   */
+  @NonNull
+  StreamingResponseBody content();
+}
@@ -0,0 +1,49 @@
+package dev.playo.room.booking;
+
+import java.io.IOException;
+import lombok.NonNull;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes a {@link StreamedBody} by running its writer on the response body. Spring Boot registers this converter ahead
+ * of the json converter, which would try to serialize the body instead.
+ */
+@Component
+public class StreamedBodyHttpMessageConverter extends AbstractHttpMessageConverter<StreamedBody> {
+
+  public StreamedBodyHttpMessageConverter() {
+    super(
+      MediaType.APPLICATION_JSON,
+      BookingExportFormat.NDJSON.getMediaType(),
+      BookingExportFormat.CSV.getMediaType());
+  }
+
+  @Override
+  protected boolean supports(@NonNull Class<?> clazz) {
+    return StreamedBody.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected @NonNull StreamedBody readInternal(
+    @NonNull Class<? extends StreamedBody> clazz,
+    @NonNull HttpInputMessage inputMessage
+  ) {
+    throw new HttpMessageNotReadableException("Streamed bodies are only written", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(@NonNull StreamedBody body, @NonNull HttpOutputMessage outputMessage)
+    throws IOException {
+    body.content().writeTo(outputMessage.getBody());
+  }
+}
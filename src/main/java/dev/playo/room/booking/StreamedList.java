@@ -0,0 +1,35 @@
+package dev.playo.room.booking;
+
+import java.util.AbstractList;
+import lombok.NonNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A list response whose elements are written as a json array by the given writer. The elements are never held in
+ * memory, the list can only be written to the response and not be read.
+ *
+ * @param <E> the type of the elements.
+ */
+public final class StreamedList<E> extends AbstractList<E> implements StreamedBody {
+
+  private final StreamingResponseBody content;
+
+  public StreamedList(@NonNull StreamingResponseBody content) {
+    this.content = content;
+  }
+
+  @Override
+  public E get(int index) {
+    throw new UnsupportedOperationException("A streamed list can only be written to the response");
+  }
+
+  @Override
+  public int size() {
+    throw new UnsupportedOperationException("A streamed list can only be written to the response");
+  }
+
+  @Override
+  public @NonNull StreamingResponseBody content() {
+    return this.content;
+  }
+}
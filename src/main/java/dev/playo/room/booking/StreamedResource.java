@@ -0,0 +1,34 @@
+package dev.playo.room.booking;
+
+import java.io.InputStream;
+import lombok.NonNull;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A binary response whose content is written by the given writer. The content is never held in memory, the resource
+ * can only be written to the response and not be read.
+ */
+public final class StreamedResource extends AbstractResource implements StreamedBody {
+
+  private final StreamingResponseBody content;
+
+  public StreamedResource(@NonNull StreamingResponseBody content) {
+    this.content = content;
+  }
+
+  @Override
+  public @NonNull String getDescription() {
+    return "streamed response body";
+  }
+
+  @Override
+  public @NonNull InputStream getInputStream() {
+    throw new UnsupportedOperationException("A streamed resource can only be written to the response");
+  }
+
+  @Override
+  public @NonNull StreamingResponseBody content() {
+    return this.content;
+  }
+}
@@ -2,6 +2,7 @@ package dev.playo.room.booking.data;
 
 import dev.playo.generated.roommanagement.model.Booking;
 import dev.playo.room.booking.data.allocation.BookingAllocation;
+import dev.playo.room.booking.data.series.BookingSeriesEntity;
 import dev.playo.room.room.data.RoomEntity;
 import dev.playo.room.util.DateTimeNormalizer;
 import dev.playo.room.util.UUID7Generator;
@@ -49,6 +50,9 @@ public class BookingEntity {
   @ManyToOne(fetch = FetchType.LAZY, optional = false)
   private RoomEntity room;
 
+  @ManyToOne(fetch = FetchType.LAZY)
+  private BookingSeriesEntity series;
+
   @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, orphanRemoval = true)
   private Set<BookingAllocation> allocations = new HashSet<>();
 
@@ -59,6 +63,7 @@ public class BookingEntity {
       .startTime(DateTimeNormalizer.fromInstant(this.startTime))
       .endTime(DateTimeNormalizer.fromInstant(this.endTime))
       .lecturerIds(this.lecturerIds)
-      .studentGroupNames(this.studentGroupIds);
+      .studentGroupNames(this.studentGroupIds)
+      .seriesId(this.series == null ? null : this.series.getId());
   }
 }
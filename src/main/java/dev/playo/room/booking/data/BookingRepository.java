@@ -1,30 +1,141 @@
 package dev.playo.room.booking.data;
 
-import dev.playo.room.building.data.BuildingEntity;
 import dev.playo.room.room.data.RoomEntity;
-import java.time.LocalDate;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface BookingRepository extends JpaRepository<BookingEntity, UUID> {
 
+  /**
+   * Finds the bookings overlapping the given time range that follow the given cursor in id order. As the ids are
+   * UUIDv7 the pages are read from the primary key index without an offset, no matter how far the cursor is advanced.
+   *
+   * @param cursor    the id after which the page starts.
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @param limit     the maximum amount of bookings to return.
+   * @return the bookings of the page, ordered by their id.
+   */
   @Query("""
-    SELECT booking FROM BookingEntity booking WHERE booking.room = :roomEntity
-         AND :date BETWEEN CAST(booking.startTime as date) AND CAST(booking.endTime as date)
+    SELECT new dev.playo.room.booking.data.BookingRow(
+      booking.id, booking.room.id, booking.startTime, booking.endTime,
+      booking.lecturerIds, booking.studentGroupIds, series.id)
+    FROM BookingEntity booking
+    LEFT JOIN booking.series series
+    WHERE booking.id > :cursor AND booking.endTime > :startTime AND booking.startTime < :endTime
+    ORDER BY booking.id
     """)
-  List<BookingEntity> findBookingByRoomAndDate(@NonNull RoomEntity roomEntity, @NonNull LocalDate date);
+  List<BookingRow> findRowsAfter(
+    @NonNull UUID cursor,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime,
+    @NonNull Limit limit);
 
+  /**
+   * Streams the bookings overlapping the given time range in id order. The rows are read through a forward-only
+   * cursor in chunks of the fetch size, the returned stream must be consumed within a transaction and closed.
+   *
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return the bookings in the time range, ordered by their id.
+   */
   @Query("""
-    SELECT booking FROM BookingEntity booking WHERE booking.room.building = :buildingEntity
-         AND :date BETWEEN CAST(booking.startTime as date) AND CAST(booking.endTime as date)
+    SELECT new dev.playo.room.booking.data.BookingRow(
+      booking.id, booking.room.id, booking.startTime, booking.endTime,
+      booking.lecturerIds, booking.studentGroupIds, series.id)
+    FROM BookingEntity booking
+    LEFT JOIN booking.series series
+    WHERE booking.endTime > :startTime AND booking.startTime < :endTime
+    ORDER BY booking.id
     """)
-  List<BookingEntity> findBookingByBuildingAndDate(@NonNull BuildingEntity buildingEntity, @NonNull LocalDate date);
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<BookingRow> streamRows(@NonNull Instant startTime, @NonNull Instant endTime);
+
+  /**
+   * Streams the bookings of the rooms in the given building that overlap the given time range in id order. The rows
+   * are read through a forward-only cursor in chunks of the fetch size, the returned stream must be consumed within a
+   * transaction and closed.
+   *
+   * @param buildingId the id of the building of the booked rooms.
+   * @param startTime  the inclusive start of the time range.
+   * @param endTime    the exclusive end of the time range.
+   * @return the bookings of the building in the time range, ordered by their id.
+   */
+  @Query("""
+    SELECT new dev.playo.room.booking.data.BookingRow(
+      booking.id, room.id, booking.startTime, booking.endTime,
+      booking.lecturerIds, booking.studentGroupIds, series.id)
+    FROM BookingEntity booking
+    JOIN booking.room room
+    LEFT JOIN booking.series series
+    WHERE room.building.id = :buildingId AND booking.endTime > :startTime AND booking.startTime < :endTime
+    ORDER BY booking.id
+    """)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<BookingRow> streamRowsByBuilding(
+    @NonNull UUID buildingId,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime);
+
+  /**
+   * Finds the bookings of the given room that overlap the given time range, usually the bounds of a day. The bounds
+   * are compared to the columns as they are, so the query is answered from the index on the room and the start time.
+   *
+   * @param roomId    the id of the booked room.
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return the bookings of the room in the time range, ordered by their start time.
+   */
+  @Query("""
+    SELECT new dev.playo.room.booking.data.BookingRow(
+      booking.id, booking.room.id, booking.startTime, booking.endTime,
+      booking.lecturerIds, booking.studentGroupIds, series.id)
+    FROM BookingEntity booking
+    LEFT JOIN booking.series series
+    WHERE booking.room.id = :roomId AND booking.startTime < :endTime AND booking.endTime > :startTime
+    ORDER BY booking.startTime
+    """)
+  List<BookingRow> findRowsByRoomAndTimeRange(
+    @NonNull UUID roomId,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime);
+
+  /**
+   * Finds the bookings of the rooms in the given building that overlap the given time range, usually the bounds of a
+   * day. The rooms are resolved from the index on their building, their bookings from the index on the room and the
+   * start time.
+   *
+   * @param buildingId the id of the building of the booked rooms.
+   * @param startTime  the inclusive start of the time range.
+   * @param endTime    the exclusive end of the time range.
+   * @return the bookings of the building in the time range, ordered by their start time.
+   */
+  @Query("""
+    SELECT new dev.playo.room.booking.data.BookingRow(
+      booking.id, room.id, booking.startTime, booking.endTime,
+      booking.lecturerIds, booking.studentGroupIds, series.id)
+    FROM BookingEntity booking
+    JOIN booking.room room
+    LEFT JOIN booking.series series
+    WHERE room.building.id = :buildingId AND booking.startTime < :endTime AND booking.endTime > :startTime
+    ORDER BY booking.startTime
+    """)
+  List<BookingRow> findRowsByBuildingAndTimeRange(
+    @NonNull UUID buildingId,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime);
 
   @Query("""
     SELECT CASE WHEN COUNT(booking) > 0 THEN true ELSE false END FROM BookingEntity booking 
@@ -32,6 +143,9 @@ public interface BookingRepository extends JpaRepository<BookingEntity, UUID> {
     """)
   boolean existsCurrentOrFutureBookingForRoom(@NonNull RoomEntity roomEntity);
 
+  @Query("SELECT booking.id FROM BookingEntity booking WHERE booking.room = :roomEntity")
+  List<UUID> findIdsByRoom(@NonNull RoomEntity roomEntity);
+
   @Modifying
   @Query("DELETE FROM BookingEntity booking WHERE booking.room = :roomEntity")
   void deleteAllByRoom(@NonNull RoomEntity roomEntity);
@@ -0,0 +1,43 @@
+package dev.playo.room.booking.data;
+
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.room.util.DateTimeNormalizer;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import lombok.NonNull;
+
+/**
+ * Read-only projection of a booking containing only the columns of the booking dto. Rows are not tracked by the
+ * persistence context and do not reference the lazy associations of the booking.
+ *
+ * @param id                the id of the booking.
+ * @param roomId            the id of the booked room.
+ * @param startTime         the start of the booking.
+ * @param endTime           the end of the booking.
+ * @param lecturerIds       the ids of the lecturers of the booking.
+ * @param studentGroupNames the names of the student groups of the booking.
+ * @param seriesId          the id of the series the booking belongs to, null if it is a single booking.
+ */
+public record BookingRow(
+  @NonNull UUID id,
+  @NonNull UUID roomId,
+  @NonNull Instant startTime,
+  @NonNull Instant endTime,
+  Set<UUID> lecturerIds,
+  Set<String> studentGroupNames,
+  @Nullable UUID seriesId
+) {
+
+  public @NonNull Booking toBookingDto() {
+    return new Booking()
+      .id(this.id)
+      .roomId(this.roomId)
+      .startTime(DateTimeNormalizer.fromInstant(this.startTime))
+      .endTime(DateTimeNormalizer.fromInstant(this.endTime))
+      .lecturerIds(this.lecturerIds)
+      .studentGroupNames(this.studentGroupNames)
+      .seriesId(this.seriesId);
+  }
+}
@@ -0,0 +1,17 @@
+package dev.playo.room.booking.data.allocation;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.NonNull;
+
+/**
+ * Flat, read-only view of a single booking allocation row.
+ */
+public record AllocationSlice(
+  @NonNull UUID bookingId,
+  @NonNull UUID roomId,
+  @NonNull Instant startTime,
+  @NonNull Instant endTime
+) {
+
+}
@@ -1,9 +1,63 @@
 package dev.playo.room.booking.data.allocation;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface BookingAllocationRepository extends JpaRepository<BookingAllocation, BookingAllocationId> {
 
+  @Query("""
+    SELECT new dev.playo.room.booking.data.allocation.AllocationSlice(
+      allocation.id.bookingId, allocation.id.roomId, allocation.startTime, allocation.endTime)
+    FROM BookingAllocation allocation
+    """)
+  List<AllocationSlice> findAllSlices();
+
+  @Query("""
+    SELECT new dev.playo.room.booking.data.allocation.AllocationSlice(
+      allocation.id.bookingId, allocation.id.roomId, allocation.startTime, allocation.endTime)
+    FROM BookingAllocation allocation
+    WHERE allocation.id.roomId IN :roomIds
+      AND allocation.startTime < :endTime
+      AND allocation.endTime > :startTime
+    """)
+  List<AllocationSlice> findSlicesByRoomsBetween(
+    @NonNull Collection<UUID> roomIds,
+    @NonNull Instant startTime,
+    @NonNull Instant endTime);
+
+  @Query("""
+    SELECT CASE WHEN COUNT(allocation) > 0 THEN true ELSE false END FROM BookingAllocation allocation
+    WHERE allocation.id.roomId IN :roomIds
+      AND allocation.startTime < :endTime
+      AND allocation.endTime > :startTime
+    """)
+  boolean existsOverlapping(@NonNull Collection<UUID> roomIds, @NonNull Instant startTime, @NonNull Instant endTime);
+
+  /**
+   * Checks many time ranges against the allocations of the given rooms at once. The time ranges are passed as two
+   * array literals of the same length, see {@link dev.playo.room.util.DateTimeNormalizer#toTimestampArrayLiteral}.
+   *
+   * @return the zero-based indexes of all time ranges that overlap with at least one allocation, in ascending order.
+   */
+  @Query(nativeQuery = true, value = """
+    SELECT CAST(occurrence.ordinal - 1 AS integer)
+    FROM unnest(CAST(:startTimes AS timestamptz[]), CAST(:endTimes AS timestamptz[])) WITH ORDINALITY
+         AS occurrence(start_time, end_time, ordinal)
+    WHERE EXISTS (SELECT 1 FROM booking_allocations allocation
+                  WHERE allocation.room_id IN (:roomIds)
+                    AND allocation.start_time < occurrence.end_time
+                    AND allocation.end_time > occurrence.start_time)
+    ORDER BY occurrence.ordinal
+    """)
+  List<Integer> findOverlappingIndexes(
+    @NonNull Collection<UUID> roomIds,
+    @NonNull String startTimes,
+    @NonNull String endTimes);
 }
@@ -0,0 +1,39 @@
+package dev.playo.room.booking.data.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * The claim of an idempotency key and, once the request was processed, its result. A claim without a response status
+ * is still being processed.
+ */
+@Data
+@Entity
+@ToString(of = "key")
+@EqualsAndHashCode(of = "key")
+@Table(name = "idempotency_keys")
+public class IdempotencyKeyEntity {
+
+  @Id
+  @Column(name = "idempotency_key")
+  private String key;
+
+  @Column(nullable = false)
+  private String requestHash;
+
+  private UUID claimToken;
+
+  private Integer responseStatus;
+
+  private String responseBody;
+
+  @Column(nullable = false)
+  private Instant expiresAt;
+}
@@ -0,0 +1,75 @@
+package dev.playo.room.booking.data.idempotency;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.NonNull;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+  /**
+   * Claims the given key for the current request, unless it is claimed by another request that did not expire yet.
+   * An unfinished claim expires at the end of its lease, a finished one at the end of the time to live of the key.
+   *
+   * @param claimToken identifies the claim of the current request, to store or release only a claim it still holds.
+   * @param expiresAt  the end of the lease of the claim.
+   * @return 1 if the key was claimed, 0 if it is already claimed by another request.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = """
+    INSERT INTO idempotency_keys (idempotency_key, request_hash, claim_token, expires_at)
+    VALUES (:key, :requestHash, :claimToken, :expiresAt)
+    ON CONFLICT (idempotency_key) DO UPDATE
+      SET request_hash = excluded.request_hash,
+          claim_token = excluded.claim_token,
+          response_status = NULL,
+          response_body = NULL,
+          created_at = now(),
+          expires_at = excluded.expires_at
+      WHERE idempotency_keys.expires_at < now()
+    """)
+  int claim(@NonNull String key, @NonNull String requestHash, @NonNull UUID claimToken, @NonNull Instant expiresAt);
+
+  /**
+   * Stores the result of the request that claimed the given key and extends the claim to the time to live of the key.
+   * Nothing is stored if the claim was taken over by another request in the meantime.
+   *
+   * @param claimToken the token of the claim of the request.
+   * @param expiresAt  the end of the time to live of the key.
+   * @return 1 if the result was stored, 0 if the request does not hold the claim anymore.
+   */
+  @Modifying
+  @Query("""
+    UPDATE IdempotencyKeyEntity idempotencyKey
+    SET idempotencyKey.responseStatus = :responseStatus,
+        idempotencyKey.responseBody = :responseBody,
+        idempotencyKey.expiresAt = :expiresAt
+    WHERE idempotencyKey.key = :key AND idempotencyKey.claimToken = :claimToken
+    """)
+  int complete(
+    @NonNull String key,
+    @NonNull UUID claimToken,
+    int responseStatus,
+    @NonNull String responseBody,
+    @NonNull Instant expiresAt);
+
+  /**
+   * Releases the claim of the given key, unless it was taken over by another request in the meantime.
+   *
+   * @param claimToken the token of the claim of the request.
+   */
+  @Modifying
+  @Query("""
+    DELETE FROM IdempotencyKeyEntity idempotencyKey
+    WHERE idempotencyKey.key = :key AND idempotencyKey.claimToken = :claimToken
+    """)
+  void release(@NonNull String key, @NonNull UUID claimToken);
+
+  @Modifying
+  @Query("DELETE FROM IdempotencyKeyEntity idempotencyKey WHERE idempotencyKey.expiresAt < CURRENT_TIMESTAMP")
+  int deleteAllExpired();
+}
@@ -0,0 +1,77 @@
+package dev.playo.room.booking.data.series;
+
+import dev.playo.generated.roommanagement.model.BookingRecurrence;
+import dev.playo.generated.roommanagement.model.BookingSeries;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.room.data.RoomEntity;
+import dev.playo.room.util.UUID7Generator;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+import org.hibernate.annotations.UuidGenerator;
+
+/**
+ * A recurring booking of a room. The series only stores the rule of the recurrence, every occurrence is stored as a
+ * regular booking that references the series.
+ */
+@Data
+@Entity
+@ToString(of = "id")
+@EqualsAndHashCode(of = "id")
+@Table(name = "booking_series")
+public class BookingSeriesEntity {
+
+  @Id
+  @UuidGenerator(algorithm = UUID7Generator.class)
+  private UUID id;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  private RoomEntity room;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Recurrence recurrence;
+
+  /**
+   * The start of the first occurrence.
+   */
+  @Column(nullable = false)
+  private Instant startTime;
+
+  /**
+   * The end of the first occurrence.
+   */
+  @Column(nullable = false)
+  private Instant endTime;
+
+  @Column(nullable = false)
+  private LocalDate until;
+
+  @Column(nullable = false)
+  private Set<LocalDate> exceptionDates = new HashSet<>();
+
+  public @NonNull BookingSeries toBookingSeriesDto(@NonNull List<BookingEntity> bookings) {
+    return new BookingSeries()
+      .id(this.id)
+      .roomId(this.room.getId())
+      .recurrence(BookingRecurrence.valueOf(this.recurrence.name()))
+      .until(this.until)
+      .exceptionDates(this.exceptionDates)
+      .bookings(bookings.stream().map(BookingEntity::toBookingDto).toList());
+  }
+}
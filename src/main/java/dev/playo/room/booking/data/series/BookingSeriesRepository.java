@@ -0,0 +1,10 @@
+package dev.playo.room.booking.data.series;
+
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookingSeriesRepository extends JpaRepository<BookingSeriesEntity, UUID> {
+
+}
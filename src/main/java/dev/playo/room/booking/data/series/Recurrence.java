@@ -0,0 +1,18 @@
+package dev.playo.room.booking.data.series;
+
+import lombok.Getter;
+
+/**
+ * The interval in which the occurrences of a booking series repeat.
+ */
+@Getter
+public enum Recurrence {
+  WEEKLY(1),
+  BIWEEKLY(2);
+
+  private final int intervalWeeks;
+
+  Recurrence(int intervalWeeks) {
+    this.intervalWeeks = intervalWeeks;
+  }
+}
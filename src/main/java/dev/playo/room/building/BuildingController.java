@@ -6,6 +6,9 @@ import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
 import dev.playo.generated.roommanagement.model.GetAllBookingsResponse;
 import dev.playo.generated.roommanagement.model.GetAllBuildingsResponse;
 import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.room.catalog.CatalogResponses;
+import dev.playo.room.catalog.RoomCatalog;
+import dev.playo.room.room.RoomService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -20,10 +23,18 @@ import org.springframework.web.bind.annotation.RestController;
 public class BuildingController implements BuildingsApi {
 
   private final BuildingService buildingService;
+  private final RoomService roomService;
+  private final RoomCatalog roomCatalog;
 
   @Autowired
-  public BuildingController(@NonNull BuildingService buildingService) {
+  public BuildingController(
+    @NonNull BuildingService buildingService,
+    @NonNull RoomService roomService,
+    @NonNull RoomCatalog roomCatalog
+  ) {
     this.buildingService = buildingService;
+    this.roomService = roomService;
+    this.roomCatalog = roomCatalog;
   }
 
   @Override
@@ -51,14 +62,21 @@ public class BuildingController implements BuildingsApi {
 
   @Override
   public ResponseEntity<GetAllBuildingsResponse> getBuildings() {
-    var buildings = this.buildingService.allBuildings();
-    return ResponseEntity.ok(new GetAllBuildingsResponse(buildings));
+    var snapshot = this.roomCatalog.snapshot();
+    return CatalogResponses.of(snapshot, snapshot.buildingsResponse());
   }
 
   @Override
   public ResponseEntity<List<Room>> getRoomsForBuilding(UUID buildingId) {
-    var rooms = this.buildingService.allRoomsByBuildingId(buildingId);
-    return ResponseEntity.ok(rooms);
+    var snapshot = this.roomCatalog.snapshot();
+    var rooms = snapshot.buildingRoomsResponses().get(buildingId);
+    if (rooms == null) {
+      // the building might have been created through another replica and not be part of the snapshot yet
+      this.buildingService.findBuildingById(buildingId);
+      return ResponseEntity.ok(this.roomService.findRoomsByBuildingId(buildingId));
+    }
+
+    return CatalogResponses.of(snapshot, rooms);
   }
 
   @Override
@@ -0,0 +1,229 @@
+package dev.playo.room.building;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.notification.ChangeListener;
+import dev.playo.room.notification.ChangeNotifications;
+import dev.playo.room.util.TransactionHooks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the bookings of a building on a day, the content of the building day view. The booking write paths
+ * invalidate exactly the days of the buildings they changed once their transaction committed. The same invalidation is
+ * published to the other replicas of the application through the {@link ChangeNotifications} in the transaction of
+ * the change, so they drop their copies of the changed days as soon as the change is committed. If the notifications
+ * of other replicas might have been missed, all cached schedules are dropped.
+ * <p>
+ * A schedule that is loaded while a change commits may have been read before the change was visible. Every
+ * invalidation therefore increases a generation before it removes the affected schedules, and a loaded schedule is
+ * dropped again if the generation changed while it was loaded, so that a stale schedule is never kept.
+ */
+@Component
+public class BuildingScheduleCache {
+
+  private static final String BUILDING_SCHEDULES_CACHE = "building-schedules";
+  private static final String CHANGES_TOPIC = "building-schedules";
+
+  private final AtomicLong generation = new AtomicLong();
+  private final Cache<ScheduleKey, List<Booking>> schedules;
+  private final ChangeNotifications changeNotifications;
+
+  @Autowired
+  public BuildingScheduleCache(
+    @Value("${room.building.schedule-cache.max-size:2000}") long maxSize,
+    @Value("${room.building.schedule-cache.ttl-seconds:60}") long ttlSeconds,
+    @NonNull MeterRegistry meterRegistry,
+    @NonNull ChangeNotifications changeNotifications
+  ) {
+    this.schedules = Caffeine.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, this.schedules, BUILDING_SCHEDULES_CACHE);
+
+    this.changeNotifications = changeNotifications;
+    changeNotifications.subscribe(CHANGES_TOPIC, new ChangeListener() {
+      @Override
+      public void changed(@NonNull String payload) {
+        ScheduleChange.parse(payload).applyTo(BuildingScheduleCache.this);
+      }
+
+      @Override
+      public void missedChanges() {
+        BuildingScheduleCache.this.invalidate(_ -> true);
+      }
+    });
+  }
+
+  private static @NonNull LocalDate toLocalDate(@NonNull Instant instant) {
+    return LocalDate.ofInstant(instant, ZoneId.systemDefault());
+  }
+
+  /**
+   * Get the bookings of the given building on the given day, the schedule is loaded with the given loader and cached
+   * if it is not cached yet.
+   *
+   * @param buildingId the id of the building.
+   * @param date       the day of the schedule.
+   * @param loader     loads the bookings of the building on the day from the database.
+   * @return the bookings of the building on the given day.
+   */
+  public @NonNull List<Booking> schedule(
+    @NonNull UUID buildingId,
+    @NonNull LocalDate date,
+    @NonNull Supplier<List<Booking>> loader
+  ) {
+    var key = new ScheduleKey(buildingId, date);
+    var cached = this.schedules.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    var loadedGeneration = this.generation.get();
+    var schedule = List.copyOf(loader.get());
+    this.schedules.put(key, schedule);
+    if (this.generation.get() != loadedGeneration) {
+      // a change committed while loading, the schedule might not contain it
+      this.schedules.asMap().remove(key, schedule);
+    }
+
+    return schedule;
+  }
+
+  /**
+   * Invalidates the schedules of all days the given booking spans in the building of its room, once the current
+   * transaction committed.
+   *
+   * @param booking the booking that was created or removed.
+   */
+  public void bookingChanged(@NonNull BookingEntity booking) {
+    var buildingId = booking.getRoom().getBuilding().getId();
+    var firstDay = toLocalDate(booking.getStartTime());
+    // the end of a booking is exclusive, a booking ending at midnight does not belong to the next day
+    var lastDay = toLocalDate(booking.getEndTime().minusNanos(1));
+    this.changed(new ScheduleChange(ScheduleChange.Kind.DAYS, buildingId, firstDay, lastDay));
+  }
+
+  /**
+   * Invalidates all schedules of the given building once the current transaction committed, used for changes that
+   * affect an unknown set of days of the building.
+   *
+   * @param buildingId the id of the building whose schedules changed.
+   */
+  public void buildingChanged(@NonNull UUID buildingId) {
+    this.changed(new ScheduleChange(ScheduleChange.Kind.BUILDING, buildingId, null, null));
+  }
+
+  /**
+   * Invalidates the schedules of all days on which bookings ending before the given point in time could have taken
+   * place, once the current transaction committed.
+   *
+   * @param instant the point in time before which bookings were removed.
+   */
+  public void bookingsEndedBefore(@NonNull Instant instant) {
+    this.changed(new ScheduleChange(ScheduleChange.Kind.ENDED, null, null, toLocalDate(instant)));
+  }
+
+  /**
+   * Publishes the given change to the other replicas and applies it to this replica once the current transaction
+   * committed.
+   */
+  private void changed(@NonNull ScheduleChange change) {
+    this.changeNotifications.publish(CHANGES_TOPIC, change.format());
+    TransactionHooks.afterCommit(() -> change.applyTo(this));
+  }
+
+  /**
+   * Removes the cached schedules matching the given filter. The generation is increased first, so that schedules that
+   * are loaded concurrently are not kept either.
+   */
+  private void invalidate(@NonNull Predicate<ScheduleKey> filter) {
+    this.generation.incrementAndGet();
+    this.schedules.asMap().keySet().removeIf(filter);
+  }
+
+  /**
+   * Identifies the schedule of a building on a day.
+   */
+  private record ScheduleKey(@NonNull UUID buildingId, @NonNull LocalDate date) {
+
+  }
+
+  /**
+   * A change that invalidates cached schedules, exchanged between the replicas in a compact text form.
+   *
+   * @param kind       the kind of the change.
+   * @param buildingId the building whose schedules changed, null for changes of all buildings.
+   * @param firstDay   the first changed day, null if the change is not limited to days.
+   * @param lastDay    the last changed day, inclusive, null for changes of all days.
+   */
+  private record ScheduleChange(
+    @NonNull Kind kind,
+    @Nullable UUID buildingId,
+    @Nullable LocalDate firstDay,
+    @Nullable LocalDate lastDay
+  ) {
+
+    private static @NonNull ScheduleChange parse(@NonNull String text) {
+      var parts = text.split(",", -1);
+      return new ScheduleChange(
+        Kind.valueOf(parts[0]),
+        parts[1].isEmpty() ? null : UUID.fromString(parts[1]),
+        parts[2].isEmpty() ? null : LocalDate.parse(parts[2]),
+        parts[3].isEmpty() ? null : LocalDate.parse(parts[3]));
+    }
+
+    private @NonNull String format() {
+      return String.join(
+        ",",
+        this.kind.name(),
+        Objects.toString(this.buildingId, ""),
+        Objects.toString(this.firstDay, ""),
+        Objects.toString(this.lastDay, ""));
+    }
+
+    private void applyTo(@NonNull BuildingScheduleCache cache) {
+      switch (this.kind) {
+        case DAYS -> cache.invalidate(key -> key.buildingId().equals(this.buildingId)
+          && !key.date().isBefore(this.firstDay)
+          && !key.date().isAfter(this.lastDay));
+        case BUILDING -> cache.invalidate(key -> key.buildingId().equals(this.buildingId));
+        case ENDED -> cache.invalidate(key -> !key.date().isAfter(this.lastDay));
+      }
+    }
+
+    private enum Kind {
+      /**
+       * The bookings of some days of one building changed.
+       */
+      DAYS,
+      /**
+       * All days of one building changed.
+       */
+      BUILDING,
+      /**
+       * The bookings of all buildings that ended until the last day were removed.
+       */
+      ENDED
+    }
+  }
+}
@@ -1,15 +1,16 @@
 package dev.playo.room.building;
 
+import static dev.playo.room.util.DateTimeNormalizer.startOfDay;
+
 import dev.playo.generated.roommanagement.model.Booking;
 import dev.playo.generated.roommanagement.model.Building;
 import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
-import dev.playo.generated.roommanagement.model.Room;
-import dev.playo.room.booking.data.BookingEntity;
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.BookingRow;
 import dev.playo.room.building.data.BuildingEntity;
 import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.catalog.RoomCatalog;
 import dev.playo.room.exception.GeneralProblemException;
-import dev.playo.room.room.RoomService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -21,18 +22,21 @@ import org.springframework.stereotype.Service;
 @Service
 public class BuildingService {
 
-  private final RoomService roomService;
   private final BookingRepository bookingRepository;
   private final BuildingRepository buildingRepository;
+  private final RoomCatalog roomCatalog;
+  private final BuildingScheduleCache scheduleCache;
 
   @Autowired
   public BuildingService(
-    @NonNull RoomService roomService,
     @NonNull BookingRepository bookingRepository,
-    @NonNull BuildingRepository buildingRepository) {
-    this.roomService = roomService;
+    @NonNull BuildingRepository buildingRepository,
+    @NonNull RoomCatalog roomCatalog,
+    @NonNull BuildingScheduleCache scheduleCache) {
     this.bookingRepository = bookingRepository;
     this.buildingRepository = buildingRepository;
+    this.roomCatalog = roomCatalog;
+    this.scheduleCache = scheduleCache;
   }
 
   public @NonNull Building createBuilding(@NonNull BuildingCreateRequest request) {
@@ -48,7 +52,9 @@ public class BuildingService {
     buildingEntity.setDescription(request.getDescription());
     buildingEntity.setAddress(request.getAddress());
 
-    return this.buildingRepository.save(buildingEntity).toBuildingDto();
+    var savedBuilding = this.buildingRepository.save(buildingEntity);
+    this.roomCatalog.changed();
+    return savedBuilding.toBuildingDto();
   }
 
   public @NonNull BuildingEntity findBuildingById(@NonNull UUID buildingId) {
@@ -75,27 +81,36 @@ public class BuildingService {
     building.setDescription(request.getDescription());
     building.setAddress(request.getAddress());
 
-    return this.buildingRepository.save(building).toBuildingDto();
+    var updatedBuilding = this.buildingRepository.save(building);
+    this.roomCatalog.changed();
+    return updatedBuilding.toBuildingDto();
   }
 
   public void deleteBuildingById(@NonNull UUID buildingId) {
     var building = this.findBuildingById(buildingId);
     this.buildingRepository.delete(building);
+    this.roomCatalog.changed();
+    this.scheduleCache.buildingChanged(buildingId);
   }
 
-  public @NonNull List<Building> allBuildings() {
-    return this.buildingRepository.findAll().stream().map(BuildingEntity::toBuildingDto).toList();
-  }
-
-  public @NonNull List<Room> allRoomsByBuildingId(@NonNull UUID buildingId) {
-    return this.roomService.findRoomsByBuildingId(buildingId);
-  }
-
+  /**
+   * Finds all bookings of the rooms in the given building on the given day. The schedule of the day is cached until a
+   * booking on that day in the building changes.
+   *
+   * @param buildingId the id of the building to find the bookings of.
+   * @param date       the day to find the bookings on.
+   * @return all bookings of the building on the given day.
+   * @throws GeneralProblemException if the building does not exist.
+   */
   public @NonNull List<Booking> allBookingsByBuildingIdAndDate(@NonNull UUID buildingId, @NonNull LocalDate date) {
-    var building = this.findBuildingById(buildingId);
-    return this.bookingRepository.findBookingByBuildingAndDate(building, date)
-      .stream()
-      .map(BookingEntity::toBookingDto)
-      .toList();
+    return this.scheduleCache.schedule(buildingId, date, () -> {
+      var building = this.findBuildingById(buildingId);
+      var dayStart = startOfDay(date);
+      var dayEnd = startOfDay(date.plusDays(1));
+      return this.bookingRepository.findRowsByBuildingAndTimeRange(building.getId(), dayStart, dayEnd)
+        .stream()
+        .map(BookingRow::toBookingDto)
+        .toList();
+    });
   }
 }
@@ -0,0 +1,94 @@
+package dev.playo.room.catalog;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import lombok.NonNull;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Builds the responses of the catalog endpoints from the json that was encoded when the {@link CatalogSnapshot} was
+ * built. A request whose {@code If-None-Match} header contains the entity tag of the snapshot is answered with 304,
+ * every other request gets the encoded json written as is, gzip compressed if the client accepts it.
+ */
+public final class CatalogResponses {
+
+  static final String GZIP_ENCODING = "gzip";
+  private static final String GZIP_TAG_SUFFIX = "-gzip";
+
+  /**
+   * Builds the response of the current request for the given body of the given snapshot. The body is written by the
+   * {@link EncodedBodyHttpMessageConverter}, which uses the representation selected by the content encoding.
+   *
+   * @param snapshot the snapshot the body belongs to.
+   * @param body     the body to respond with, an {@link EncodedBody} of the snapshot.
+   * @param <T>      the body type declared by the api of the endpoint.
+   * @return the response to the current request.
+   * @throws IllegalArgumentException if the body is no {@link EncodedBody}.
+   */
+  public static <T> @NonNull ResponseEntity<T> of(@NonNull CatalogSnapshot snapshot, @NonNull T body) {
+    // the declared body types are generated, the encoded body can only be required at runtime
+    Assert.isInstanceOf(EncodedBody.class, body);
+
+    var request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+    var gzip = acceptsGzip(request);
+
+    // both representations need a distinct tag, caches must not serve one for the other
+    var eTag = "\"%s%s\"".formatted(snapshot.eTag(), gzip ? GZIP_TAG_SUFFIX : "");
+    var headers = new HttpHeaders();
+    headers.setCacheControl(CacheControl.noCache());
+    headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+    if (new ServletWebRequest(request).checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).eTag(eTag).build();
+    }
+
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+    }
+
+    return ResponseEntity.ok().headers(headers).eTag(eTag).body(body);
+  }
+
+  /**
+   * Checks if the given request accepts a gzip compressed response, which is the case if its {@code Accept-Encoding}
+   * header lists gzip (or any encoding) with a quality above zero.
+   */
+  private static boolean acceptsGzip(@NonNull HttpServletRequest request) {
+    var acceptedEncodings = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+    while (acceptedEncodings.hasMoreElements()) {
+      for (var encoding : acceptedEncodings.nextElement().split(",")) {
+        var parts = encoding.split(";");
+        var coding = parts[0].strip();
+        if (!coding.equalsIgnoreCase(GZIP_ENCODING) && !coding.equals("*")) {
+          continue;
+        }
+
+        var quality = 1.0;
+        for (var index = 1; index < parts.length; index++) {
+          var parameter = parts[index].strip();
+          if (parameter.startsWith("q=")) {
+            try {
+              quality = Double.parseDouble(parameter.substring(2));
+            } catch (NumberFormatException _) {
+              quality = 0;
+            }
+          }
+        }
+
+        if (quality > 0) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+}
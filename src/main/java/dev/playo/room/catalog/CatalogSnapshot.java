@@ -0,0 +1,121 @@
+package dev.playo.room.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.Building;
+import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.room.room.data.RoomCatalogRow;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+
+/**
+ * Immutable view of the room and building catalog at one version. A snapshot is never modified after it was built,
+ * changes to the catalog build a new snapshot that replaces the previous one as a whole.
+ *
+ * @param version                 the version of the catalog, increased whenever the catalog changed.
+ * @param eTag                    the entity tag of this version derived from its content, without surrounding quotes.
+ * @param rows                    the flat rows of all rooms, ordered by their id.
+ * @param buildings               all buildings, ordered by their id.
+ * @param roomsById               all rooms by their id.
+ * @param roomsByBuilding         the rooms of every building that has rooms by the id of the building.
+ * @param roomsByParent           the rooms a composite room is composed of by the id of the composite room.
+ * @param composableRoomIds       the ids of the rooms that can be used to compose a new room.
+ * @param allRoomsResponse        the encoded response containing all rooms.
+ * @param composableRoomsResponse the encoded response containing the rooms that can be used to compose a new room.
+ * @param buildingsResponse       the encoded response containing all buildings.
+ * @param buildingRoomsResponses  the encoded list of the rooms of every building by the id of the building.
+ */
+public record CatalogSnapshot(
+  long version,
+  @NonNull String eTag,
+  @NonNull List<RoomCatalogRow> rows,
+  @NonNull List<Building> buildings,
+  @NonNull Map<UUID, Room> roomsById,
+  @NonNull Map<UUID, List<Room>> roomsByBuilding,
+  @NonNull Map<UUID, List<Room>> roomsByParent,
+  @NonNull Set<UUID> composableRoomIds,
+  @NonNull EncodedRoomsResponse allRoomsResponse,
+  @NonNull EncodedRoomsResponse composableRoomsResponse,
+  @NonNull EncodedBuildingsResponse buildingsResponse,
+  @NonNull Map<UUID, EncodedList<Room>> buildingRoomsResponses
+) {
+
+  /**
+   * Builds the snapshot of the given catalog content and encodes the responses of the list endpoints. The entity tag
+   * is the SHA-256 hash of the encoded rooms and buildings, so every replica derives the same tag for the same catalog,
+   * also after a restart.
+   *
+   * @param version      the version of the catalog.
+   * @param rows         the flat rows of all rooms, ordered by their id.
+   * @param buildings    all buildings, ordered by their id.
+   * @param objectMapper the object mapper to encode the responses with.
+   * @return the snapshot of the given catalog content.
+   */
+  public static @NonNull CatalogSnapshot build(
+    long version,
+    @NonNull List<RoomCatalogRow> rows,
+    @NonNull List<Building> buildings,
+    @NonNull ObjectMapper objectMapper
+  ) {
+    var childrenByParent = RoomCatalogRow.childrenByParent(rows);
+    var rooms = rows.stream().map(row -> row.toRoomDto(childrenByParent)).toList();
+    var roomsById = rooms.stream().collect(Collectors.toUnmodifiableMap(Room::getId, Function.identity()));
+    var roomsByBuilding = rooms.stream().collect(Collectors.groupingBy(
+      Room::getBuildingId,
+      LinkedHashMap::new,
+      Collectors.toUnmodifiableList()));
+    var roomsByParent = childrenByParent.entrySet().stream().collect(Collectors.toUnmodifiableMap(
+      Map.Entry::getKey,
+      entry -> entry.getValue().stream().map(child -> roomsById.get(child.id())).toList()));
+    var composableRoomIds = rows.stream()
+      .filter(row -> row.parentId() == null && !childrenByParent.containsKey(row.id()))
+      .map(RoomCatalogRow::id)
+      .collect(Collectors.toUnmodifiableSet());
+    var composableRooms = rooms.stream().filter(room -> composableRoomIds.contains(room.getId())).toList();
+    var buildingRoomsResponses = buildings.stream().collect(Collectors.toUnmodifiableMap(
+      Building::getId,
+      building -> new EncodedList<>(roomsByBuilding.getOrDefault(building.getId(), List.of()), objectMapper)));
+
+    var allRoomsResponse = new EncodedRoomsResponse(rooms, objectMapper);
+    var buildingsResponse = new EncodedBuildingsResponse(buildings, objectMapper);
+
+    return new CatalogSnapshot(
+      version,
+      contentTag(allRoomsResponse.encodedJson(), buildingsResponse.encodedJson()),
+      List.copyOf(rows),
+      List.copyOf(buildings),
+      roomsById,
+      Collections.unmodifiableMap(roomsByBuilding),
+      roomsByParent,
+      composableRoomIds,
+      allRoomsResponse,
+      new EncodedRoomsResponse(composableRooms, objectMapper),
+      buildingsResponse,
+      buildingRoomsResponses);
+  }
+
+  /**
+   * Derives the entity tag of a catalog from its encoded rooms and buildings, all other responses are built from them.
+   */
+  private static @NonNull String contentTag(@NonNull EncodedJson allRoomsJson, @NonNull EncodedJson buildingsJson) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(allRoomsJson.identity());
+      // json never contains a raw zero byte, it separates both documents unambiguously
+      digest.update((byte) 0);
+      digest.update(buildingsJson.identity());
+      return "catalog-" + HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("SHA-256 is not available", exception);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package dev.playo.room.catalog;
+
+import lombok.NonNull;
+
+/**
+ * A response body that carries its json, encoded when the {@link CatalogSnapshot} was built. The
+ * {@link EncodedBodyHttpMessageConverter} writes the encoded json instead of serializing the body again.
+ */
+public interface EncodedBody {
+
+  /**
+   * Get the encoded json of this body.
+   *
+   * @return the encoded json of this body.
+   */
+  @NonNull
+  EncodedJson encodedJson();
+}
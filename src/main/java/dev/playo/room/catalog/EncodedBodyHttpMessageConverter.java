@@ -0,0 +1,50 @@
+package dev.playo.room.catalog;
+
+import java.io.IOException;
+import lombok.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes an {@link EncodedBody} as its encoded json, gzip compressed if the response declares the gzip content
+ * encoding. Spring Boot registers this converter ahead of the json converter, which would serialize the body again.
+ */
+@Component
+public class EncodedBodyHttpMessageConverter extends AbstractHttpMessageConverter<EncodedBody> {
+
+  public EncodedBodyHttpMessageConverter() {
+    super(MediaType.APPLICATION_JSON);
+  }
+
+  @Override
+  protected boolean supports(@NonNull Class<?> clazz) {
+    return EncodedBody.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected @NonNull EncodedBody readInternal(
+    @NonNull Class<? extends EncodedBody> clazz,
+    @NonNull HttpInputMessage inputMessage
+  ) {
+    throw new HttpMessageNotReadableException("Encoded bodies are only written", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(@NonNull EncodedBody body, @NonNull HttpOutputMessage outputMessage)
+    throws IOException {
+    var contentEncoding = outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+    var json = body.encodedJson();
+    var gzip = CatalogResponses.GZIP_ENCODING.equals(contentEncoding);
+    outputMessage.getBody().write(gzip ? json.gzip() : json.identity());
+  }
+}
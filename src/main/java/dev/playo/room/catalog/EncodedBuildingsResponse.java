@@ -0,0 +1,25 @@
+package dev.playo.room.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.Building;
+import dev.playo.generated.roommanagement.model.GetAllBuildingsResponse;
+import java.util.List;
+import lombok.NonNull;
+
+/**
+ * A response containing the buildings of the catalog together with its encoded json.
+ */
+public final class EncodedBuildingsResponse extends GetAllBuildingsResponse implements EncodedBody {
+
+  private final EncodedJson encodedJson;
+
+  public EncodedBuildingsResponse(@NonNull List<Building> buildings, @NonNull ObjectMapper objectMapper) {
+    super(buildings);
+    this.encodedJson = EncodedJson.encode(objectMapper, new GetAllBuildingsResponse(buildings));
+  }
+
+  @Override
+  public @NonNull EncodedJson encodedJson() {
+    return this.encodedJson;
+  }
+}
@@ -0,0 +1,38 @@
+package dev.playo.room.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import lombok.NonNull;
+
+/**
+ * A response body that was serialized to json once and is served as is, both uncompressed and gzip compressed.
+ *
+ * @param identity the uncompressed json.
+ * @param gzip     the gzip compressed json.
+ */
+public record EncodedJson(byte[] identity, byte[] gzip) {
+
+  /**
+   * Serializes the given value to json and compresses the result.
+   *
+   * @param objectMapper the object mapper to serialize the value with.
+   * @param value        the value to serialize.
+   * @return the serialized value.
+   */
+  public static @NonNull EncodedJson encode(@NonNull ObjectMapper objectMapper, @NonNull Object value) {
+    try {
+      var identity = objectMapper.writeValueAsBytes(value);
+      var compressed = new ByteArrayOutputStream(identity.length / 4);
+      try (var gzipStream = new GZIPOutputStream(compressed)) {
+        gzipStream.write(identity);
+      }
+
+      return new EncodedJson(identity, compressed.toByteArray());
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
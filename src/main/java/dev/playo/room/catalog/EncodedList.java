@@ -0,0 +1,38 @@
+package dev.playo.room.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import lombok.NonNull;
+
+/**
+ * An unmodifiable list response together with its encoded json.
+ *
+ * @param <E> the type of the elements.
+ */
+public final class EncodedList<E> extends AbstractList<E> implements EncodedBody, RandomAccess {
+
+  private final List<E> elements;
+  private final EncodedJson encodedJson;
+
+  public EncodedList(@NonNull List<E> elements, @NonNull ObjectMapper objectMapper) {
+    this.elements = List.copyOf(elements);
+    this.encodedJson = EncodedJson.encode(objectMapper, this.elements);
+  }
+
+  @Override
+  public E get(int index) {
+    return this.elements.get(index);
+  }
+
+  @Override
+  public int size() {
+    return this.elements.size();
+  }
+
+  @Override
+  public @NonNull EncodedJson encodedJson() {
+    return this.encodedJson;
+  }
+}
@@ -0,0 +1,25 @@
+package dev.playo.room.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.GetAllRoomsResponse;
+import dev.playo.generated.roommanagement.model.Room;
+import java.util.List;
+import lombok.NonNull;
+
+/**
+ * A response containing rooms of the catalog together with its encoded json.
+ */
+public final class EncodedRoomsResponse extends GetAllRoomsResponse implements EncodedBody {
+
+  private final EncodedJson encodedJson;
+
+  public EncodedRoomsResponse(@NonNull List<Room> rooms, @NonNull ObjectMapper objectMapper) {
+    super(rooms);
+    this.encodedJson = EncodedJson.encode(objectMapper, new GetAllRoomsResponse(rooms));
+  }
+
+  @Override
+  public @NonNull EncodedJson encodedJson() {
+    return this.encodedJson;
+  }
+}
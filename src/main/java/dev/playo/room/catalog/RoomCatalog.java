@@ -0,0 +1,154 @@
+package dev.playo.room.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.Building;
+import dev.playo.room.building.data.BuildingEntity;
+import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.notification.ChangeListener;
+import dev.playo.room.notification.ChangeNotifications;
+import dev.playo.room.room.data.RoomCatalogRow;
+import dev.playo.room.room.data.RoomRepository;
+import dev.playo.room.util.TransactionHooks;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory copy of the room and building catalog. The catalog is held as an immutable {@link CatalogSnapshot} that
+ * contains the lookups of the rooms and the encoded responses of the list endpoints; readers get the current snapshot
+ * without any locking. Every change to a room or a building builds a new snapshot from the database once its
+ * transaction committed and swaps it in atomically. Rebuilds are serialized, so that a rebuild which read an older
+ * state of the database can never replace the snapshot of a newer one.
+ * <p>
+ * Every change is also published to the other replicas of the application through the {@link ChangeNotifications},
+ * they rebuild their catalog once the change committed. The catalog is additionally rebuilt whenever notifications
+ * might have been missed and periodically, as a last resort for changes whose notification was lost. A rebuild that
+ * finds the same catalog as the current snapshot keeps it, so the version only increases on changes.
+ * The entity tag of a snapshot is derived from its content, so all replicas send the same tag for the same catalog and
+ * a client switching between replicas or reconnecting after a restart still gets a not modified response.
+ */
+@Slf4j
+@Component
+public class RoomCatalog {
+
+  private static final String CHANGES_TOPIC = "room-catalog";
+
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+  private final RoomRepository roomRepository;
+  private final BuildingRepository buildingRepository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final ChangeNotifications changeNotifications;
+
+  private volatile CatalogSnapshot snapshot;
+
+  @Autowired
+  public RoomCatalog(
+    @NonNull RoomRepository roomRepository,
+    @NonNull BuildingRepository buildingRepository,
+    @NonNull ObjectMapper objectMapper,
+    @NonNull TransactionTemplate transactionTemplate,
+    @NonNull ChangeNotifications changeNotifications
+  ) {
+    this.roomRepository = roomRepository;
+    this.buildingRepository = buildingRepository;
+    this.objectMapper = objectMapper;
+
+    // rebuilds run after the commit of a change, they must not join the transaction that already completed
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    this.changeNotifications = changeNotifications;
+    changeNotifications.subscribe(CHANGES_TOPIC, new ChangeListener() {
+      @Override
+      public void changed(@NonNull String payload) {
+        RoomCatalog.this.rebuildQuietly();
+      }
+
+      @Override
+      public void missedChanges() {
+        RoomCatalog.this.rebuildQuietly();
+      }
+    });
+  }
+
+  /**
+   * Get the current snapshot of the catalog, the catalog is loaded if this is the first access.
+   *
+   * @return the current snapshot of the catalog.
+   */
+  public @NonNull CatalogSnapshot snapshot() {
+    var current = this.snapshot;
+    return current != null ? current : this.rebuild();
+  }
+
+  /**
+   * Rebuilds the catalog of this and of all other replicas once the current transaction committed, or immediately if
+   * there is no active transaction. The snapshot must not be rebuilt before the change is visible, otherwise it would
+   * be rebuilt from the old catalog.
+   */
+  public void changed() {
+    this.changeNotifications.publish(CHANGES_TOPIC, "");
+    TransactionHooks.afterCommit(this::rebuildQuietly);
+  }
+
+  /**
+   * Periodically rebuilds the catalog, to include changes of other replicas whose notification was lost.
+   */
+  @Scheduled(
+    initialDelayString = "${room.catalog.refresh-millis:60000}",
+    fixedDelayString = "${room.catalog.refresh-millis:60000}")
+  public void refresh() {
+    this.rebuild();
+  }
+
+  /**
+   * Loads the catalog from the database and replaces the current snapshot if the catalog changed.
+   *
+   * @return the snapshot of the loaded catalog.
+   */
+  public @NonNull CatalogSnapshot rebuild() {
+    this.rebuildLock.lock();
+    try {
+      var loaded = this.readOnlyTransactionTemplate.execute(_ -> new CatalogContent(
+        this.roomRepository.findCatalogRows(),
+        this.buildingRepository.findAll(Sort.by("id")).stream().map(BuildingEntity::toBuildingDto).toList()));
+      var rows = loaded.rows();
+      var buildings = loaded.buildings();
+      var current = this.snapshot;
+      if (current != null && current.rows().equals(rows) && current.buildings().equals(buildings)) {
+        return current;
+      }
+
+      var version = current == null ? 1 : current.version() + 1;
+      var rebuilt = CatalogSnapshot.build(version, rows, buildings, this.objectMapper);
+      this.snapshot = rebuilt;
+      log.debug("Rebuilt room catalog version {} with {} rooms", version, rows.size());
+      return rebuilt;
+    } finally {
+      this.rebuildLock.unlock();
+    }
+  }
+
+  /**
+   * Rebuilds the catalog for a change that is committed already, a failed rebuild is picked up by the periodic refresh.
+   */
+  private void rebuildQuietly() {
+    try {
+      this.rebuild();
+    } catch (RuntimeException exception) {
+      log.warn("Unable to rebuild the room catalog after a change", exception);
+    }
+  }
+
+  private record CatalogContent(@NonNull List<RoomCatalogRow> rows, @NonNull List<Building> buildings) {
+  }
+}
@@ -2,6 +2,7 @@ package dev.playo.room.exception;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.util.Map;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
@@ -13,11 +14,28 @@ public class GeneralProblemException extends RuntimeException {
 
   private final HttpStatus status;
   private final String description;
+  private final Map<String, Object> properties;
 
   public GeneralProblemException(@Nonnull HttpStatus status, @Nonnull String description) {
+    this(status, description, Map.of());
+  }
+
+  /**
+   * Constructs a new problem exception that adds the given properties to the problem detail.
+   *
+   * @param status      the status of the problem.
+   * @param description the description of the problem.
+   * @param properties  additional properties of the problem detail, for example the entries that caused the problem.
+   */
+  public GeneralProblemException(
+    @Nonnull HttpStatus status,
+    @Nonnull String description,
+    @Nonnull Map<String, Object> properties
+  ) {
     super(description);
     this.status = status;
     this.description = description;
+    this.properties = properties;
   }
 
   @Override
@@ -197,6 +197,7 @@ public class GlobalExceptionHandler {
     var problemDetail = this.buildBaseProblemDetail(request, exception.getStatus());
     problemDetail.setTitle(exception.getStatus().getReasonPhrase());
     problemDetail.setDetail(exception.getDescription());
+    exception.getProperties().forEach(problemDetail::setProperty);
     return problemDetail;
   }
 
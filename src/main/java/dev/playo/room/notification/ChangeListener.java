@@ -0,0 +1,22 @@
+package dev.playo.room.notification;
+
+import lombok.NonNull;
+
+/**
+ * Receives the changes that other replicas of the application published on a topic of the {@link ChangeNotifications}.
+ */
+public interface ChangeListener {
+
+  /**
+   * Called for every change another replica published on the subscribed topic, after the change was committed.
+   *
+   * @param payload the payload of the change.
+   */
+  void changed(@NonNull String payload);
+
+  /**
+   * Called after the connection that receives the changes was lost and established again. Changes that were
+   * published in the meantime were not received, so everything derived from the changed data must be refreshed.
+   */
+  void missedChanges();
+}
@@ -0,0 +1,157 @@
+package dev.playo.room.notification;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propagates changes between the replicas of the application using Postgres {@code LISTEN}/{@code NOTIFY}. A change
+ * is published in the transaction that made it, Postgres delivers it to the other replicas once that transaction
+ * committed and drops it if the transaction rolled back. Changes published by this replica are not delivered back to
+ * it, the publisher handles its own changes after the commit.
+ * <p>
+ * Every replica listens on a dedicated connection taken from the pool for its whole lifetime. If that connection is
+ * lost, changes published until it is established again are lost as well; the listeners are told so once the
+ * connection is back.
+ */
+@Slf4j
+@Component
+public class ChangeNotifications implements SmartLifecycle {
+
+  private static final String CHANNEL = "room_changes";
+  private static final char SEPARATOR = '|';
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final Map<String, ChangeListener> listeners = new ConcurrentHashMap<>();
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private final int pollMillis;
+  private final long reconnectMillis;
+
+  private volatile boolean running;
+  private Thread listenerThread;
+
+  @Autowired
+  public ChangeNotifications(
+    @NonNull DataSource dataSource,
+    @NonNull JdbcTemplate jdbcTemplate,
+    @Value("${room.notifications.poll-millis:500}") int pollMillis,
+    @Value("${room.notifications.reconnect-millis:5000}") long reconnectMillis
+  ) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = jdbcTemplate;
+    this.pollMillis = pollMillis;
+    this.reconnectMillis = reconnectMillis;
+  }
+
+  /**
+   * Registers the listener of the given topic, there is exactly one listener per topic.
+   *
+   * @param topic    the topic to listen to.
+   * @param listener the listener to call for the changes of the topic.
+   */
+  public void subscribe(@NonNull String topic, @NonNull ChangeListener listener) {
+    this.listeners.put(topic, listener);
+  }
+
+  /**
+   * Publishes a change on the given topic to the other replicas. The change is delivered once the current transaction
+   * committed, or immediately if there is no active transaction.
+   *
+   * @param topic   the topic to publish the change on.
+   * @param payload the payload of the change, at most a few kilobytes.
+   */
+  public void publish(@NonNull String topic, @NonNull String payload) {
+    var notification = this.instanceId + SEPARATOR + topic + SEPARATOR + payload;
+    this.jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, notification);
+  }
+
+  @Override
+  public void start() {
+    this.running = true;
+    this.listenerThread = Thread.ofPlatform().daemon().name("change-notifications").start(this::listen);
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+    this.listenerThread.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Receives the changes of the other replicas until this component is stopped, the connection is established again
+   * whenever it is lost.
+   */
+  private void listen() {
+    var connectedBefore = false;
+    while (this.running) {
+      try (var connection = this.dataSource.getConnection()) {
+        try (var statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+
+        if (connectedBefore) {
+          log.info("Listening to changes of other replicas again");
+          this.listeners.values().forEach(ChangeListener::missedChanges);
+        }
+
+        connectedBefore = true;
+        var pgConnection = connection.unwrap(PGConnection.class);
+        while (this.running) {
+          var notifications = pgConnection.getNotifications(this.pollMillis);
+          if (notifications != null) {
+            for (var notification : notifications) {
+              this.dispatch(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException exception) {
+        if (!this.running) {
+          return;
+        }
+
+        log.warn("Lost the connection listening to changes of other replicas, reconnecting", exception);
+        try {
+          Thread.sleep(Duration.ofMillis(this.reconnectMillis));
+        } catch (InterruptedException _) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void dispatch(@NonNull String notification) {
+    var topicStart = notification.indexOf(SEPARATOR);
+    var payloadStart = notification.indexOf(SEPARATOR, topicStart + 1);
+    if (topicStart < 0 || payloadStart < 0 || notification.startsWith(this.instanceId + SEPARATOR)) {
+      return;
+    }
+
+    var listener = this.listeners.get(notification.substring(topicStart + 1, payloadStart));
+    if (listener == null) {
+      return;
+    }
+
+    try {
+      listener.changed(notification.substring(payloadStart + 1));
+    } catch (RuntimeException exception) {
+      log.warn("Unable to handle the change notification {}", notification, exception);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package dev.playo.room.occupancy;
+
+import dev.playo.generated.roommanagement.api.OccupancyApi;
+import dev.playo.generated.roommanagement.model.BuildingOccupancyResponse;
+import dev.playo.generated.roommanagement.model.RoomOccupancy;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RestController;
+
+@CrossOrigin
+@RestController
+public class OccupancyController implements OccupancyApi {
+
+  private final OccupancyService occupancyService;
+
+  @Autowired
+  public OccupancyController(@NonNull OccupancyService occupancyService) {
+    this.occupancyService = occupancyService;
+  }
+
+  @Override
+  public ResponseEntity<BuildingOccupancyResponse> getBuildingOccupancy(LocalDate from, LocalDate to) {
+    return ResponseEntity.ok(this.occupancyService.buildingOccupancy(from, to));
+  }
+
+  @Override
+  public ResponseEntity<RoomOccupancy> getRoomOccupancy(UUID roomId, LocalDate from, LocalDate to) {
+    return ResponseEntity.ok(this.occupancyService.roomOccupancy(roomId, from, to));
+  }
+}
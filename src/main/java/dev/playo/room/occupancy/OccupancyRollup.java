@@ -0,0 +1,134 @@
+package dev.playo.room.occupancy;
+
+import static dev.playo.room.util.DateTimeNormalizer.toTimestampArrayLiteral;
+
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.occupancy.data.RoomOccupancyRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains the hourly occupancy rollups of the rooms. Every booking adds its minutes to the hours it spans in the
+ * room that was booked, a cancelled booking removes them again. The rollups are written in the transaction of the
+ * booking, so they never disagree with the committed bookings.
+ * <p>
+ * Bookings are only counted for the booked room and not for the rooms it allocates, otherwise a booking of a composite
+ * room would be counted once for the composite room and once for each of its parts. Removing ended bookings keeps
+ * their minutes, they did take place; the rollups themselves are removed once they are older than the retention.
+ */
+@Slf4j
+@Component
+public class OccupancyRollup {
+
+  private final RoomOccupancyRepository occupancyRepository;
+  private final Duration retention;
+
+  @Autowired
+  public OccupancyRollup(
+    @NonNull RoomOccupancyRepository occupancyRepository,
+    @Value("${room.occupancy.retention-days:1095}") long retentionDays
+  ) {
+    this.occupancyRepository = occupancyRepository;
+    this.retention = Duration.ofDays(retentionDays);
+  }
+
+  /**
+   * Splits the given time range into the hours it spans, hours start at full hours in UTC. Hours in which less than a
+   * full minute is booked are left out.
+   *
+   * @param startTime the inclusive start of the time range.
+   * @param endTime   the exclusive end of the time range.
+   * @return the booked minutes by the start of the hour, in ascending order.
+   */
+  public static @NonNull Map<Instant, Integer> hourlyMinutes(@NonNull Instant startTime, @NonNull Instant endTime) {
+    Map<Instant, Integer> minutes = new LinkedHashMap<>();
+    var hour = startTime.truncatedTo(ChronoUnit.HOURS);
+    while (hour.isBefore(endTime)) {
+      var nextHour = hour.plus(1, ChronoUnit.HOURS);
+      var from = startTime.isAfter(hour) ? startTime : hour;
+      var to = endTime.isBefore(nextHour) ? endTime : nextHour;
+      var bookedMinutes = (int) Duration.between(from, to).toMinutes();
+      if (bookedMinutes > 0) {
+        minutes.put(hour, bookedMinutes);
+      }
+
+      hour = nextHour;
+    }
+
+    return minutes;
+  }
+
+  /**
+   * Adds the minutes of the given bookings to the rollups of their rooms, must be called in the transaction that
+   * persisted the bookings.
+   *
+   * @param bookings the created bookings.
+   */
+  public void bookingsCreated(@NonNull Collection<BookingEntity> bookings) {
+    this.addMinutes(bookings, 1);
+  }
+
+  /**
+   * Removes the minutes of the given booking from the rollups of its room, must be called in the transaction that
+   * deleted the booking.
+   *
+   * @param booking the cancelled booking.
+   */
+  public void bookingCancelled(@NonNull BookingEntity booking) {
+    this.addMinutes(List.of(booking), -1);
+    this.occupancyRepository.deleteEmptyHours(
+      booking.getRoom().getId(),
+      booking.getStartTime().truncatedTo(ChronoUnit.HOURS),
+      booking.getEndTime());
+  }
+
+  /**
+   * Removes the rollups of all hours that are older than the retention.
+   *
+   * @param now the current point in time.
+   */
+  public void pruneExpired(@NonNull Instant now) {
+    var count = this.occupancyRepository.deleteAllBefore(now.minus(this.retention));
+    if (count > 0) {
+      log.info("Pruned {} expired occupancy rollups", count);
+    }
+  }
+
+  private void addMinutes(@NonNull Collection<BookingEntity> bookings, int sign) {
+    // two bookings of a room can share an hour, the rows of one statement must be distinct
+    Map<RoomHour, Integer> deltas = new LinkedHashMap<>();
+    for (var booking : bookings) {
+      var roomId = booking.getRoom().getId();
+      hourlyMinutes(booking.getStartTime(), booking.getEndTime()).forEach(
+        (hour, minutes) -> deltas.merge(new RoomHour(roomId, hour), sign * minutes, Integer::sum));
+    }
+
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    this.occupancyRepository.addMinutes(
+      deltas.keySet().stream().map(key -> key.roomId().toString()).collect(Collectors.joining(",", "{", "}")),
+      toTimestampArrayLiteral(deltas.keySet().stream().map(RoomHour::hourStart).toList()),
+      deltas.values().stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")));
+  }
+
+  /**
+   * Identifies the rollup of a room in one hour.
+   */
+  private record RoomHour(@NonNull UUID roomId, @NonNull Instant hourStart) {
+
+  }
+}
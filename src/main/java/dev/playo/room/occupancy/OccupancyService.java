@@ -0,0 +1,162 @@
+package dev.playo.room.occupancy;
+
+import static dev.playo.room.util.DateTimeNormalizer.startOfDay;
+
+import dev.playo.generated.roommanagement.model.BuildingOccupancy;
+import dev.playo.generated.roommanagement.model.BuildingOccupancyResponse;
+import dev.playo.generated.roommanagement.model.DayOccupancy;
+import dev.playo.generated.roommanagement.model.HourOfWeekOccupancy;
+import dev.playo.generated.roommanagement.model.RoomOccupancy;
+import dev.playo.room.catalog.RoomCatalog;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.occupancy.data.RoomOccupancyRepository;
+import dev.playo.room.room.data.RoomRepository;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers occupancy queries from the hourly rollups maintained by the {@link OccupancyRollup}. A query reads at most
+ * one row per room and hour of the requested days, independent of the amount of bookings in that time.
+ * <p>
+ * The rollups use hours in UTC, which map to exactly one local hour as all offsets of the default time zone are full
+ * hours.
+ */
+@Service
+public class OccupancyService {
+
+  private static final int MAX_DAYS = 366;
+  private static final int HOURS_PER_WEEK = 7 * 24;
+
+  private final RoomOccupancyRepository occupancyRepository;
+  private final RoomCatalog roomCatalog;
+  private final RoomRepository roomRepository;
+
+  @Autowired
+  public OccupancyService(
+    @NonNull RoomOccupancyRepository occupancyRepository,
+    @NonNull RoomCatalog roomCatalog,
+    @NonNull RoomRepository roomRepository
+  ) {
+    this.occupancyRepository = occupancyRepository;
+    this.roomCatalog = roomCatalog;
+    this.roomRepository = roomRepository;
+  }
+
+  private static int hourOfWeek(@NonNull Instant instant) {
+    var dateTime = instant.atZone(ZoneId.systemDefault());
+    return (dateTime.getDayOfWeek().getValue() - 1) * 24 + dateTime.getHour();
+  }
+
+  /**
+   * Ensures that the given days are in order and span at most {@link #MAX_DAYS} days.
+   *
+   * @param from the first day.
+   * @param to   the last day.
+   * @throws GeneralProblemException if the days are not in order or span too many days.
+   */
+  private static void validateDays(@NonNull LocalDate from, @NonNull LocalDate to) {
+    if (from.isAfter(to)) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST, "The first day must not be after the last day.");
+    }
+
+    if (ChronoUnit.DAYS.between(from, to) > MAX_DAYS) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "The last day must be at most %d days after the first day.".formatted(MAX_DAYS));
+    }
+  }
+
+  /**
+   * Get the occupancy of the given room by hour of the week, summed up over the given days.
+   *
+   * @param roomId the id of the room.
+   * @param from   the first day.
+   * @param to     the last day, inclusive.
+   * @return the occupancy of all hours of the week, starting with Monday 00:00.
+   * @throws GeneralProblemException if the days are invalid or the room does not exist.
+   */
+  public @NonNull RoomOccupancy roomOccupancy(@NonNull UUID roomId, @NonNull LocalDate from, @NonNull LocalDate to) {
+    validateDays(from, to);
+    // a room created through another replica might not be part of the catalog snapshot yet
+    var knownRoom = this.roomCatalog.snapshot().roomsById().containsKey(roomId)
+      || this.roomRepository.existsById(roomId);
+    if (!knownRoom) {
+      throw new GeneralProblemException(HttpStatus.NOT_FOUND, "Room with ID %s does not exist.".formatted(roomId));
+    }
+
+    var startTime = startOfDay(from);
+    var endTime = startOfDay(to.plusDays(1));
+
+    // the amount of each hour of the week in the days, days with a daylight saving time change have 23 or 25 hours
+    var hourCounts = new long[HOURS_PER_WEEK];
+    for (var hour = startTime; hour.isBefore(endTime); hour = hour.plus(1, ChronoUnit.HOURS)) {
+      hourCounts[hourOfWeek(hour)]++;
+    }
+
+    var occupiedMinutes = new long[HOURS_PER_WEEK];
+    for (var bucket : this.occupancyRepository.findRoomBuckets(roomId, startTime, endTime)) {
+      occupiedMinutes[hourOfWeek(bucket.hourStart())] += bucket.occupiedMinutes();
+    }
+
+    List<HourOfWeekOccupancy> hours = new ArrayList<>(HOURS_PER_WEEK);
+    for (var index = 0; index < HOURS_PER_WEEK; index++) {
+      var availableMinutes = hourCounts[index] * 60;
+      hours.add(new HourOfWeekOccupancy()
+        .dayOfWeek(index / 24 + 1)
+        .hour(index % 24)
+        .occupiedMinutes(occupiedMinutes[index])
+        .utilisation(availableMinutes == 0 ? 0 : (double) occupiedMinutes[index] / availableMinutes));
+    }
+
+    return new RoomOccupancy().roomId(roomId).from(from).to(to).hours(hours);
+  }
+
+  /**
+   * Get the occupancy of the rooms of every building on each of the given days.
+   *
+   * @param from the first day.
+   * @param to   the last day, inclusive.
+   * @return the occupancy of every building on every day, buildings without bookings included.
+   * @throws GeneralProblemException if the days are invalid.
+   */
+  public @NonNull BuildingOccupancyResponse buildingOccupancy(@NonNull LocalDate from, @NonNull LocalDate to) {
+    validateDays(from, to);
+    var dayCount = (int) ChronoUnit.DAYS.between(from, to) + 1;
+
+    Map<UUID, long[]> minutesByBuilding = new LinkedHashMap<>();
+    for (var building : this.roomCatalog.snapshot().buildings()) {
+      minutesByBuilding.put(building.getId(), new long[dayCount]);
+    }
+
+    var buckets = this.occupancyRepository.findBuildingBuckets(startOfDay(from), startOfDay(to.plusDays(1)));
+    for (var bucket : buckets) {
+      var day = LocalDate.ofInstant(bucket.hourStart(), ZoneId.systemDefault());
+      // a building created after the catalog snapshot is still part of the response
+      var minutes = minutesByBuilding.computeIfAbsent(bucket.ownerId(), _ -> new long[dayCount]);
+      minutes[(int) ChronoUnit.DAYS.between(from, day)] += bucket.occupiedMinutes();
+    }
+
+    List<BuildingOccupancy> buildings = new ArrayList<>(minutesByBuilding.size());
+    minutesByBuilding.forEach((buildingId, minutes) -> {
+      List<DayOccupancy> days = new ArrayList<>(dayCount);
+      for (var index = 0; index < dayCount; index++) {
+        days.add(new DayOccupancy().date(from.plusDays(index)).occupiedMinutes(minutes[index]));
+      }
+
+      buildings.add(new BuildingOccupancy().buildingId(buildingId).days(days));
+    });
+
+    return new BuildingOccupancyResponse().from(from).to(to).buildings(buildings);
+  }
+}
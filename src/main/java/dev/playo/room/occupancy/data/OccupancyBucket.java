@@ -0,0 +1,16 @@
+package dev.playo.room.occupancy.data;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.NonNull;
+
+/**
+ * Flat, read-only view of the minutes a room or all rooms of a building were booked in one hour.
+ *
+ * @param ownerId         the id of the room or building the minutes belong to.
+ * @param hourStart       the start of the hour.
+ * @param occupiedMinutes the booked minutes in the hour.
+ */
+public record OccupancyBucket(@NonNull UUID ownerId, @NonNull Instant hourStart, long occupiedMinutes) {
+
+}
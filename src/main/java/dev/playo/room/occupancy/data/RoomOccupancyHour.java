@@ -0,0 +1,34 @@
+package dev.playo.room.occupancy.data;
+
+import dev.playo.room.room.data.RoomEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * The minutes a room was booked in one hour, the hours start at full hours in UTC. The rows are maintained by the
+ * {@link dev.playo.room.occupancy.OccupancyRollup} and only read through this entity.
+ */
+@Data
+@Entity
+@ToString
+@Table(name = "room_occupancy_hours")
+public class RoomOccupancyHour {
+
+  @EmbeddedId
+  private RoomOccupancyHourId id;
+
+  @ToString.Exclude
+  @MapsId("roomId")
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  private RoomEntity room;
+
+  @Column(nullable = false)
+  private short occupiedMinutes;
+}
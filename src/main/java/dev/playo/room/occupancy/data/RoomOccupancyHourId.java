@@ -0,0 +1,20 @@
+package dev.playo.room.occupancy.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Data;
+import lombok.ToString;
+
+@Data
+@ToString
+@Embeddable
+public class RoomOccupancyHourId {
+
+  @Column(name = "room_id")
+  private UUID roomId;
+
+  @Column(name = "hour_start")
+  private Instant hourStart;
+}
@@ -0,0 +1,72 @@
+package dev.playo.room.occupancy.data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import lombok.NonNull;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RoomOccupancyRepository extends JpaRepository<RoomOccupancyHour, RoomOccupancyHourId> {
+
+  /**
+   * Adds the given minutes to the hours of the given rooms, hours without a row yet are inserted. The changes are
+   * passed as three array literals of the same length, which must not contain the same hour of a room twice. The rows
+   * are written in the order of their key, so that concurrent writers lock them in the same order.
+   *
+   * @param roomIds    the ids of the rooms, formatted as {@code uuid[]} literal.
+   * @param hourStarts the starts of the hours, formatted as {@code timestamptz[]} literal.
+   * @param minutes    the minutes to add to the hours, negative to remove minutes, formatted as {@code smallint[]}.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = """
+    INSERT INTO room_occupancy_hours (room_id, hour_start, occupied_minutes)
+    SELECT delta.room_id, delta.hour_start, delta.minutes
+    FROM unnest(CAST(:roomIds AS uuid[]), CAST(:hourStarts AS timestamptz[]), CAST(:minutes AS smallint[]))
+         AS delta(room_id, hour_start, minutes)
+    ORDER BY delta.room_id, delta.hour_start
+    ON CONFLICT (room_id, hour_start) DO UPDATE
+      SET occupied_minutes = room_occupancy_hours.occupied_minutes + excluded.occupied_minutes
+    """)
+  void addMinutes(@NonNull String roomIds, @NonNull String hourStarts, @NonNull String minutes);
+
+  /**
+   * Removes the hours of the given room in the given time range that have no booked minutes left.
+   */
+  @Modifying
+  @Query("""
+    DELETE FROM RoomOccupancyHour hour
+    WHERE hour.id.roomId = :roomId
+      AND hour.id.hourStart >= :startTime
+      AND hour.id.hourStart < :endTime
+      AND hour.occupiedMinutes <= 0
+    """)
+  int deleteEmptyHours(@NonNull UUID roomId, @NonNull Instant startTime, @NonNull Instant endTime);
+
+  @Modifying
+  @Query("DELETE FROM RoomOccupancyHour hour WHERE hour.id.hourStart < :hourStart")
+  int deleteAllBefore(@NonNull Instant hourStart);
+
+  @Query("""
+    SELECT new dev.playo.room.occupancy.data.OccupancyBucket(
+      hour.id.roomId, hour.id.hourStart, CAST(hour.occupiedMinutes AS Long))
+    FROM RoomOccupancyHour hour
+    WHERE hour.id.roomId = :roomId
+      AND hour.id.hourStart >= :startTime
+      AND hour.id.hourStart < :endTime
+    """)
+  List<OccupancyBucket> findRoomBuckets(@NonNull UUID roomId, @NonNull Instant startTime, @NonNull Instant endTime);
+
+  @Query("""
+    SELECT new dev.playo.room.occupancy.data.OccupancyBucket(
+      hour.room.building.id, hour.id.hourStart, SUM(CAST(hour.occupiedMinutes AS Long)))
+    FROM RoomOccupancyHour hour
+    WHERE hour.id.hourStart >= :startTime
+      AND hour.id.hourStart < :endTime
+    GROUP BY hour.room.building.id, hour.id.hourStart
+    """)
+  List<OccupancyBucket> findBuildingBuckets(@NonNull Instant startTime, @NonNull Instant endTime);
+}
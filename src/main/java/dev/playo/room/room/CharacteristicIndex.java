@@ -0,0 +1,376 @@
+package dev.playo.room.room;
+
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.room.data.RoomRepository;
+import dev.playo.room.util.TransactionHooks;
+import jakarta.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted in-memory index over the characteristics of all rooms. Every room gets a dense ordinal, and for every
+ * characteristic type the index holds one bitset per value as well as a sorted map of bitsets for integer values (like
+ * SEATS), so that multi-predicate inquiries are reduced to bitset AND / OR / ANDNOT operations. The index is updated
+ * incrementally by the room write paths after their transaction committed and reloaded periodically to pick up changes
+ * made by other replicas. Changes that commit while a reload reads the rooms are recorded and applied again once the
+ * index was rebuilt, as the rooms read by the reload might not contain them yet.
+ */
+@Slf4j
+@Component
+public class CharacteristicIndex {
+
+  private final boolean enabled;
+  private final RoomRepository roomRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final BitSet liveRooms = new BitSet();
+  private final List<UUID> roomIdsByOrdinal = new ArrayList<>();
+  private final Map<UUID, Integer> ordinalsByRoomId = new HashMap<>();
+  private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+  private final Map<Integer, List<Characteristic>> indexedCharacteristics = new HashMap<>();
+  private final Map<String, TypeIndex> typeIndexes = new HashMap<>();
+  // guarded by the write lock, only set while a reload reads the rooms
+  private @Nullable List<Runnable> changesDuringReload;
+
+  private volatile boolean ready;
+
+  @Autowired
+  public CharacteristicIndex(
+    @Value("${room.characteristics.index-enabled:true}") boolean enabled,
+    @NonNull RoomRepository roomRepository
+  ) {
+    this.enabled = enabled;
+    this.roomRepository = roomRepository;
+  }
+
+  /**
+   * Get the textual representation of the given value, matching the output of the {@code ->>} operator in postgres.
+   *
+   * @param value the value to get the textual representation of.
+   * @return the textual representation of the given value, null if the value cannot be compared as text.
+   */
+  private static @Nullable String textValue(@Nullable Object value) {
+    return switch (value) {
+      case Boolean _, Number _, String _ -> String.valueOf(value);
+      case null, default -> null;
+    };
+  }
+
+  /**
+   * Get if the index is enabled and was loaded at least once, meaning that it can be used to answer queries.
+   *
+   * @return true if the index can be queried, false if callers need to fall back to the database.
+   */
+  public boolean isAvailable() {
+    return this.enabled && this.ready;
+  }
+
+  /**
+   * Resolves the ids of all rooms that match every given search characteristic and are not part of the excluded rooms.
+   *
+   * @param characteristics the characteristics that all returned rooms must match, null or empty to match all rooms.
+   * @param excludedRoomIds the ids of the rooms to exclude from the result.
+   * @return the ids of all rooms that match the given characteristics.
+   * @throws GeneralProblemException if an operator is not supported for the value it is applied on.
+   */
+  public @NonNull Set<UUID> matchingRooms(
+    @Nullable List<SearchCharacteristic> characteristics,
+    @NonNull Collection<UUID> excludedRoomIds
+  ) {
+    this.lock.readLock().lock();
+    try {
+      var matches = (BitSet) this.liveRooms.clone();
+      if (characteristics != null) {
+        for (var characteristic : characteristics) {
+          matches.and(this.roomsMatching(characteristic));
+          if (matches.isEmpty()) {
+            break;
+          }
+        }
+      }
+
+      for (var excludedRoomId : excludedRoomIds) {
+        var ordinal = this.ordinalsByRoomId.get(excludedRoomId);
+        if (ordinal != null) {
+          matches.clear(ordinal);
+        }
+      }
+
+      Set<UUID> roomIds = new HashSet<>(matches.cardinality());
+      matches.stream().forEach(ordinal -> roomIds.add(this.roomIdsByOrdinal.get(ordinal)));
+      return roomIds;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Adds or replaces the characteristics of the given room once the current transaction committed.
+   *
+   * @param roomId          the id of the room to index.
+   * @param characteristics the characteristics of the room.
+   */
+  public void putRoom(@NonNull UUID roomId, @NonNull List<Characteristic> characteristics) {
+    var snapshot = List.copyOf(characteristics);
+    TransactionHooks.afterCommit(() -> this.apply(() -> {
+      this.unindexRoom(roomId);
+      this.indexRoom(roomId, snapshot);
+    }));
+  }
+
+  /**
+   * Removes the given room from the index once the current transaction committed.
+   *
+   * @param roomId the id of the room to remove.
+   */
+  public void removeRoom(@NonNull UUID roomId) {
+    TransactionHooks.afterCommit(() -> this.apply(() -> this.unindexRoom(roomId)));
+  }
+
+  /**
+   * Applies the given change to the index and records it for the reload that is in progress, if any.
+   */
+  private void apply(@NonNull Runnable change) {
+    this.lock.writeLock().lock();
+    try {
+      change.run();
+      if (this.changesDuringReload != null) {
+        this.changesDuringReload.add(change);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Loads the full index from the database as soon as the application is ready to serve requests.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    this.reload();
+  }
+
+  /**
+   * Periodically rebuilds the full index from the database, to include changes that were made by other replicas of the
+   * application.
+   */
+  @Scheduled(
+    initialDelayString = "${room.characteristics.refresh-millis:60000}",
+    fixedDelayString = "${room.characteristics.refresh-millis:60000}")
+  public synchronized void reload() {
+    if (!this.enabled) {
+      return;
+    }
+
+    this.lock.writeLock().lock();
+    try {
+      this.changesDuringReload = new ArrayList<>();
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+
+    try {
+      this.load();
+    } finally {
+      this.lock.writeLock().lock();
+      try {
+        this.changesDuringReload = null;
+      } finally {
+        this.lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private void load() {
+    var rooms = this.roomRepository.findAll();
+    this.lock.writeLock().lock();
+    try {
+      this.liveRooms.clear();
+      this.roomIdsByOrdinal.clear();
+      this.ordinalsByRoomId.clear();
+      this.freeOrdinals.clear();
+      this.indexedCharacteristics.clear();
+      this.typeIndexes.clear();
+      for (var room : rooms) {
+        this.indexRoom(room.getId(), List.copyOf(room.getCharacteristics()));
+      }
+
+      // every change replaces the state of its room, a change already contained in the read rooms has no effect
+      for (var change : this.changesDuringReload) {
+        change.run();
+      }
+
+      this.ready = true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+
+    log.debug("Loaded characteristic index for {} rooms", rooms.size());
+  }
+
+  private @NonNull BitSet roomsMatching(@NonNull SearchCharacteristic characteristic) {
+    var value = characteristic.getValue();
+    var operator = characteristic.getOperator();
+    if (value instanceof Map<?, ?>) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "Complex objects are not supported as characteristic values.");
+    }
+
+    var rangeOperator = switch (operator) {
+      case EQUALS, NOT_EQUALS -> false;
+      case GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL -> true;
+    };
+    if (rangeOperator && !(value instanceof Integer)) {
+      throw new GeneralProblemException(
+        HttpStatus.BAD_REQUEST,
+        "Operator %s is not supported for value type %s.".formatted(
+          operator,
+          value == null ? "null" : value.getClass().getSimpleName()));
+    }
+
+    var typeIndex = this.typeIndexes.get(characteristic.getType());
+    if (typeIndex == null) {
+      return new BitSet();
+    }
+
+    if (value == null) {
+      return typeIndex.nullValues;
+    }
+
+    var result = new BitSet();
+    var text = textValue(value);
+    switch (operator) {
+      case EQUALS -> {
+        var rooms = typeIndex.byTextValue.get(text);
+        if (rooms != null) {
+          result.or(rooms);
+        }
+      }
+      case NOT_EQUALS -> typeIndex.byTextValue.forEach((otherText, rooms) -> {
+        if (!otherText.equals(text)) {
+          result.or(rooms);
+        }
+      });
+      case GREATER_THAN -> typeIndex.byIntValue.tailMap((Integer) value, false).values().forEach(result::or);
+      case GREATER_THAN_OR_EQUAL -> typeIndex.byIntValue.tailMap((Integer) value, true).values().forEach(result::or);
+      case LESS_THAN -> typeIndex.byIntValue.headMap((Integer) value, false).values().forEach(result::or);
+      case LESS_THAN_OR_EQUAL -> typeIndex.byIntValue.headMap((Integer) value, true).values().forEach(result::or);
+    }
+
+    return result;
+  }
+
+  private void indexRoom(@NonNull UUID roomId, @NonNull List<Characteristic> characteristics) {
+    var ordinal = this.freeOrdinals.poll();
+    if (ordinal == null) {
+      ordinal = this.roomIdsByOrdinal.size();
+      this.roomIdsByOrdinal.add(roomId);
+    } else {
+      this.roomIdsByOrdinal.set(ordinal, roomId);
+    }
+
+    this.liveRooms.set(ordinal);
+    this.ordinalsByRoomId.put(roomId, ordinal);
+    this.indexedCharacteristics.put(ordinal, characteristics);
+    for (var characteristic : characteristics) {
+      var typeIndex = this.typeIndexes.computeIfAbsent(characteristic.getType(), _ -> new TypeIndex());
+      typeIndex.set(ordinal, characteristic.getValue());
+    }
+  }
+
+  private void unindexRoom(@NonNull UUID roomId) {
+    var ordinal = this.ordinalsByRoomId.remove(roomId);
+    if (ordinal == null) {
+      return;
+    }
+
+    for (var characteristic : this.indexedCharacteristics.remove(ordinal)) {
+      var typeIndex = this.typeIndexes.get(characteristic.getType());
+      if (typeIndex != null && typeIndex.clear(ordinal, characteristic.getValue())) {
+        this.typeIndexes.remove(characteristic.getType());
+      }
+    }
+
+    this.liveRooms.clear(ordinal);
+    this.roomIdsByOrdinal.set(ordinal, null);
+    this.freeOrdinals.push(ordinal);
+  }
+
+  /**
+   * The bitsets of all rooms that have a characteristic of a specific type, grouped by the characteristic value.
+   */
+  private static final class TypeIndex {
+
+    private final BitSet nullValues = new BitSet();
+    private final Map<String, BitSet> byTextValue = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> byIntValue = new TreeMap<>();
+
+    private void set(int ordinal, @Nullable Object value) {
+      if (value == null) {
+        this.nullValues.set(ordinal);
+        return;
+      }
+
+      var text = textValue(value);
+      if (text != null) {
+        this.byTextValue.computeIfAbsent(text, _ -> new BitSet()).set(ordinal);
+      }
+
+      if (value instanceof Integer number) {
+        this.byIntValue.computeIfAbsent(number, _ -> new BitSet()).set(ordinal);
+      }
+    }
+
+    private boolean clear(int ordinal, @Nullable Object value) {
+      if (value == null) {
+        this.nullValues.clear(ordinal);
+      } else {
+        var text = textValue(value);
+        if (text != null) {
+          clearAndPrune(this.byTextValue, text, ordinal);
+        }
+
+        if (value instanceof Integer number) {
+          clearAndPrune(this.byIntValue, number, ordinal);
+        }
+      }
+
+      return this.nullValues.isEmpty() && this.byTextValue.isEmpty() && this.byIntValue.isEmpty();
+    }
+
+    private static <K> void clearAndPrune(@NonNull Map<K, BitSet> bitsets, @NonNull K key, int ordinal) {
+      var rooms = bitsets.get(key);
+      if (rooms != null) {
+        rooms.clear(ordinal);
+        if (rooms.isEmpty()) {
+          bitsets.remove(key);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package dev.playo.room.room;
+
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.util.Characteristics;
+import jakarta.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.NonNull;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Builds the sql predicates for the characteristic filter of a room inquiry against the {@code rooms} table (aliased as
+ * {@code r}). Predicates are emitted in a form that can use the indexes on the table: equality checks are rewritten to
+ * jsonb containment which is served by the {@code jsonb_path_ops} GIN index, and comparisons of the seats are done on
+ * the generated {@code seats} column which has a btree index. Only the remaining cases (not equals and comparisons of
+ * other integer characteristics) fall back to expanding the characteristics array.
+ * <p>
+ * The rewritten predicates match the same rooms as comparing the text of the stored values: numbers and booleans also
+ * match the same value stored as text and the other way around, and a null value also matches a missing value.
+ */
+public final class CharacteristicSqlBuilder {
+
+  /**
+   * Matches the texts that are the canonical text of a json number or boolean, which is what they are converted to
+   * when read as text from a stored number or boolean.
+   */
+  private static final Pattern JSON_SCALAR = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?|true|false");
+
+  /**
+   * Appends one predicate per given characteristic to the given sql, all predicates are prefixed with {@code AND}.
+   *
+   * @param sql             the sql to append the predicates to.
+   * @param parameters      the parameters of the query, the parameters of the predicates are added to it.
+   * @param characteristics the characteristics to append the predicates for, can be null.
+   * @throws GeneralProblemException if an operator or value type is not supported.
+   */
+  public static void appendFilters(
+    @NonNull StringBuilder sql,
+    @NonNull Map<String, Object> parameters,
+    @Nullable List<SearchCharacteristic> characteristics
+  ) {
+    if (characteristics == null) {
+      return;
+    }
+
+    int index = 0;
+    for (var characteristic : characteristics) {
+      var typeParam = "type" + index;
+      var valueParam = "value" + index;
+      var value = characteristic.getValue();
+      if (value instanceof Map<?, ?>) {
+        throw new GeneralProblemException(
+          HttpStatus.BAD_REQUEST,
+          "Complex objects are not supported as characteristic values.");
+      }
+
+      var operator = operatorForCharacteristic(characteristic.getOperator(), value);
+      var type = characteristic.getType();
+
+      if (Characteristics.SEATS_CHARACTERISTIC.equals(type) && value instanceof Integer) {
+        // served by the btree index on the generated seats column, which is null for rooms whose seats it cannot hold
+        sql.append(" AND (r.seats ").append(operator).append(" :").append(valueParam)
+          .append(" OR (r.seats IS NULL AND ");
+        appendElementMatch(sql, typeParam, valueParam, value, operator);
+        sql.append("))");
+      } else if (characteristic.getOperator() == SearchCharacteristic.OperatorEnum.EQUALS && value != null) {
+        // served by the gin index on the characteristics column, one containment per json representation of the value
+        var representations = jsonRepresentations(valueParam, value);
+        sql.append(" AND (");
+        for (var representation = 0; representation < representations.size(); representation++) {
+          if (representation > 0) {
+            sql.append(" OR ");
+          }
+
+          sql.append("r.characteristics @> jsonb_build_array(jsonb_build_object('type', CAST(:")
+            .append(typeParam)
+            .append(" AS text), 'value', ")
+            .append(representations.get(representation))
+            .append("))");
+        }
+
+        sql.append(")");
+      } else {
+        if (value == null) {
+          // a missing value counts as null, only the type can be looked up in the gin index
+          sql.append(" AND r.characteristics @> jsonb_build_array(jsonb_build_object('type', CAST(:")
+            .append(typeParam)
+            .append(" AS text)))");
+        }
+
+        sql.append(" AND ");
+        appendElementMatch(sql, typeParam, valueParam, value, operator);
+      }
+
+      parameters.put(typeParam, type);
+      if (value != null) {
+        parameters.put(valueParam, value);
+      }
+
+      index++;
+    }
+  }
+
+  /**
+   * Appends a predicate that checks if any characteristic of the given type matches the given value, by expanding the
+   * characteristics array. Values stored as text are converted to the type of the given value.
+   */
+  private static void appendElementMatch(
+    @NonNull StringBuilder sql,
+    @NonNull String typeParam,
+    @NonNull String valueParam,
+    @Nullable Object value,
+    @NonNull String operator
+  ) {
+    sql.append("EXISTS (")
+      .append("SELECT 1 FROM jsonb_array_elements(r.characteristics) elem ")
+      .append("WHERE elem->> 'type' = :").append(typeParam)
+      .append(" AND ");
+
+    switch (value) {
+      case Boolean _ -> sql.append("(elem->>'value')::boolean ").append(operator).append(" :").append(valueParam);
+      case Integer _ -> sql.append("(elem->>'value')::int ").append(operator).append(" :").append(valueParam);
+      case null -> sql.append("elem->>'value' IS NULL");
+      default -> sql.append("elem->>'value' ").append(operator).append(" :").append(valueParam);
+    }
+
+    sql.append(")");
+  }
+
+  /**
+   * Get the sql expressions of all json values a characteristic can be stored as to be equal to the given value. A
+   * value is equal to a stored value if both have the same text, so a number or a boolean can also be stored as text
+   * and a text can also be stored as the number or boolean it spells.
+   *
+   * @param valueParam the name of the parameter holding the value.
+   * @param value      the value to get the json representations of.
+   * @return the sql expressions of the json representations of the value.
+   */
+  private static @NonNull List<String> jsonRepresentations(@NonNull String valueParam, @NonNull Object value) {
+    var asText = "to_jsonb(CAST(:%s AS text))".formatted(valueParam);
+    return switch (value) {
+      case Boolean _, Integer _, Long _ -> List.of(
+        "to_jsonb(CAST(:%s AS %s))".formatted(valueParam, sqlType(value)),
+        asText);
+      case String text when JSON_SCALAR.matcher(text).matches() -> List.of(
+        asText,
+        "CAST(CAST(:%s AS text) AS jsonb)".formatted(valueParam));
+      default -> List.of(asText);
+    };
+  }
+
+  /**
+   * Get the sql type to cast a characteristic value parameter to, so that it gets converted to the matching json type.
+   *
+   * @param value the value to get the sql type for.
+   * @return the sql type to cast the value to.
+   */
+  private static @NonNull String sqlType(@NonNull Object value) {
+    return switch (value) {
+      case Boolean _ -> "boolean";
+      case Integer _ -> "int";
+      case Long _ -> "bigint";
+      case Number _ -> "numeric";
+      default -> "text";
+    };
+  }
+
+  /**
+   * Maps the given search operator of the rest api to the matching psql operator.
+   *
+   * @param operator the search operator to map to the psql equivalent.
+   * @param value    the value the operator is applied on. Used to determine if the operator is supported.
+   * @return the psql operator as string.
+   * @throws GeneralProblemException if the operator is not supported for the given value type.
+   */
+  private static @NonNull String operatorForCharacteristic(
+    @NonNull SearchCharacteristic.OperatorEnum operator,
+    @Nullable Object value
+  ) {
+    return switch (operator) {
+      case EQUALS -> "=";
+      case NOT_EQUALS -> "<>";
+      case GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL -> {
+        if (value instanceof Integer) {
+          yield switch (operator) {
+            case GREATER_THAN -> ">";
+            case GREATER_THAN_OR_EQUAL -> ">=";
+            case LESS_THAN -> "<";
+            case LESS_THAN_OR_EQUAL -> "<=";
+            default -> throw new GeneralProblemException(
+              HttpStatus.BAD_REQUEST,
+              "Unsupported operator %s for integer values.".formatted(operator));
+          };
+        } else {
+          throw new GeneralProblemException(
+            HttpStatus.BAD_REQUEST,
+            "Operator %s is not supported for value type %s.".formatted(
+              operator,
+              value == null ? "null" : value.getClass().getSimpleName()));
+        }
+      }
+    };
+  }
+}
@@ -5,8 +5,14 @@ import dev.playo.generated.roommanagement.model.GetAllBookingsResponse;
 import dev.playo.generated.roommanagement.model.GetAllRoomsResponse;
 import dev.playo.generated.roommanagement.model.IsRoomDeletable200Response;
 import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.generated.roommanagement.model.RoomBatchInquiry;
+import dev.playo.generated.roommanagement.model.RoomBatchInquiryResponse;
 import dev.playo.generated.roommanagement.model.RoomCreateRequest;
 import dev.playo.generated.roommanagement.model.RoomInquiry;
+import dev.playo.generated.roommanagement.model.SlotInquiry;
+import dev.playo.generated.roommanagement.model.SlotSearchResponse;
+import dev.playo.room.catalog.CatalogResponses;
+import dev.playo.room.catalog.RoomCatalog;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -21,10 +27,12 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 public class RoomController implements RoomsApi {
 
   private final RoomService roomService;
+  private final RoomCatalog roomCatalog;
 
   @Autowired
-  public RoomController(RoomService roomService) {
+  public RoomController(RoomService roomService, RoomCatalog roomCatalog) {
     this.roomService = roomService;
+    this.roomCatalog = roomCatalog;
   }
 
   @Override
@@ -43,6 +51,16 @@ public class RoomController implements RoomsApi {
     return ResponseEntity.ok(this.roomService.findAvailableRooms(roomInquiry));
   }
 
+  @Override
+  public ResponseEntity<RoomBatchInquiryResponse> findAvailableRoomsBatch(RoomBatchInquiry roomBatchInquiry) {
+    return ResponseEntity.ok(this.roomService.findAvailableRoomsBatch(roomBatchInquiry));
+  }
+
+  @Override
+  public ResponseEntity<SlotSearchResponse> findFreeSlots(SlotInquiry slotInquiry) {
+    return ResponseEntity.ok(this.roomService.findFreeSlots(slotInquiry));
+  }
+
   @Override
   public ResponseEntity<GetAllBookingsResponse> getBookingsForRoom(UUID roomId, LocalDate date) {
     var bookings = this.roomService.findBookingsByRoomAndDate(roomId, date);
@@ -57,14 +75,9 @@ public class RoomController implements RoomsApi {
 
   @Override
   public ResponseEntity<GetAllRoomsResponse> getRooms(Boolean composable) {
-    var response = new GetAllRoomsResponse();
-    if (composable != null && composable) {
-      response.setRooms(this.roomService.composingEligibleRooms());
-    } else {
-      response.setRooms(this.roomService.allKnownRooms());
-    }
-
-    return ResponseEntity.ok(response);
+    var snapshot = this.roomCatalog.snapshot();
+    var rooms = composable != null && composable ? snapshot.composableRoomsResponse() : snapshot.allRoomsResponse();
+    return CatalogResponses.of(snapshot, rooms);
   }
 
   @Override
@@ -0,0 +1,136 @@
+package dev.playo.room.room;
+
+import dev.playo.generated.roommanagement.model.RoomInquiry;
+import dev.playo.room.room.data.RoomEntity;
+import dev.playo.room.util.Characteristics;
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import lombok.NonNull;
+
+/**
+ * Ranks the available rooms of an inquiry by how well they fit the inquiry. Rooms are ordered by the amount of unused
+ * seats first, then rooms in the preferred building are preferred and finally rooms with fewer characteristics that
+ * were not asked for are preferred. Only the best rooms are kept in a heap bounded to the requested limit, so ranking n
+ * candidates costs O(n log k).
+ */
+public final class RoomRanking {
+
+  /**
+   * Selects the best fitting rooms for the given inquiry, ordered from the best to the worst fit.
+   *
+   * @param candidates the available rooms to rank.
+   * @param inquiry    the inquiry the rooms were found for.
+   * @param limit      the maximum amount of rooms to return.
+   * @return the best fitting rooms, at most the given limit.
+   */
+  public static @NonNull List<RoomEntity> bestFit(
+    @NonNull Collection<RoomEntity> candidates,
+    @NonNull RoomInquiry inquiry,
+    int limit
+  ) {
+    if (limit <= 0 || candidates.isEmpty()) {
+      return List.of();
+    }
+
+    var requiredSeats = requiredSeats(inquiry);
+    Set<String> requestedTypes = new HashSet<>();
+    if (inquiry.getCharacteristics() != null) {
+      inquiry.getCharacteristics().forEach(characteristic -> requestedTypes.add(characteristic.getType()));
+    }
+
+    var comparator = Comparator
+      .comparingInt(Fit::seatSlack)
+      .thenComparing(Fit::outsidePreferredBuilding)
+      .thenComparingInt(Fit::surplus)
+      .thenComparing(fit -> fit.room().getId());
+
+    // max-heap on the fit, the head is the worst room that is currently part of the result
+    var best = new PriorityQueue<>(Math.min(limit, candidates.size()), comparator.reversed());
+    for (var room : candidates) {
+      var fit = new Fit(
+        room,
+        seatSlack(room, requiredSeats),
+        outsideBuilding(room, inquiry.getPreferredBuildingId()),
+        surplus(room, requestedTypes));
+      if (best.size() < limit) {
+        best.add(fit);
+      } else if (comparator.compare(fit, best.peek()) < 0) {
+        best.poll();
+        best.add(fit);
+      }
+    }
+
+    var ranked = new ArrayList<>(best);
+    ranked.sort(comparator);
+    return ranked.stream().map(Fit::room).toList();
+  }
+
+  /**
+   * Get the amount of seats the inquiry asks for, either the explicit group size or the lower bound of the requested
+   * seats characteristic.
+   */
+  private static int requiredSeats(@NonNull RoomInquiry inquiry) {
+    if (inquiry.getGroupSize() != null) {
+      return inquiry.getGroupSize();
+    }
+
+    if (inquiry.getCharacteristics() == null) {
+      return 0;
+    }
+
+    var required = 0;
+    for (var characteristic : inquiry.getCharacteristics()) {
+      if (Characteristics.SEATS_CHARACTERISTIC.equals(characteristic.getType())
+        && characteristic.getValue() instanceof Integer seats) {
+        var lowerBound = switch (characteristic.getOperator()) {
+          case EQUALS, GREATER_THAN_OR_EQUAL -> seats;
+          case GREATER_THAN -> seats + 1;
+          case null, default -> 0;
+        };
+        required = Math.max(required, lowerBound);
+      }
+    }
+
+    return required;
+  }
+
+  private static int seatSlack(@NonNull RoomEntity room, int requiredSeats) {
+    var seats = room.getCharacteristics()
+      .stream()
+      .filter(characteristic -> Characteristics.SEATS_CHARACTERISTIC.equals(characteristic.getType()))
+      .map(characteristic -> characteristic.getValue() instanceof Integer value ? value : 0)
+      .findAny()
+      .orElse(0);
+    // rooms that are too small are only ranked behind all rooms that fit
+    return seats >= requiredSeats ? seats - requiredSeats : Integer.MAX_VALUE;
+  }
+
+  private static boolean outsideBuilding(@NonNull RoomEntity room, @Nullable UUID preferredBuildingId) {
+    return preferredBuildingId != null && !preferredBuildingId.equals(room.getBuilding().getId());
+  }
+
+  private static int surplus(@NonNull RoomEntity room, @NonNull Set<String> requestedTypes) {
+    var surplus = 0;
+    for (var characteristic : room.getCharacteristics()) {
+      var type = characteristic.getType();
+      if (!Characteristics.SEATS_CHARACTERISTIC.equals(type)
+        && !requestedTypes.contains(type)
+        && !Boolean.FALSE.equals(characteristic.getValue())) {
+        surplus++;
+      }
+    }
+
+    return surplus;
+  }
+
+  private record Fit(@NonNull RoomEntity room, int seatSlack, boolean outsidePreferredBuilding, int surplus) {
+
+  }
+}
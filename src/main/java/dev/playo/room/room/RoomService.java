@@ -1,24 +1,47 @@
 package dev.playo.room.room;
 
+import static dev.playo.room.util.DateTimeNormalizer.fromInstant;
+import static dev.playo.room.util.DateTimeNormalizer.startOfDay;
+import static dev.playo.room.util.DateTimeNormalizer.toInstant;
+
 import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.InquiryWindow;
 import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.generated.roommanagement.model.RoomBatchInquiry;
+import dev.playo.generated.roommanagement.model.RoomBatchInquiryResponse;
 import dev.playo.generated.roommanagement.model.RoomCreateRequest;
 import dev.playo.generated.roommanagement.model.RoomInquiry;
+import dev.playo.generated.roommanagement.model.RoomSlot;
 import dev.playo.generated.roommanagement.model.SearchCharacteristic;
-import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.generated.roommanagement.model.SlotInquiry;
+import dev.playo.generated.roommanagement.model.SlotSearchResponse;
+import dev.playo.generated.roommanagement.model.WindowAvailability;
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.DatabaseAvailabilityEngine;
+import dev.playo.room.availability.SlotFinder;
+import dev.playo.room.availability.TimeWindow;
+import dev.playo.room.availability.WindowedRooms;
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.BookingRow;
+import dev.playo.room.building.BuildingScheduleCache;
 import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.catalog.RoomCatalog;
 import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.room.data.RoomCatalogRow;
 import dev.playo.room.room.data.RoomEntity;
 import dev.playo.room.room.data.RoomRepository;
 import dev.playo.room.util.Characteristics;
 import jakarta.annotation.Nullable;
-import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -31,22 +54,42 @@ import org.springframework.stereotype.Service;
 @Service
 public class RoomService {
 
-  private final EntityManager entityManager;
+  private static final int MAX_BATCH_WINDOWS = 100;
+  private static final int DEFAULT_SLOT_LIMIT = 5;
+  private static final int MAX_SLOT_LIMIT = 50;
+  private static final Duration MAX_SLOT_SEARCH_RANGE = Duration.ofDays(31);
+
   private final RoomRepository repository;
   private final BookingRepository bookingRepository;
   private final BuildingRepository buildingRepository;
+  private final AvailabilityIndex availabilityIndex;
+  private final CharacteristicIndex characteristicIndex;
+  private final DatabaseAvailabilityEngine availabilityEngine;
+  private final SlotFinder slotFinder;
+  private final RoomCatalog roomCatalog;
+  private final BuildingScheduleCache scheduleCache;
 
   @Autowired
   public RoomService(
-    EntityManager entityManager,
     @NonNull RoomRepository repository,
     BookingRepository bookingRepository,
-    BuildingRepository buildingRepository
+    BuildingRepository buildingRepository,
+    AvailabilityIndex availabilityIndex,
+    CharacteristicIndex characteristicIndex,
+    DatabaseAvailabilityEngine availabilityEngine,
+    SlotFinder slotFinder,
+    RoomCatalog roomCatalog,
+    BuildingScheduleCache scheduleCache
   ) {
-    this.entityManager = entityManager;
     this.repository = repository;
     this.bookingRepository = bookingRepository;
     this.buildingRepository = buildingRepository;
+    this.availabilityIndex = availabilityIndex;
+    this.characteristicIndex = characteristicIndex;
+    this.availabilityEngine = availabilityEngine;
+    this.slotFinder = slotFinder;
+    this.roomCatalog = roomCatalog;
+    this.scheduleCache = scheduleCache;
   }
 
   //TODO: rooms need to be in same building in order to create composite
@@ -98,6 +141,8 @@ public class RoomService {
     roomEntity.setBuilding(this.buildingRepository.getReferenceById(room.getBuildingId()));
     roomEntity.setCharacteristics(room.getCharacteristics());
     var savedRoom = this.repository.save(roomEntity);
+    this.characteristicIndex.putRoom(savedRoom.getId(), savedRoom.getCharacteristics());
+    this.roomCatalog.changed();
     return savedRoom.toRoomDto();
   }
 
@@ -110,81 +155,252 @@ public class RoomService {
     return room;
   }
 
-  public List<Room> findAvailableRooms(RoomInquiry request) {
-    var sql = new StringBuilder("""
-      SELECT r.* FROM rooms r WHERE r.id NOT IN (SELECT b.room_id FROM bookings b
-      WHERE b.start_time < :endTime AND b.end_time > :startTime)
-      """);
-
-    Map<String, Object> parameters = new HashMap<>();
-    parameters.put("startTime", request.getStartTime());
-    parameters.put("endTime", request.getEndTime());
-
-    int index = 0;
-    if (request.getCharacteristics() != null) {
-      for (var characteristic : request.getCharacteristics()) {
-        var typeParam = "type" + index;
-        var valueParam = "value" + index;
-        var value = characteristic.getValue();
-
-        sql.append(" AND EXISTS (")
-          .append("SELECT 1 FROM jsonb_array_elements(r.characteristics) elem ")
-          .append("WHERE elem->> 'type' = :").append(typeParam)
-          .append(" AND ");
-
-        var operator = this.operatorForCharacteristic(characteristic.getOperator(), value);
-
-        switch (value) {
-          case Boolean _ -> sql.append("(elem->>'value')::boolean ").append(operator).append(" :").append(valueParam);
-          case Integer _ -> sql.append("(elem->>'value')::int ").append(operator).append(" :").append(valueParam);
-          case Map<?, ?> _ -> throw new GeneralProblemException(
-            HttpStatus.BAD_REQUEST,
-            "Complex objects are not supported as characteristic values.");
-          case null -> sql.append("elem->>'value' IS NULL");
-          default -> sql.append("elem->>'value' ").append(operator).append(" :").append(valueParam);
-        }
-
-        sql.append(")");
-
-        parameters.put(typeParam, characteristic.getType());
-        parameters.put(valueParam, value);
-        index++;
-      }
+  /**
+   * Finds the room with the given id together with the rooms it is composed of and its parent room, so that the
+   * rooms allocated by a booking of the room can be resolved without an open persistence context.
+   *
+   * @param roomId the id of the room to find.
+   * @return the room with the given id.
+   * @throws GeneralProblemException if no room with the given id exists.
+   */
+  public @NonNull RoomEntity findRoomWithCompositionById(@NonNull UUID roomId) {
+    var room = this.repository.findWithCompositionById(roomId).orElse(null);
+    if (room == null) {
+      throw new GeneralProblemException(HttpStatus.NOT_FOUND, "Room with ID %s does not exist".formatted(roomId));
     }
 
-    var query = this.entityManager.createNativeQuery(sql.toString(), RoomEntity.class);
-    parameters.forEach(query::setParameter);
+    return room;
+  }
 
-    List<RoomEntity> entities = query.getResultList();
-    return entities.stream().map(RoomEntity::toRoomDto).toList();
+  /**
+   * Finds all rooms with the given ids, unknown ids are skipped.
+   *
+   * @param roomIds the ids of the rooms to find.
+   * @return all existing rooms with the given ids.
+   */
+  public @NonNull List<RoomEntity> findRoomsByIds(@NonNull Collection<UUID> roomIds) {
+    return this.repository.findAllById(roomIds);
   }
 
-  public @NonNull List<Room> findRoomsByBuildingId(@NonNull UUID buildingId) {
-    return this.repository.findRoomEntityByBuildingId(buildingId)
+  /**
+   * Finds all rooms that are not allocated during the requested time range and match all requested characteristics.
+   * The time-overlap part is answered by the in-memory availability index and the characteristic filter by the
+   * in-memory characteristic index if they are available, the database is only used as a fallback while an index is not
+   * loaded or disabled. The rooms are ranked and limited as requested by the inquiry.
+   *
+   * @param request the inquiry to find the available rooms for.
+   * @return all rooms that are available for the given inquiry.
+   */
+  public @NonNull List<Room> findAvailableRooms(@NonNull RoomInquiry request) {
+    if (!this.availabilityIndex.isAvailable()) {
+      return this.findAvailableRoomsFromDatabase(request);
+    }
+
+    var occupiedRoomIds = this.availabilityIndex.occupiedRooms(
+      toInstant(request.getStartTime()),
+      toInstant(request.getEndTime()));
+    List<RoomEntity> rooms;
+    if (this.characteristicIndex.isAvailable()) {
+      var roomIds = this.characteristicIndex.matchingRooms(request.getCharacteristics(), occupiedRoomIds);
+      rooms = this.repository.findAllById(roomIds);
+    } else {
+      rooms = this.availabilityEngine.findRoomsExcluding(occupiedRoomIds, request.getCharacteristics());
+    }
+
+    return rankRooms(request, rooms)
       .stream()
       .map(RoomEntity::toRoomDto)
       .toList();
   }
 
-  public @NonNull List<Room> composingEligibleRooms() {
-    return this.repository.findRoomsEligibleForComposing()
+  /**
+   * Finds all available rooms for the given inquiry by resolving the time-overlap part in the database, based on the
+   * booking allocations. Used as fallback and verification path for the in-memory indexes.
+   *
+   * @param request the inquiry to find the available rooms for.
+   * @return all rooms that are available for the given inquiry.
+   */
+  public @NonNull List<Room> findAvailableRoomsFromDatabase(@NonNull RoomInquiry request) {
+    var rooms = this.availabilityEngine.findAvailableRooms(
+      toInstant(request.getStartTime()),
+      toInstant(request.getEndTime()),
+      request.getCharacteristics());
+    return rankRooms(request, rooms)
       .stream()
       .map(RoomEntity::toRoomDto)
       .toList();
   }
 
-  public @NonNull List<Room> allKnownRooms() {
-    return this.repository.findAll()
-      .stream()
-      .map(RoomEntity::toRoomDto)
+  /**
+   * Applies the ranking and limit of the given inquiry to the given available rooms. Only the returned rooms are
+   * converted to their dto, which loads their child rooms.
+   */
+  private static @NonNull List<RoomEntity> rankRooms(@NonNull RoomInquiry request, @NonNull List<RoomEntity> rooms) {
+    var limit = request.getLimit() == null ? rooms.size() : request.getLimit();
+    if (request.getRanking() == RoomInquiry.RankingEnum.BEST_FIT) {
+      return RoomRanking.bestFit(rooms, request, limit);
+    }
+
+    return rooms.size() <= limit ? rooms : rooms.subList(0, limit);
+  }
+
+  /**
+   * Finds the available rooms for all time windows of the given batch inquiry. The windows are evaluated against a
+   * single pass over the in-memory indexes if they are available, otherwise in a single database round trip. Every
+   * matching room is contained once in the response, the windows only reference the available rooms by id.
+   *
+   * @param request the batch inquiry to find the available rooms for.
+   * @return the available rooms per requested window, in the order of the request.
+   * @throws GeneralProblemException if the inquiry contains no, too many or invalid windows.
+   */
+  public @NonNull RoomBatchInquiryResponse findAvailableRoomsBatch(@NonNull RoomBatchInquiry request) {
+    var windows = toTimeWindows(request.getWindows());
+    var result = this.availabilityIndex.isAvailable()
+      ? this.findAvailableRoomsFromIndex(windows, request.getCharacteristics())
+      : this.availabilityEngine.findAvailableRooms(windows, request.getCharacteristics());
+
+    var response = new RoomBatchInquiryResponse();
+    response.setRooms(result.rooms().stream().map(RoomEntity::toRoomDto).toList());
+    for (var index = 0; index < windows.size(); index++) {
+      var requestedWindow = request.getWindows().get(index);
+      response.addWindowsItem(new WindowAvailability()
+        .startTime(requestedWindow.getStartTime())
+        .endTime(requestedWindow.getEndTime())
+        .roomIds(List.copyOf(result.availableRoomIds().get(index))));
+    }
+
+    return response;
+  }
+
+  private @NonNull WindowedRooms findAvailableRoomsFromIndex(
+    @NonNull List<TimeWindow> windows,
+    @Nullable List<SearchCharacteristic> characteristics
+  ) {
+    var occupiedRoomIds = this.availabilityIndex.occupiedRooms(windows);
+
+    // rooms occupied in every window can be dropped before loading the candidates
+    Set<UUID> occupiedInAllWindows = new HashSet<>(occupiedRoomIds.getFirst());
+    for (var occupied : occupiedRoomIds) {
+      occupiedInAllWindows.retainAll(occupied);
+    }
+
+    var candidates = this.characteristicIndex.isAvailable()
+      ? this.repository.findAllById(this.characteristicIndex.matchingRooms(characteristics, occupiedInAllWindows))
+      : this.availabilityEngine.findRoomsExcluding(occupiedInAllWindows, characteristics);
+
+    List<Set<UUID>> availableRoomIds = new ArrayList<>(windows.size());
+    for (var occupied : occupiedRoomIds) {
+      Set<UUID> available = new HashSet<>();
+      for (var candidate : candidates) {
+        if (!occupied.contains(candidate.getId())) {
+          available.add(candidate.getId());
+        }
+      }
+      availableRoomIds.add(available);
+    }
+
+    return new WindowedRooms(candidates, availableRoomIds);
+  }
+
+  private static @NonNull List<TimeWindow> toTimeWindows(@Nullable List<InquiryWindow> windows) {
+    if (windows == null || windows.isEmpty()) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST, "At least one time window is required");
+    }
+
+    if (windows.size() > MAX_BATCH_WINDOWS) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST,
+        "At most %d time windows can be requested at once".formatted(MAX_BATCH_WINDOWS));
+    }
+
+    List<TimeWindow> timeWindows = new ArrayList<>(windows.size());
+    for (var window : windows) {
+      var startTime = toInstant(window.getStartTime());
+      var endTime = toInstant(window.getEndTime());
+      if (!startTime.isBefore(endTime)) {
+        throw new GeneralProblemException(HttpStatus.BAD_REQUEST,
+          "Start time %s of a time window must be before its end time".formatted(window.getStartTime()));
+      }
+
+      timeWindows.add(new TimeWindow(startTime, endTime));
+    }
+
+    return timeWindows;
+  }
+
+  /**
+   * Finds the earliest free slots of the requested duration in all rooms matching the requested characteristics. The
+   * search starts at the requested start time or the next full minute, whatever is later.
+   *
+   * @param request the slot inquiry to find the free slots for.
+   * @return the earliest free slots, ordered by their start time.
+   * @throws GeneralProblemException if the time range of the inquiry is invalid or too long.
+   */
+  public @NonNull SlotSearchResponse findFreeSlots(@NonNull SlotInquiry request) {
+    // slots are offered on full minutes, even if the search starts at the current time
+    var earliestStart = Instant.now().truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+    var requestedStart = toInstant(request.getStartTime());
+    var startTime = requestedStart.isBefore(earliestStart) ? earliestStart : requestedStart;
+    var endTime = toInstant(request.getEndTime());
+    if (!startTime.isBefore(endTime)) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST, "Start time must be before end time.");
+    }
+
+    if (Duration.between(startTime, endTime).compareTo(MAX_SLOT_SEARCH_RANGE) > 0) {
+      throw new GeneralProblemException(HttpStatus.BAD_REQUEST,
+        "Slots can be searched in at most %d days at once".formatted(MAX_SLOT_SEARCH_RANGE.toDays()));
+    }
+
+    Collection<UUID> candidateRoomIds = this.characteristicIndex.isAvailable()
+      ? this.characteristicIndex.matchingRooms(request.getCharacteristics(), Set.of())
+      : this.availabilityEngine.findRoomsExcluding(Set.of(), request.getCharacteristics())
+        .stream()
+        .map(RoomEntity::getId)
+        .toList();
+
+    var limit = request.getLimit() == null ? DEFAULT_SLOT_LIMIT : request.getLimit();
+    var slots = this.slotFinder.findEarliestSlots(
+      candidateRoomIds,
+      startTime,
+      endTime,
+      Duration.ofMinutes(request.getDurationMinutes()),
+      Math.clamp(limit, 1, MAX_SLOT_LIMIT));
+
+    return new SlotSearchResponse(slots.stream()
+      .map(slot -> new RoomSlot(slot.roomId(), fromInstant(slot.startTime()), fromInstant(slot.endTime())))
+      .toList());
+  }
+
+  /**
+   * Finds the rooms of the given building, including the rooms they are composed of. The flat rows of all rooms are
+   * loaded with a single query and the composition is assembled in memory.
+   *
+   * @param buildingId the id of the building to find the rooms of.
+   * @return the rooms of the building, ordered by their id.
+   */
+  public @NonNull List<Room> findRoomsByBuildingId(@NonNull UUID buildingId) {
+    var rows = this.repository.findCatalogRows();
+    var childrenByParent = RoomCatalogRow.childrenByParent(rows);
+    return rows.stream()
+      .filter(row -> row.buildingId().equals(buildingId))
+      .map(row -> row.toRoomDto(childrenByParent))
       .toList();
   }
 
+  /**
+   * Finds all bookings of the given room on the given day. The bookings are always read from the database, the
+   * availability index of this replica might not know the bookings of other replicas yet.
+   *
+   * @param roomId the id of the room to find the bookings of.
+   * @param date   the day to find the bookings on.
+   * @return all bookings of the room on the given day.
+   */
   public @NonNull List<Booking> findBookingsByRoomAndDate(@NonNull UUID roomId, @NonNull LocalDate date) {
     var room = this.findRoomById(roomId);
-    return this.bookingRepository.findBookingByRoomAndDate(room, date)
+    var dayStart = startOfDay(date);
+    var dayEnd = startOfDay(date.plusDays(1));
+    return this.bookingRepository.findRowsByRoomAndTimeRange(room.getId(), dayStart, dayEnd)
       .stream()
-      .map(BookingEntity::toBookingDto)
+      .map(BookingRow::toBookingDto)
       .toList();
   }
 
@@ -244,12 +460,21 @@ public class RoomService {
       this.repository.save(childRoom);
     }
 
+    // the bookings of the room move to the schedules of the new building
+    var previousBuildingId = existingRoom.getBuilding().getId();
+    if (!previousBuildingId.equals(room.getBuildingId())) {
+      this.scheduleCache.buildingChanged(previousBuildingId);
+      this.scheduleCache.buildingChanged(room.getBuildingId());
+    }
+
     // Update the values
     existingRoom.setName(lowerCaseName);
     existingRoom.setChemSymbol(lowerCaseChemSymbol);
     existingRoom.setBuilding(this.buildingRepository.getReferenceById(room.getBuildingId()));
     existingRoom.setCharacteristics(room.getCharacteristics());
     var updatedRoom = this.repository.save(existingRoom);
+    this.characteristicIndex.putRoom(updatedRoom.getId(), updatedRoom.getCharacteristics());
+    this.roomCatalog.changed();
 
     return updatedRoom.toRoomDto();
   }
@@ -298,6 +523,8 @@ public class RoomService {
 
     try {
       this.repository.delete(room);
+      this.characteristicIndex.removeRoom(room.getId());
+      this.roomCatalog.changed();
     } catch (DataIntegrityViolationException exception) {
       log.trace("Data integrity violation while deleting booked room: {}", exception.getMessage());
       throw new GeneralProblemException(
@@ -313,44 +540,12 @@ public class RoomService {
    */
   private void forceDeleteRoom(@NonNull RoomEntity roomEntity) {
     log.debug("Running force deletion of room {}", roomEntity.getId());
+    var bookingIds = this.bookingRepository.findIdsByRoom(roomEntity);
     this.bookingRepository.deleteAllByRoom(roomEntity);
+    this.availabilityIndex.removeBookings(bookingIds);
+    this.scheduleCache.buildingChanged(roomEntity.getBuilding().getId());
     this.repository.delete(roomEntity);
-  }
-
-  /**
-   * Maps the given search operator of the rest api to the matching psql operator.
-   *
-   * @param operator the search operator to map to the psql equivalent.
-   * @param value    the value the operator is applied on. Used to determine if the operator is supported.
-   * @return the psql operator as string.
-   * @throws GeneralProblemException if the operator is not supported for the given value type.
-   */
-  private @NonNull String operatorForCharacteristic(
-    @NonNull SearchCharacteristic.OperatorEnum operator,
-    @Nullable Object value
-  ) {
-    return switch (operator) {
-      case EQUALS -> "=";
-      case NOT_EQUALS -> "<>";
-      case GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL -> {
-        if (value instanceof Integer) {
-          yield switch (operator) {
-            case GREATER_THAN -> ">";
-            case GREATER_THAN_OR_EQUAL -> ">=";
-            case LESS_THAN -> "<";
-            case LESS_THAN_OR_EQUAL -> "<=";
-            default -> throw new GeneralProblemException(
-              HttpStatus.BAD_REQUEST,
-              "Unsupported operator %s for integer values.".formatted(operator));
-          };
-        } else {
-          throw new GeneralProblemException(
-            HttpStatus.BAD_REQUEST,
-            "Operator %s is not supported for value type %s.".formatted(
-              operator,
-              value == null ? "null" : value.getClass().getSimpleName()));
-        }
-      }
-    };
+    this.characteristicIndex.removeRoom(roomEntity.getId());
+    this.roomCatalog.changed();
   }
 }
@@ -0,0 +1,62 @@
+package dev.playo.room.room.data;
+
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.Room;
+import jakarta.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+
+/**
+ * Flat projection of a room, the composition of rooms is assembled in memory based on the parent ids instead of
+ * loading the lazy associations of every room.
+ *
+ * @param id              the id of the room.
+ * @param name            the name of the room.
+ * @param chemSymbol      the chemical symbol of the room.
+ * @param buildingId      the id of the building of the room.
+ * @param characteristics the characteristics of the room.
+ * @param parentId        the id of the room this room is part of, null if the room is not part of another room.
+ */
+public record RoomCatalogRow(
+  @NonNull UUID id,
+  String name,
+  String chemSymbol,
+  @NonNull UUID buildingId,
+  List<Characteristic> characteristics,
+  @Nullable UUID parentId
+) {
+
+  /**
+   * Groups the given rows of rooms that are part of another room by the id of that room.
+   *
+   * @param rows the rows to group.
+   * @return the rows of all rooms that are part of another room by the id of that room.
+   */
+  public static @NonNull Map<UUID, List<RoomCatalogRow>> childrenByParent(@NonNull List<RoomCatalogRow> rows) {
+    return rows.stream()
+      .filter(row -> row.parentId() != null)
+      .collect(Collectors.groupingBy(RoomCatalogRow::parentId));
+  }
+
+  /**
+   * Converts this row into a room, including the rooms it is composed of.
+   *
+   * @param childrenByParent the rows of all rooms that are part of another room by the id of that room.
+   * @return the room of this row.
+   */
+  public @NonNull Room toRoomDto(@NonNull Map<UUID, List<RoomCatalogRow>> childrenByParent) {
+    return new Room()
+      .id(this.id)
+      .name(this.name)
+      .chemSymbol(this.chemSymbol)
+      .buildingId(this.buildingId)
+      .characteristics(this.characteristics)
+      .composedOf(childrenByParent.getOrDefault(this.id, List.of())
+        .stream()
+        .map(child -> child.toRoomDto(childrenByParent))
+        .toList());
+  }
+}
@@ -1,7 +1,9 @@
 package dev.playo.room.room.data;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,17 +12,28 @@ public interface RoomRepository extends JpaRepository<RoomEntity, UUID> {
 
   boolean existsByName(String name);
 
+  @EntityGraph(attributePaths = {"composedOf", "parent"})
+  Optional<RoomEntity> findWithCompositionById(UUID id);
+
   boolean existsByChemSymbol(String chemSymbol);
 
   @Modifying
   @Query("UPDATE RoomEntity r SET r.parent = NULL WHERE r.parent.id = :parentId")
   void unsetParentForAllChildren(UUID parentId);
 
-  List<RoomEntity> findRoomEntityByBuildingId(UUID buildingId);
-
-  @Query(
-    value = "SELECT * FROM rooms WHERE rooms.parent_room_id IS NULL AND NOT EXISTS(SELECT 1 FROM rooms as child WHERE child.parent_room_id = rooms.id)",
-    nativeQuery = true)
-  List<RoomEntity> findRoomsEligibleForComposing();
+  /**
+   * Loads the flat rows of all rooms with a single query, without touching any association of the rooms.
+   *
+   * @return the rows of all rooms, ordered by their id.
+   */
+  @Query("""
+    SELECT new dev.playo.room.room.data.RoomCatalogRow(
+      room.id, room.name, room.chemSymbol, building.id, room.characteristics, parent.id)
+    FROM RoomEntity room
+    JOIN room.building building
+    LEFT JOIN room.parent parent
+    ORDER BY room.id
+    """)
+  List<RoomCatalogRow> findCatalogRows();
 }
 
@@ -0,0 +1,163 @@
+package dev.playo.room.student;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count based circuit breaker for calls to a remote service. The outcomes of the last calls are kept in a fixed size
+ * ring; once enough calls were recorded and the share of failed calls reaches the threshold the breaker opens and
+ * rejects all calls without executing them. After the open duration a single trial call is let through: if it
+ * succeeds the breaker closes again, otherwise it stays open for another open duration.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  private final String name;
+  private final int minimumCalls;
+  private final int failureRatePercent;
+  private final long openNanos;
+  private final boolean[] outcomes;
+
+  private State state = State.CLOSED;
+  private int recordedCalls;
+  private int nextOutcome;
+  private int failedCalls;
+  private long openedAt;
+  private boolean trialCallInFlight;
+
+  public CircuitBreaker(
+    @NonNull String name,
+    int windowSize,
+    int minimumCalls,
+    int failureRatePercent,
+    @NonNull Duration openDuration
+  ) {
+    this.name = name;
+    this.outcomes = new boolean[Math.max(1, windowSize)];
+    this.minimumCalls = Math.clamp(minimumCalls, 1, this.outcomes.length);
+    this.failureRatePercent = failureRatePercent;
+    this.openNanos = openDuration.toNanos();
+  }
+
+  /**
+   * Runs the given call unless the breaker is open. Every runtime exception thrown by the call counts as a failure.
+   *
+   * @param call the call to run.
+   * @param <T>  the type of the result of the call.
+   * @return the result of the call.
+   * @throws CallNotPermittedException if the breaker is open.
+   */
+  public <T> T call(@NonNull Supplier<T> call) {
+    this.acquirePermission();
+    try {
+      var result = call.get();
+      this.recordOutcome(false);
+      return result;
+    } catch (RuntimeException exception) {
+      this.recordOutcome(true);
+      throw exception;
+    }
+  }
+
+  /**
+   * Get the current state of the breaker, an open breaker whose open duration passed is reported as half-open.
+   *
+   * @return the current state of the breaker.
+   */
+  public synchronized @NonNull State getState() {
+    if (this.state == State.OPEN && System.nanoTime() - this.openedAt >= this.openNanos) {
+      return State.HALF_OPEN;
+    }
+
+    return this.state;
+  }
+
+  private synchronized void acquirePermission() {
+    if (this.state == State.OPEN) {
+      if (System.nanoTime() - this.openedAt < this.openNanos) {
+        throw new CallNotPermittedException(this.name);
+      }
+
+      this.state = State.HALF_OPEN;
+      this.trialCallInFlight = false;
+    }
+
+    if (this.state == State.HALF_OPEN) {
+      if (this.trialCallInFlight) {
+        throw new CallNotPermittedException(this.name);
+      }
+
+      this.trialCallInFlight = true;
+    }
+  }
+
+  private synchronized void recordOutcome(boolean failed) {
+    switch (this.state) {
+      case HALF_OPEN -> {
+        if (failed) {
+          this.open();
+        } else {
+          log.info("Circuit breaker {} closed after a successful trial call", this.name);
+          this.state = State.CLOSED;
+          this.resetWindow();
+        }
+      }
+      case CLOSED -> {
+        if (this.recordedCalls == this.outcomes.length && this.outcomes[this.nextOutcome]) {
+          this.failedCalls--;
+        }
+
+        this.outcomes[this.nextOutcome] = failed;
+        this.nextOutcome = (this.nextOutcome + 1) % this.outcomes.length;
+        this.recordedCalls = Math.min(this.outcomes.length, this.recordedCalls + 1);
+        if (failed) {
+          this.failedCalls++;
+        }
+
+        if (this.recordedCalls >= this.minimumCalls
+          && this.failedCalls * 100 >= this.failureRatePercent * this.recordedCalls) {
+          log.warn(
+            "Circuit breaker {} opened after {} of the last {} calls failed",
+            this.name,
+            this.failedCalls,
+            this.recordedCalls);
+          this.open();
+        }
+      }
+      // calls that were started before the breaker opened do not change the state anymore
+      case OPEN -> {
+      }
+    }
+  }
+
+  private void open() {
+    this.state = State.OPEN;
+    this.openedAt = System.nanoTime();
+    this.trialCallInFlight = false;
+    this.resetWindow();
+  }
+
+  private void resetWindow() {
+    this.recordedCalls = 0;
+    this.nextOutcome = 0;
+    this.failedCalls = 0;
+  }
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /**
+   * Thrown instead of running a call while the breaker is open.
+   */
+  public static class CallNotPermittedException extends RuntimeException {
+
+    public CallNotPermittedException(@NonNull String name) {
+      super("Circuit breaker %s is open".formatted(name), null, false, false);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package dev.playo.room.student;
+
+/**
+ * How student groups are treated that could not be resolved because the group service failed, timed out or is
+ * blocked by the circuit breaker.
+ */
+public enum GroupServiceFallback {
+
+  /**
+   * The group is treated like an unknown group, it does not count towards the seats of a booking.
+   */
+  UNKNOWN,
+
+  /**
+   * Requests that depend on the group are rejected until the group service is available again.
+   */
+  REJECT
+}
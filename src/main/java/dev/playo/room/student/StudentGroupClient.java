@@ -1,34 +1,288 @@
 package dev.playo.room.student;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.playo.room.exception.GeneralProblemException;
 import dev.playo.room.student.dto.StudentGroupResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.Nullable;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Resolves student groups from the group service. Resolved groups are kept in a bounded cache and refreshed in the
+ * background once they are older than the refresh interval, until then and while the refresh is in flight the cached
+ * group is returned without a remote call. A failed refresh keeps the cached group until it expires. Unknown groups
+ * and failed lookups are only cached for a short time, so that an outage of the group service does not affect the
+ * seat checks for longer than that.
+ * <p>
+ * The group service is called through a pooled, keep-alive HTTP/2 client with explicit connect and read timeouts. At
+ * most a fixed amount of calls run concurrently, calls that do not get a permit in time fail immediately. A circuit
+ * breaker stops calling the group service while most calls fail, the configured {@link GroupServiceFallback} decides
+ * how the groups that could not be resolved are treated.
+ */
 @Slf4j
 @Service
 public class StudentGroupClient {
 
+  private static final String STUDENT_GROUPS_CACHE = "student-groups";
+
   private final String groupServiceBaseUrl;
+  private final Duration batchTimeout;
+  private final GroupServiceFallback fallback;
   private final RestTemplate restTemplate;
+  private final Semaphore bulkhead;
+  private final long bulkheadWaitMillis;
+  private final CircuitBreaker circuitBreaker;
+  private final AsyncLoadingCache<String, Optional<StudentGroupResponse>> studentGroups;
 
-  public StudentGroupClient(@Value("${room.client.group.url:https://sau-portal.de/team-11-api/api/v1}") String groupServiceBaseUrl) {
+  @Autowired
+  public StudentGroupClient(
+    @Value("${room.client.group.url:https://sau-portal.de/team-11-api/api/v1}") String groupServiceBaseUrl,
+    @Value("${room.client.group.batch-timeout-millis:3000}") long batchTimeoutMillis,
+    @Value("${room.client.group.connect-timeout-millis:1000}") long connectTimeoutMillis,
+    @Value("${room.client.group.read-timeout-millis:2000}") long readTimeoutMillis,
+    @Value("${room.client.group.max-concurrent-calls:32}") int maxConcurrentCalls,
+    @Value("${room.client.group.bulkhead-wait-millis:100}") long bulkheadWaitMillis,
+    @Value("${room.client.group.circuit-breaker.window-size:20}") int circuitWindowSize,
+    @Value("${room.client.group.circuit-breaker.minimum-calls:10}") int circuitMinimumCalls,
+    @Value("${room.client.group.circuit-breaker.failure-rate-percent:50}") int circuitFailureRatePercent,
+    @Value("${room.client.group.circuit-breaker.open-millis:30000}") long circuitOpenMillis,
+    @Value("${room.client.group.fallback:UNKNOWN}") GroupServiceFallback fallback,
+    @Value("${room.client.group.cache.max-size:10000}") long maxCacheSize,
+    @Value("${room.client.group.cache.ttl-seconds:3600}") long ttlSeconds,
+    @Value("${room.client.group.cache.refresh-seconds:600}") long refreshSeconds,
+    @Value("${room.client.group.cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+    @NonNull MeterRegistry meterRegistry
+  ) {
     this.groupServiceBaseUrl = groupServiceBaseUrl;
-    this.restTemplate = new RestTemplate();
+    this.batchTimeout = Duration.ofMillis(batchTimeoutMillis);
+    this.fallback = fallback;
+    this.bulkhead = new Semaphore(maxConcurrentCalls);
+    this.bulkheadWaitMillis = bulkheadWaitMillis;
+    this.circuitBreaker = new CircuitBreaker(
+      "group-service",
+      circuitWindowSize,
+      circuitMinimumCalls,
+      circuitFailureRatePercent,
+      Duration.ofMillis(circuitOpenMillis));
+
+    // the jdk client keeps its connections alive and multiplexes the calls over http/2 if the server supports it
+    var httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_2)
+      .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .build();
+    var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+    this.restTemplate = new RestTemplate(requestFactory);
+
+    this.studentGroups = Caffeine.newBuilder()
+      .maximumSize(maxCacheSize)
+      .expireAfter(new GroupExpiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+      .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .recordStats()
+      .buildAsync(new GroupLoader());
+    CaffeineCacheMetrics.monitor(meterRegistry, this.studentGroups, STUDENT_GROUPS_CACHE);
+    Gauge.builder(
+        "room.client.group.circuit_breaker.state",
+        this.circuitBreaker,
+        breaker -> breaker.getState().ordinal())
+      .description("State of the circuit breaker of the group service: 0 closed, 1 open, 2 half-open")
+      .register(meterRegistry);
+    Gauge.builder("room.client.group.bulkhead.available", this.bulkhead, Semaphore::availablePermits)
+      .description("Amount of calls to the group service that can be started without waiting")
+      .register(meterRegistry);
+  }
+
+  private static @NonNull GeneralProblemException unavailableProblem() {
+    return new GeneralProblemException(
+      HttpStatus.SERVICE_UNAVAILABLE,
+      "The student group service is currently unavailable, please try again later.");
   }
 
-  @Cacheable(cacheNames = "student-groups", key = "#name")
   public @Nullable StudentGroupResponse getStudentGroupByName(String name) {
+    return this.getStudentGroupsByNames(List.of(name)).get(name);
+  }
+
+  /**
+   * Resolves all given student groups at once. Every distinct name is only resolved once, the names that are not
+   * cached yet are requested concurrently on virtual threads. All lookups share a single deadline, groups that are
+   * unknown, could not be fetched or were not fetched in time are missing in the returned map. Lookups that miss the
+   * deadline still complete in the background and populate the cache.
+   *
+   * @param names the names of the student groups to resolve, can contain duplicates.
+   * @return the resolved student groups by their name.
+   * @throws GeneralProblemException if a group could not be resolved and the fallback rejects such requests.
+   */
+  public @NonNull Map<String, StudentGroupResponse> getStudentGroupsByNames(@NonNull Collection<String> names) {
+    Map<String, CompletableFuture<Optional<StudentGroupResponse>>> lookups = new HashMap<>();
+    for (var name : new LinkedHashSet<>(names)) {
+      lookups.put(name, this.studentGroups.get(name));
+    }
+
+    Map<String, StudentGroupResponse> resolvedGroups = new HashMap<>();
+    var deadline = Instant.now().plus(this.batchTimeout);
+    for (var lookup : lookups.entrySet()) {
+      var remainingMillis = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+      try {
+        lookup.getValue().get(remainingMillis, TimeUnit.MILLISECONDS)
+          .ifPresent(studentGroup -> resolvedGroups.put(lookup.getKey(), studentGroup));
+      } catch (TimeoutException exception) {
+        log.warn("Timed out fetching student group '{}' after {}", lookup.getKey(), this.batchTimeout);
+        this.applyFallback();
+      } catch (ExecutionException exception) {
+        log.warn("Failed to fetch student group '{}': {}", lookup.getKey(), exception.getCause().getMessage());
+        this.applyFallback();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        this.applyFallback();
+        break;
+      }
+    }
+
+    return resolvedGroups;
+  }
+
+  private void applyFallback() {
+    if (this.fallback == GroupServiceFallback.REJECT) {
+      throw unavailableProblem();
+    }
+  }
+
+  /**
+   * Fetches the given student group from the group service, guarded by the bulkhead and the circuit breaker.
+   *
+   * @return the student group, empty if the group service does not know the group.
+   * @throws RuntimeException if the group could not be fetched, or if the call was rejected by the bulkhead or the
+   *                          circuit breaker.
+   */
+  private @NonNull Optional<StudentGroupResponse> fetchStudentGroup(@NonNull String name) {
+    return this.withBulkhead(() -> this.circuitBreaker.call(() -> this.requestStudentGroup(name)));
+  }
+
+  private <T> T withBulkhead(@NonNull Supplier<T> call) {
+    try {
+      if (!this.bulkhead.tryAcquire(this.bulkheadWaitMillis, TimeUnit.MILLISECONDS)) {
+        throw new IllegalStateException("Too many concurrent calls to the group service");
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a call to the group service", exception);
+    }
+
+    try {
+      return call.get();
+    } finally {
+      this.bulkhead.release();
+    }
+  }
+
+  private @NonNull Optional<StudentGroupResponse> requestStudentGroup(@NonNull String name) {
     var url = String.format("%s/group/%s?withDetails=false", this.groupServiceBaseUrl, name);
     try {
       var response = this.restTemplate.getForEntity(url, StudentGroupResponse.class);
-      return response.getBody();
-    } catch (Exception exception) {
-      log.warn("Failed to fetch student group '{}' from URL '{}': {}", name, url, exception.getMessage());
-      return null;
+      return Optional.ofNullable(response.getBody());
+    } catch (HttpClientErrorException.NotFound exception) {
+      log.debug("Student group '{}' does not exist", name);
+      return Optional.empty();
+    }
+  }
+
+  private final class GroupLoader implements CacheLoader<String, Optional<StudentGroupResponse>> {
+
+    @Override
+    public @NonNull Optional<StudentGroupResponse> load(@NonNull String name) {
+      try {
+        return StudentGroupClient.this.fetchStudentGroup(name);
+      } catch (RuntimeException exception) {
+        if (StudentGroupClient.this.fallback == GroupServiceFallback.REJECT) {
+          // not cached, the next request tries again unless the circuit breaker is open
+          throw exception;
+        }
+
+        log.warn("Failed to fetch student group '{}': {}", name, exception.getMessage());
+        return Optional.empty();
+      }
+    }
+
+    @Override
+    public @NonNull Optional<StudentGroupResponse> reload(
+      @NonNull String name,
+      @NonNull Optional<StudentGroupResponse> oldValue
+    ) {
+      // a failed refresh throws, which keeps the cached group instead of replacing it with a negative entry
+      return StudentGroupClient.this.fetchStudentGroup(name);
+    }
+  }
+
+  /**
+   * Expires resolved groups after the regular ttl and unknown groups after the negative ttl.
+   */
+  private record GroupExpiry(
+    @NonNull Duration ttl,
+    @NonNull Duration negativeTtl
+  ) implements Expiry<String, Optional<StudentGroupResponse>> {
+
+    private long ttlNanos(@NonNull Optional<StudentGroupResponse> studentGroup) {
+      return (studentGroup.isPresent() ? this.ttl : this.negativeTtl).toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(
+      @NonNull String name,
+      @NonNull Optional<StudentGroupResponse> studentGroup,
+      long currentTime
+    ) {
+      return this.ttlNanos(studentGroup);
+    }
+
+    @Override
+    public long expireAfterUpdate(
+      @NonNull String name,
+      @NonNull Optional<StudentGroupResponse> studentGroup,
+      long currentTime,
+      long currentDuration
+    ) {
+      return this.ttlNanos(studentGroup);
+    }
+
+    @Override
+    public long expireAfterRead(
+      @NonNull String name,
+      @NonNull Optional<StudentGroupResponse> studentGroup,
+      long currentTime,
+      long currentDuration
+    ) {
+      return currentDuration;
     }
   }
 }
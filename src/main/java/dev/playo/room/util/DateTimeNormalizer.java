@@ -1,9 +1,12 @@
 package dev.playo.room.util;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 
 public final class DateTimeNormalizer {
@@ -40,4 +43,27 @@ public final class DateTimeNormalizer {
   public static @NonNull OffsetDateTime fromInstant(@NonNull Instant instant) {
     return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
   }
+
+  /**
+   * Get the first instant of the given day in the system default time zone, which in this application is set to
+   * Europe/Berlin. The start of the following day is the exclusive end of the day, which also holds on the days of a
+   * daylight saving time change.
+   *
+   * @param date the day to get the start of.
+   * @return the first instant of the given day.
+   */
+  public static @NonNull Instant startOfDay(@NonNull LocalDate date) {
+    return date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+  }
+
+  /**
+   * Formats the given instants as a postgres array literal, to be bound as a single parameter and cast to
+   * {@code timestamptz[]} in native queries.
+   *
+   * @param instants the instants to format.
+   * @return the array literal containing the given instants.
+   */
+  public static @NonNull String toTimestampArrayLiteral(@NonNull List<Instant> instants) {
+    return instants.stream().map(Instant::toString).collect(Collectors.joining(",", "{", "}"));
+  }
 }
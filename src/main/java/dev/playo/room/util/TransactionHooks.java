@@ -0,0 +1,28 @@
+package dev.playo.room.util;
+
+import lombok.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionHooks {
+
+  /**
+   * Runs the given action once the current transaction was committed successfully. If there is no active transaction
+   * the action is executed immediately, as the change it reacts to is already visible to everyone.
+   *
+   * @param action the action to run after the commit.
+   */
+  public static void afterCommit(@NonNull Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
@@ -5,20 +5,54 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.nio.ByteOrder;
 import java.security.SecureRandom;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.uuid.UuidValueGenerator;
 
 /**
  * A UUID generator that generates UUID version 7 compliant UUIDs. Also acts as {@link UuidValueGenerator} for hibernate
  * in order to generate uuid v7 as primary keys.
+ * <p>
+ * The 12 bits following the millisecond timestamp are used as a counter (RFC 9562, method 1) which is seeded randomly
+ * with its leftmost bit cleared on every new millisecond and incremented for every further id within the same
+ * millisecond. If the counter overflows it carries into the timestamp, so all ids generated by this process are
+ * strictly ordered. The random bits are taken from a fixed amount of entropy buffers, each refilled in bulk from its
+ * own {@link SecureRandom}, a thread always uses the same buffer. Apart from the returned {@link UUID} nothing is
+ * allocated per id.
  */
 public final class UUID7Generator implements UuidValueGenerator {
 
-  private static final Random RANDOM = new SecureRandom();
+  private static final int ENTROPY_BYTES_PER_UUID = 10;
+  private static final int ENTROPY_BUFFER_SIZE = ENTROPY_BYTES_PER_UUID * 256;
   private static final VarHandle BYTE_ARRAY_LONG_VIEW_HANDLE =
     MethodHandles.byteArrayViewVarHandle(Long.TYPE.arrayType(), ByteOrder.BIG_ENDIAN);
+  private static final VarHandle BYTE_ARRAY_SHORT_VIEW_HANDLE =
+    MethodHandles.byteArrayViewVarHandle(Short.TYPE.arrayType(), ByteOrder.BIG_ENDIAN);
+
+  private static final EntropyBuffer[] ENTROPY_BUFFERS = createEntropyBuffers();
+  // the last millisecond timestamp shifted left by 12 bits, combined with the counter in the lower 12 bits
+  private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+  private static @Nonnull EntropyBuffer[] createEntropyBuffers() {
+    // a power of two allows to select the buffer using a mask
+    var bufferCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+    var buffers = new EntropyBuffer[bufferCount];
+    for (var index = 0; index < buffers.length; index++) {
+      buffers[index] = new EntropyBuffer();
+    }
+
+    return buffers;
+  }
+
+  /**
+   * Selects the timestamp and counter of the next id: a new millisecond starts with the given random counter seed,
+   * otherwise the counter of the last id is incremented.
+   */
+  private static long nextTimestampAndCounter(long last, long candidate) {
+    return (candidate >>> 12) > (last >>> 12) ? candidate : last + 1;
+  }
 
   /**
    * Generates a new UUID version 7 compliant UUID.
@@ -26,17 +60,37 @@ public final class UUID7Generator implements UuidValueGenerator {
    * @return the generated UUID.
    */
   public static @Nonnull UUID generateUuid() {
-    // get the random data for the second uuid component
-    var bytes = new byte[10];
-    RANDOM.nextBytes(bytes);
-    var randA = ((bytes[0] & 0xFF) << 8) + (bytes[1] & 0xFF);
-    var randB = (long) BYTE_ARRAY_LONG_VIEW_HANDLE.get(bytes, 2);
-
-    // encode the timestamp and random components into an uuid
-    var timestamp = System.currentTimeMillis();
-    var rawMsb = (timestamp << 16) | randA;
-    var msb = (rawMsb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000007000L; // set version to 7
-    var lsb = (randB & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;  // set variant to DCE 1.1
+    // get the random data for the counter seed and the second uuid component
+    var mask = ENTROPY_BUFFERS.length - 1;
+    var entropyBuffer = ENTROPY_BUFFERS[(int) Thread.currentThread().threadId() & mask];
+    int counterSeed;
+    long randB;
+    entropyBuffer.lock.lock();
+    try {
+      var bytes = entropyBuffer.bytes;
+      if (entropyBuffer.position == ENTROPY_BUFFER_SIZE) {
+        entropyBuffer.random.nextBytes(bytes);
+        entropyBuffer.position = 0;
+      }
+
+      counterSeed = (short) BYTE_ARRAY_SHORT_VIEW_HANDLE.get(bytes, entropyBuffer.position) & 0x07FF;
+      randB = (long) BYTE_ARRAY_LONG_VIEW_HANDLE.get(bytes, entropyBuffer.position + 2);
+      entropyBuffer.position += ENTROPY_BYTES_PER_UUID;
+    } finally {
+      entropyBuffer.lock.unlock();
+    }
+
+    // the counter is incremented within the same millisecond, so that ids are strictly ordered
+    var candidate = (System.currentTimeMillis() << 12) | counterSeed;
+    var timestampAndCounter = LAST_TIMESTAMP_AND_COUNTER.accumulateAndGet(
+      candidate,
+      UUID7Generator::nextTimestampAndCounter);
+
+    // encode the timestamp, counter and random components into an uuid
+    var timestamp = timestampAndCounter >>> 12;
+    var counter = timestampAndCounter & 0x0FFFL;
+    var msb = (timestamp << 16) | 0x0000000000007000L | counter; // set version to 7
+    var lsb = (randB & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; // set variant to DCE 1.1
     return new UUID(msb, lsb);
   }
 
@@ -47,4 +101,15 @@ public final class UUID7Generator implements UuidValueGenerator {
   public @Nonnull UUID generateUuid(@Nonnull SharedSessionContractImplementor session) {
     return generateUuid();
   }
+
+  /**
+   * Random bytes for the ids generated by the threads that are mapped to this buffer.
+   */
+  private static final class EntropyBuffer {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] bytes = new byte[ENTROPY_BUFFER_SIZE];
+    private int position = ENTROPY_BUFFER_SIZE;
+  }
 }
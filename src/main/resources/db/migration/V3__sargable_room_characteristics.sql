@@ -0,0 +1,15 @@
+CREATE INDEX idx_rooms_characteristics
+  ON rooms USING gin (characteristics jsonb_path_ops);
+
+-- the seats of rooms with exactly one integral seats value, stored as number or text; the seats of all other rooms are
+-- null and compared by expanding the characteristics
+ALTER TABLE rooms
+  ADD COLUMN seats int GENERATED ALWAYS AS (
+    CASE
+      WHEN jsonb_array_length(jsonb_path_query_array(characteristics, '$[*] ? (@.type == "SEATS").value')) = 1
+        AND jsonb_path_query_array(characteristics, '$[*] ? (@.type == "SEATS").value') ->> 0 ~ '^-?[0-9]{1,9}$'
+        THEN (jsonb_path_query_array(characteristics, '$[*] ? (@.type == "SEATS").value') ->> 0)::int
+      END
+    ) STORED;
+
+CREATE INDEX idx_rooms_seats ON rooms (seats);
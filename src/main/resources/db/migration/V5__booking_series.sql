@@ -0,0 +1,22 @@
+CREATE TABLE booking_series
+(
+  id              uuid                        NOT NULL PRIMARY KEY,
+  room_id         uuid                        NOT NULL,
+  recurrence      varchar(16)                 NOT NULL,
+  start_time      timestamp(6) with time zone NOT NULL,
+  end_time        timestamp(6) with time zone NOT NULL,
+  until           date                        NOT NULL,
+  exception_dates date[]                      NOT NULL DEFAULT '{}',
+  created_at      timestamp(6) with time zone NOT NULL DEFAULT now(),
+
+  CONSTRAINT chk_booking_series_time CHECK (start_time < end_time),
+  CONSTRAINT fk_booking_series_on_room
+    FOREIGN KEY (room_id) REFERENCES rooms (id) ON DELETE CASCADE
+);
+
+ALTER TABLE bookings
+  ADD COLUMN series_id uuid NULL,
+  ADD CONSTRAINT fk_bookings_on_series
+    FOREIGN KEY (series_id) REFERENCES booking_series (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_bookings_series_id ON bookings (series_id);
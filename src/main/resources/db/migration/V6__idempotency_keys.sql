@@ -0,0 +1,11 @@
+CREATE TABLE idempotency_keys
+(
+  idempotency_key varchar(128)                NOT NULL PRIMARY KEY,
+  request_hash    varchar(64)                 NOT NULL,
+  response_status integer                     NULL,
+  response_body   text                        NULL,
+  created_at      timestamp(6) with time zone NOT NULL DEFAULT now(),
+  expires_at      timestamp(6) with time zone NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
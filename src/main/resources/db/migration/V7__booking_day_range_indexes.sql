@@ -0,0 +1,4 @@
+CREATE INDEX idx_bookings_room_start_time
+  ON bookings (room_id, start_time) INCLUDE (end_time);
+
+CREATE INDEX idx_rooms_building_id ON rooms (building_id);
@@ -0,0 +1,27 @@
+CREATE TABLE room_occupancy_hours
+(
+  room_id          uuid                        NOT NULL,
+  hour_start       timestamp(6) with time zone NOT NULL,
+  occupied_minutes smallint                    NOT NULL,
+
+  CONSTRAINT pk_room_occupancy_hours PRIMARY KEY (room_id, hour_start),
+  CONSTRAINT fk_room_occupancy_hours_on_room
+    FOREIGN KEY (room_id) REFERENCES rooms (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_room_occupancy_hours_hour_start ON room_occupancy_hours (hour_start);
+
+-- the rollups of the existing bookings, the booked minutes of every booking are split into hours starting in utc
+INSERT INTO room_occupancy_hours (room_id, hour_start, occupied_minutes)
+SELECT booking.room_id,
+       bucket.hour_start,
+       SUM(FLOOR(EXTRACT(EPOCH FROM LEAST(booking.end_time, bucket.hour_start + interval '1 hour')
+                                    - GREATEST(booking.start_time, bucket.hour_start)) / 60))
+FROM bookings booking
+       CROSS JOIN LATERAL generate_series(
+  date_trunc('hour', booking.start_time, 'UTC'),
+  booking.end_time - interval '1 microsecond',
+  interval '1 hour') AS bucket(hour_start)
+GROUP BY booking.room_id, bucket.hour_start
+HAVING SUM(FLOOR(EXTRACT(EPOCH FROM LEAST(booking.end_time, bucket.hour_start + interval '1 hour')
+                                    - GREATEST(booking.start_time, bucket.hour_start)) / 60)) > 0;
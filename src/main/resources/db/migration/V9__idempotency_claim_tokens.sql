@@ -0,0 +1,3 @@
+-- identifies the request holding the claim, a request that lost its claim must neither store nor release it
+ALTER TABLE idempotency_keys
+  ADD COLUMN claim_token uuid NULL;
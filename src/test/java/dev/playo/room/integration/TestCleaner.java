@@ -1,7 +1,10 @@
 package dev.playo.room.integration;
 
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.idempotency.IdempotencyKeyRepository;
+import dev.playo.room.booking.data.series.BookingSeriesRepository;
 import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.catalog.RoomCatalog;
 import dev.playo.room.room.data.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -11,22 +14,34 @@ public class TestCleaner {
 
   private final RoomRepository roomRepository;
   private final BookingRepository bookingRepository;
+  private final BookingSeriesRepository bookingSeriesRepository;
   private final BuildingRepository buildingRepository;
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final RoomCatalog roomCatalog;
 
   @Autowired
   public TestCleaner(
     RoomRepository roomRepository,
     BookingRepository bookingRepository,
-    BuildingRepository buildingRepository
+    BookingSeriesRepository bookingSeriesRepository,
+    BuildingRepository buildingRepository,
+    IdempotencyKeyRepository idempotencyKeyRepository,
+    RoomCatalog roomCatalog
   ) {
     this.roomRepository = roomRepository;
     this.bookingRepository = bookingRepository;
+    this.bookingSeriesRepository = bookingSeriesRepository;
     this.buildingRepository = buildingRepository;
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.roomCatalog = roomCatalog;
   }
 
   public void clean() {
     this.bookingRepository.deleteAll();
+    this.bookingSeriesRepository.deleteAll();
     this.roomRepository.deleteAll();
     this.buildingRepository.deleteAll();
+    this.idempotencyKeyRepository.deleteAll();
+    this.roomCatalog.rebuild();
   }
 }
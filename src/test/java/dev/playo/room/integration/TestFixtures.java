@@ -0,0 +1,48 @@
+package dev.playo.room.integration;
+
+import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.generated.roommanagement.model.RoomCreateRequest;
+import dev.playo.room.building.BuildingService;
+import dev.playo.room.room.RoomService;
+import dev.playo.room.util.Characteristics;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TestFixtures {
+
+  private final BuildingService buildingService;
+  private final RoomService roomService;
+
+  @Autowired
+  public TestFixtures(BuildingService buildingService, RoomService roomService) {
+    this.buildingService = buildingService;
+    this.roomService = roomService;
+  }
+
+  /**
+   * Creates a new building with a single room of 10 seats.
+   *
+   * @return the created room.
+   */
+  public Room createRoom() {
+    var buildingRequest = new BuildingCreateRequest();
+    buildingRequest.setName("Test Building");
+    buildingRequest.setDescription("Test Building");
+    buildingRequest.setAddress("Test Address");
+    var building = this.buildingService.createBuilding(buildingRequest);
+
+    var roomRequest = new RoomCreateRequest();
+    roomRequest.setName("Test Room");
+    roomRequest.setChemSymbol("Hydrogenium");
+    roomRequest.setBuildingId(building.getId());
+    var seatsCharacteristic = new Characteristic();
+    seatsCharacteristic.setType(Characteristics.SEATS_CHARACTERISTIC);
+    seatsCharacteristic.setValue(10);
+    roomRequest.setCharacteristics(List.of(seatsCharacteristic));
+    return this.roomService.createRoom(roomRequest);
+  }
+}
@@ -0,0 +1,228 @@
+package dev.playo.room.integration.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.BookingPage;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.TestUtils;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.building.data.BuildingEntity;
+import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.room.data.RoomRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingControllerIntegrationTest extends AbstractPostgresContainerTest {
+
+  private static final Instant FIRST_START_TIME = Instant.parse("2024-07-01T08:00:00Z");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @Autowired
+  private RoomRepository roomRepository;
+
+  @Autowired
+  private BuildingRepository buildingRepository;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private List<UUID> bookingIds;
+
+  @BeforeEach
+  void setUp() {
+    var building = TestUtils.createTestBuilding(this.buildingRepository);
+    var room = this.roomRepository.save(TestUtils.createTestRoom(building));
+
+    // one booking per day, created in order of their start time
+    this.bookingIds = new ArrayList<>();
+    for (var day = 0; day < 5; day++) {
+      var booking = TestUtils.createTestBooking(room);
+      booking.setStartTime(FIRST_START_TIME.plus(day, ChronoUnit.DAYS));
+      booking.setEndTime(booking.getStartTime().plus(1, ChronoUnit.HOURS));
+      this.bookingIds.add(this.bookingRepository.save(booking).getId());
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("getAllBookings returns all bookings as a single json array in id order")
+  void getAllBookingsReturnsAllBookings() throws Exception {
+    var response = this.mockMvc.perform(get("/bookings"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+    var bookings = this.objectMapper.readValue(response, Booking[].class);
+
+    assertThat(bookings).extracting(Booking::getId).containsExactlyElementsOf(this.bookingIds);
+  }
+
+  @Test
+  @DisplayName("getBookingPage returns all bookings page by page in id order")
+  void getBookingPageReturnsAllBookingsPageByPage() throws Exception {
+    var returnedIds = new ArrayList<UUID>();
+    var pageSizes = new ArrayList<Integer>();
+    UUID cursor = null;
+    do {
+      var requestBuilder = get("/bookings/page").queryParam("limit", "2");
+      if (cursor != null) {
+        requestBuilder.queryParam("cursor", cursor.toString());
+      }
+
+      var response = this.mockMvc.perform(requestBuilder)
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+      var page = this.objectMapper.readValue(response, BookingPage.class);
+      page.getBookings().forEach(booking -> returnedIds.add(booking.getId()));
+      pageSizes.add(page.getBookings().size());
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    assertThat(pageSizes).containsExactly(2, 2, 1);
+    assertThat(returnedIds).containsExactlyElementsOf(this.bookingIds);
+  }
+
+  @Test
+  @DisplayName("getBookingPage only returns bookings overlapping the requested time range")
+  void getBookingPageFiltersByTimeRange() throws Exception {
+    this.mockMvc.perform(get("/bookings/page")
+        .queryParam("from", FIRST_START_TIME.plus(1, ChronoUnit.DAYS).plus(30, ChronoUnit.MINUTES).toString())
+        .queryParam("to", FIRST_START_TIME.plus(3, ChronoUnit.DAYS).toString()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.bookings.length()").value(2))
+      .andExpect(jsonPath("$.bookings[0].id").value(this.bookingIds.get(1).toString()))
+      .andExpect(jsonPath("$.bookings[1].id").value(this.bookingIds.get(2).toString()))
+      .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("getBookingPage rejects a limit above the maximum page size")
+  void getBookingPageRejectsTooLargeLimit() throws Exception {
+    this.mockMvc.perform(get("/bookings/page").queryParam("limit", "1001"))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("streamAllBookings streams all bookings in the time range as a single json array")
+  void streamAllBookingsReturnsAllBookingsInTimeRange() throws Exception {
+    var response = this.mockMvc.perform(get("/bookings/stream")
+        .queryParam("from", FIRST_START_TIME.plus(1, ChronoUnit.DAYS).toString()))
+      .andExpect(status().isOk())
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+    var bookings = this.objectMapper.readValue(response, Booking[].class);
+
+    assertThat(bookings).extracting(Booking::getId).containsExactlyElementsOf(this.bookingIds.subList(1, 5));
+  }
+
+  @Test
+  @DisplayName("streamAllBookings rejects an empty time range before streaming")
+  void streamAllBookingsRejectsEmptyTimeRange() throws Exception {
+    this.mockMvc.perform(get("/bookings/stream")
+        .queryParam("from", FIRST_START_TIME.toString())
+        .queryParam("to", FIRST_START_TIME.toString()))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("exportBookings streams one json object per line")
+  void exportBookingsWritesNdjson() throws Exception {
+    var response = this.mockMvc.perform(get("/bookings/export"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+
+    assertThat(response).endsWith("\n");
+    var lines = response.lines().toList();
+    assertThat(lines).hasSize(5);
+    for (var index = 0; index < lines.size(); index++) {
+      var booking = this.objectMapper.readValue(lines.get(index), Booking.class);
+      assertThat(booking.getId()).isEqualTo(this.bookingIds.get(index));
+    }
+  }
+
+  @Test
+  @DisplayName("exportBookings streams the bookings of the requested building as csv")
+  void exportBookingsWritesCsvOfBuilding() throws Exception {
+    var otherBuilding = new BuildingEntity();
+    otherBuilding.setName("otherBuilding");
+    otherBuilding.setAddress("otherBuildingAddress");
+    otherBuilding = this.buildingRepository.save(otherBuilding);
+    var otherRoom = this.roomRepository.save(TestUtils.createTestRoom(otherBuilding, "otherroom", "Helium"));
+    var otherBooking = TestUtils.createTestBooking(otherRoom);
+    otherBooking.setStartTime(FIRST_START_TIME);
+    otherBooking.setEndTime(FIRST_START_TIME.plus(1, ChronoUnit.HOURS));
+    otherBooking.setStudentGroupIds(Set.of("Group, \"A\""));
+    otherBooking = this.bookingRepository.save(otherBooking);
+
+    var response = this.mockMvc.perform(get("/bookings/export")
+        .queryParam("buildingId", otherBuilding.getId().toString())
+        .queryParam("format", "CSV"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentTypeCompatibleWith("text/csv"))
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+
+    assertThat(response.lines().toList()).containsExactly(
+      "id,room_id,start_time,end_time,lecturer_ids,student_group_names,series_id",
+      "%s,%s,2024-07-01T10:00:00+02:00,2024-07-01T11:00:00+02:00,%s,\"Group, \"\"A\"\"\",".formatted(
+        otherBooking.getId(),
+        otherRoom.getId(),
+        otherBooking.getLecturerIds().iterator().next()));
+  }
+
+  @Test
+  @DisplayName("exportBookings rejects an unknown building before streaming")
+  void exportBookingsRejectsUnknownBuilding() throws Exception {
+    this.mockMvc.perform(get("/bookings/export").queryParam("buildingId", UUID.randomUUID().toString()))
+      .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("exportBookings rejects formats other than NDJSON and CSV")
+  void exportBookingsRejectsJsonFormat() throws Exception {
+    this.mockMvc.perform(get("/bookings/export").queryParam("format", "JSON"))
+      .andExpect(status().isBadRequest());
+  }
+}
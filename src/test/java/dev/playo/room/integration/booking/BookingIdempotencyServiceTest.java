@@ -0,0 +1,244 @@
+package dev.playo.room.integration.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.BookingIdempotencyService;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.idempotency.IdempotencyKeyRepository;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.integration.TestFixtures;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+@EnableWireMock(@ConfigureWireMock(port = 9000))
+@SpringBootTest
+class BookingIdempotencyServiceTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private BookingIdempotencyService bookingIdempotencyService;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private IdempotencyKeyRepository idempotencyKeyRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TestFixtures testFixtures;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("createBooking returns the first booking again when a key is retried")
+  void createBookingReplaysBookingOfRetriedKey() {
+    var room = this.testFixtures.createRoom();
+    var request = this.request(room.getId(), 8, 10);
+
+    var first = this.bookingIdempotencyService.createBooking("retried-key", request);
+    var second = this.bookingIdempotencyService.createBooking("retried-key", request);
+
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(this.bookingRepository.count()).isEqualTo(1);
+    assertThat(this.idempotencyKeyRepository.findById("retried-key"))
+      .hasValueSatisfying(claim -> assertThat(claim.getResponseStatus()).isEqualTo(HttpStatus.OK.value()));
+  }
+
+  @Test
+  @DisplayName("createBooking rejects a key that is reused for a different request")
+  void createBookingRejectsReusedKey() {
+    var room = this.testFixtures.createRoom();
+    this.bookingIdempotencyService.createBooking("reused-key", this.request(room.getId(), 8, 10));
+
+    assertThatThrownBy(() -> this.bookingIdempotencyService.createBooking(
+      "reused-key",
+      this.request(room.getId(), 10, 12)))
+      .isInstanceOf(GeneralProblemException.class)
+      .extracting(exception -> ((GeneralProblemException) exception).getStatus())
+      .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    assertThat(this.bookingRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("createBooking replays the problem of the first request of a key")
+  void createBookingReplaysProblem() {
+    var room = this.testFixtures.createRoom();
+    var existing = this.bookingService.createBooking(this.request(room.getId(), 8, 10));
+    var conflicting = this.request(room.getId(), 9, 11);
+
+    assertThatThrownBy(() -> this.bookingIdempotencyService.createBooking("conflicting-key", conflicting))
+      .isInstanceOf(GeneralProblemException.class)
+      .extracting(exception -> ((GeneralProblemException) exception).getStatus())
+      .isEqualTo(HttpStatus.CONFLICT);
+
+    // the conflict is replayed, even though the request would be successful now
+    this.bookingService.cancelBooking(existing.getId());
+    assertThatThrownBy(() -> this.bookingIdempotencyService.createBooking("conflicting-key", conflicting))
+      .isInstanceOf(GeneralProblemException.class)
+      .extracting(exception -> ((GeneralProblemException) exception).getStatus())
+      .isEqualTo(HttpStatus.CONFLICT);
+  }
+
+  @Test
+  @DisplayName("createBooking creates a single booking for concurrent requests with the same key")
+  void createBookingDeduplicatesConcurrentRequests() throws Exception {
+    var room = this.testFixtures.createRoom();
+    var request = this.request(room.getId(), 8, 10);
+
+    List<Future<Booking>> futures = new ArrayList<>();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var index = 0; index < 10; index++) {
+        futures.add(executor.submit(() -> this.bookingIdempotencyService.createBooking("concurrent-key", request)));
+      }
+    }
+
+    var bookingId = futures.getFirst().get().getId();
+    for (var future : futures) {
+      assertThat(future.get().getId()).isEqualTo(bookingId);
+    }
+    assertThat(this.bookingRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("createBooking replays the result that was stored by another replica")
+  void createBookingReplaysResultOfOtherReplica() {
+    var room = this.testFixtures.createRoom();
+    var request = this.request(room.getId(), 8, 10);
+    var first = this.bookingIdempotencyService.createBooking("replicated-key", request);
+
+    // a second instance does not share the in-memory cache, like the service of another replica
+    var otherReplica = new BookingIdempotencyService(
+      60,
+      30,
+      100,
+      1000,
+      this.bookingService,
+      this.idempotencyKeyRepository,
+      this.transactionTemplate,
+      this.objectMapper);
+    var second = otherReplica.createBooking("replicated-key", request);
+
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(this.bookingRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("createBooking takes over a claim whose lease ran out without a result")
+  void createBookingTakesOverStaleClaim() {
+    var room = this.testFixtures.createRoom();
+    var request = this.request(room.getId(), 8, 10);
+
+    // claimed by a replica that stopped before it stored the result
+    this.transactionTemplate.execute(_ -> this.idempotencyKeyRepository.claim(
+      "stale-key",
+      "hash-of-stopped-replica",
+      UUID.randomUUID(),
+      Instant.now().plusMillis(200)));
+
+    var booking = this.bookingIdempotencyService.createBooking("stale-key", request);
+
+    assertThat(this.bookingRepository.count()).isEqualTo(1);
+    assertThat(this.idempotencyKeyRepository.findById("stale-key")).hasValueSatisfying(claim -> {
+      assertThat(claim.getResponseStatus()).isEqualTo(HttpStatus.OK.value());
+      // the finished claim is kept for the time to live of the key, not only for the lease
+      assertThat(claim.getExpiresAt()).isAfter(Instant.now().plus(Duration.ofHours(1)));
+    });
+    assertThat(this.bookingIdempotencyService.createBooking("stale-key", request).getId())
+      .isEqualTo(booking.getId());
+  }
+
+  @Test
+  @DisplayName("a request that lost its claim to another request neither stores a result nor releases the claim")
+  void lostClaimIsNeitherCompletedNorReleased() throws InterruptedException {
+    var lostToken = UUID.randomUUID();
+    var takenOverToken = UUID.randomUUID();
+    this.transactionTemplate.execute(_ -> this.idempotencyKeyRepository.claim(
+      "lost-key",
+      "hash",
+      lostToken,
+      Instant.now().plusMillis(50)));
+    Thread.sleep(100);
+    var takenOver = this.transactionTemplate.execute(_ -> this.idempotencyKeyRepository.claim(
+      "lost-key",
+      "hash",
+      takenOverToken,
+      Instant.now().plusSeconds(30)));
+    assertThat(takenOver).isEqualTo(1);
+
+    var completed = this.transactionTemplate.execute(_ -> this.idempotencyKeyRepository.complete(
+      "lost-key",
+      lostToken,
+      HttpStatus.OK.value(),
+      "{}",
+      Instant.now().plusSeconds(60)));
+    this.transactionTemplate.executeWithoutResult(_ -> this.idempotencyKeyRepository.release("lost-key", lostToken));
+
+    assertThat(completed).isZero();
+    assertThat(this.idempotencyKeyRepository.findById("lost-key")).hasValueSatisfying(claim -> {
+      assertThat(claim.getClaimToken()).isEqualTo(takenOverToken);
+      assertThat(claim.getResponseStatus()).isNull();
+    });
+  }
+
+  @Test
+  @DisplayName("a booking is rolled back if its result cannot be stored in the same transaction")
+  void bookingIsRolledBackWithoutStoredResult() {
+    var room = this.testFixtures.createRoom();
+    var request = this.request(room.getId(), 8, 10);
+
+    assertThatThrownBy(() -> this.bookingService.createBooking(request, _ -> {
+      throw new IllegalStateException("the claim was lost");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(this.bookingRepository.count()).isZero();
+    assertThat(this.bookingService.createBooking(request).getRoomId()).isEqualTo(room.getId());
+  }
+
+  private RoomBookingRequest request(UUID roomId, int startHour, int endHour) {
+    var request = new RoomBookingRequest();
+    request.setRoomId(roomId);
+    request.setStartTime(LocalDateTime.of(2024, 7, 1, startHour, 0).atOffset(ZoneOffset.UTC));
+    request.setEndTime(LocalDateTime.of(2024, 7, 1, endHour, 0).atOffset(ZoneOffset.UTC));
+    request.setLecturerIds(Set.of(UUID.randomUUID()));
+    request.setGroupSize(5);
+    return request;
+  }
+}
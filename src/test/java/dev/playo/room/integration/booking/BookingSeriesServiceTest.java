@@ -0,0 +1,110 @@
+package dev.playo.room.integration.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.BookingRecurrence;
+import dev.playo.generated.roommanagement.model.InquiryWindow;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.generated.roommanagement.model.RoomBookingSeriesRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.BookingSeriesService;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.integration.TestFixtures;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+@EnableWireMock(@ConfigureWireMock(port = 9000))
+@SpringBootTest
+class BookingSeriesServiceTest extends AbstractPostgresContainerTest {
+
+  private static final LocalDateTime FIRST_START = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+  @Autowired
+  private BookingSeriesService bookingSeriesService;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private TestFixtures testFixtures;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("createSeries books every occurrence and links the bookings to the series")
+  void createSeriesBooksEveryOccurrence() {
+    var room = this.testFixtures.createRoom();
+
+    var series = this.bookingSeriesService.createSeries(this.seriesRequest(room.getId(), LocalDate.of(2030, 4, 1)));
+
+    assertThat(series.getRecurrence()).isEqualTo(BookingRecurrence.WEEKLY);
+    assertThat(series.getBookings()).hasSize(4);
+    assertThat(series.getBookings()).extracting(Booking::getSeriesId).containsOnly(series.getId());
+    assertThat(this.bookingRepository.count()).isEqualTo(4);
+  }
+
+  @Test
+  @DisplayName("createSeries reports all conflicting occurrences at once and books none of them")
+  void createSeriesReportsAllConflicts() {
+    var room = this.testFixtures.createRoom();
+    for (var week : List.of(1, 3)) {
+      var booking = new RoomBookingRequest();
+      booking.setRoomId(room.getId());
+      booking.setStartTime(FIRST_START.plusWeeks(week).plusMinutes(30).atOffset(ZoneOffset.UTC));
+      booking.setEndTime(FIRST_START.plusWeeks(week).plusHours(1).atOffset(ZoneOffset.UTC));
+      booking.setLecturerIds(Set.of(UUID.randomUUID()));
+      booking.setGroupSize(5);
+      this.bookingService.createBooking(booking);
+    }
+
+    var request = this.seriesRequest(room.getId(), LocalDate.of(2030, 6, 1));
+    var exception = assertThrows(GeneralProblemException.class, () -> this.bookingSeriesService.createSeries(request));
+
+    assertThat(exception.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+    assertThat(exception.getProperties().get("conflicts"))
+      .asInstanceOf(InstanceOfAssertFactories.list(InquiryWindow.class))
+      .extracting(InquiryWindow::getStartTime)
+      .extracting(startTime -> startTime.atZoneSameInstant(ZoneOffset.UTC).toLocalDateTime())
+      .containsExactly(FIRST_START.plusWeeks(1), FIRST_START.plusWeeks(3));
+    assertThat(this.bookingRepository.count()).isEqualTo(2);
+  }
+
+  private RoomBookingSeriesRequest seriesRequest(UUID roomId, LocalDate until) {
+    var request = new RoomBookingSeriesRequest();
+    request.setRoomId(roomId);
+    request.setStartTime(FIRST_START.atOffset(ZoneOffset.UTC));
+    request.setEndTime(FIRST_START.plusHours(2).atOffset(ZoneOffset.UTC));
+    request.setRecurrence(BookingRecurrence.WEEKLY);
+    request.setUntil(until);
+    request.setLecturerIds(Set.of(UUID.randomUUID()));
+    request.setGroupSize(5);
+    return request;
+  }
+}
@@ -0,0 +1,114 @@
+package dev.playo.room.integration.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.generated.roommanagement.model.BulkBookingResult;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.booking.BulkBookingService;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.integration.TestFixtures;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+@EnableWireMock(@ConfigureWireMock(port = 9000))
+@SpringBootTest
+class BulkBookingServiceTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private BulkBookingService bulkBookingService;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private TestFixtures testFixtures;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("createBookings creates all valid bookings and reports conflicts and invalid requests")
+  void createBookingsReportsEveryRequest() {
+    var room = this.testFixtures.createRoom();
+    this.bookingService.createBooking(this.request(room.getId(), 8, 10));
+
+    var response = this.bulkBookingService.createBookings(List.of(
+      this.request(room.getId(), 10, 12),
+      this.request(room.getId(), 9, 11),
+      this.request(room.getId(), 11, 13),
+      this.request(room.getId(), 14, 13),
+      this.request(UUID.randomUUID(), 14, 15),
+      this.request(room.getId(), 12, 14)));
+
+    assertThat(response.getCreated()).isEqualTo(2);
+    assertThat(response.getConflicts()).isEqualTo(2);
+    assertThat(response.getInvalid()).isEqualTo(2);
+    assertThat(response.getResults())
+      .extracting(BulkBookingResult::getStatus)
+      .containsExactly(
+        BulkBookingResult.StatusEnum.CREATED,
+        BulkBookingResult.StatusEnum.CONFLICT,
+        BulkBookingResult.StatusEnum.CONFLICT,
+        BulkBookingResult.StatusEnum.INVALID,
+        BulkBookingResult.StatusEnum.INVALID,
+        BulkBookingResult.StatusEnum.CREATED);
+    assertThat(response.getResults()).extracting(BulkBookingResult::getIndex).containsExactly(0, 1, 2, 3, 4, 5);
+
+    var created = response.getResults().getFirst().getBooking();
+    assertThat(created.getRoomId()).isEqualTo(room.getId());
+    assertThat(this.bookingRepository.findById(created.getId())).isPresent();
+    assertThat(this.bookingRepository.count()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("createBookings inserts more bookings than fit into a single chunk")
+  void createBookingsInsertsMultipleChunks() {
+    var room = this.testFixtures.createRoom();
+    var start = LocalDateTime.of(2024, 7, 1, 10, 0);
+    List<RoomBookingRequest> requests = new ArrayList<>();
+    for (var day = 0; day < 600; day++) {
+      var request = new RoomBookingRequest();
+      request.setRoomId(room.getId());
+      request.setStartTime(start.plusDays(day).atOffset(ZoneOffset.UTC));
+      request.setEndTime(start.plusDays(day).plusHours(1).atOffset(ZoneOffset.UTC));
+      request.setGroupSize(5);
+      requests.add(request);
+    }
+
+    var response = this.bulkBookingService.createBookings(requests);
+    assertThat(response.getCreated()).isEqualTo(600);
+    assertThat(this.bookingRepository.count()).isEqualTo(600);
+  }
+
+  private RoomBookingRequest request(UUID roomId, int startHour, int endHour) {
+    var request = new RoomBookingRequest();
+    request.setRoomId(roomId);
+    request.setStartTime(LocalDateTime.of(2024, 7, 1, startHour, 0).atOffset(ZoneOffset.UTC));
+    request.setEndTime(LocalDateTime.of(2024, 7, 1, endHour, 0).atOffset(ZoneOffset.UTC));
+    request.setLecturerIds(Set.of(UUID.randomUUID()));
+    request.setGroupSize(5);
+    return request;
+  }
+}
@@ -0,0 +1,87 @@
+package dev.playo.room.integration.booking;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.integration.TestFixtures;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+@EnableWireMock(@ConfigureWireMock(port = 9000))
+@SpringBootTest(properties = {
+  "room.client.group.read-timeout-millis=200",
+  "room.client.group.batch-timeout-millis=500",
+  "room.client.group.circuit-breaker.window-size=10",
+  "room.client.group.circuit-breaker.minimum-calls=5",
+  "room.client.group.circuit-breaker.open-millis=60000"
+})
+class DegradedGroupServiceLatencyTest extends AbstractPostgresContainerTest {
+
+  private static final int BOOKINGS = 100;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private TestFixtures testFixtures;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("createBooking stays fast while the group service responds slower than the read timeout")
+  void createBookingLatencyStaysBoundedWhileGroupServiceIsDegraded() {
+    // the same group as in the default stub mapping, but answered after several seconds
+    stubFor(get(urlPathMatching("/group/.*"))
+      .atPriority(1)
+      .willReturn(okJson("{\"name\":\"GroupA\",\"students_count\":1}").withFixedDelay(3000)));
+    var room = this.testFixtures.createRoom();
+
+    var latenciesMillis = new long[BOOKINGS];
+    for (var index = 0; index < BOOKINGS; index++) {
+      var start = LocalDateTime.of(2024, 7, 1, 8, 0).plusDays(index);
+      var request = new RoomBookingRequest();
+      request.setRoomId(room.getId());
+      request.setStartTime(start.atOffset(ZoneOffset.UTC));
+      request.setEndTime(start.plusHours(1).atOffset(ZoneOffset.UTC));
+      request.setLecturerIds(Set.of(UUID.randomUUID()));
+      // a new group for every booking, so that no booking is answered from the cache
+      request.setStudentGroupNames(Set.of("Degraded" + index));
+
+      var startNanos = System.nanoTime();
+      this.bookingService.createBooking(request);
+      latenciesMillis[index] = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    Arrays.sort(latenciesMillis);
+    var p99 = latenciesMillis[(int) Math.ceil(BOOKINGS * 0.99) - 1];
+    assertThat(p99).isLessThan(1000);
+    assertThat(latenciesMillis[BOOKINGS / 2]).isLessThan(100);
+    // the circuit breaker stops calling the group service after a few timed out calls
+    assertThat(findAll(getRequestedFor(urlPathMatching("/group/.*")))).hasSizeLessThan(10);
+  }
+}
@@ -0,0 +1,77 @@
+package dev.playo.room.integration.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.RoomLocks;
+import dev.playo.room.exception.GeneralProblemException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class RoomLocksIntegrationTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  /**
+   * Creates the locks of a simulated replica, every replica has its own local stripes.
+   */
+  private RoomLocks replica() {
+    return new RoomLocks(true, true, 1024, 200, this.jdbcTemplate, this.transactionTemplate);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  @DisplayName("advisory locks serialize the same room across replicas but not unrelated rooms")
+  void advisoryLocksSerializeRoomsAcrossReplicas() throws Exception {
+    var firstReplica = this.replica();
+    var secondReplica = this.replica();
+    var lockedRoom = UUID.randomUUID();
+    var holding = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var holder = executor.submit(() -> firstReplica.withRoomsLocked(List.of(lockedRoom), () -> {
+        holding.countDown();
+        await(release);
+        return null;
+      }));
+      assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+      var ex = assertThrows(
+        GeneralProblemException.class,
+        () -> secondReplica.withRoomsLocked(List.of(lockedRoom), () -> null));
+      assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+      assertEquals("done", secondReplica.withRoomsLocked(List.of(UUID.randomUUID()), () -> "done"));
+
+      release.countDown();
+      holder.get(5, TimeUnit.SECONDS);
+    }
+
+    // the advisory lock is released with the transaction of the first replica
+    assertEquals("done", secondReplica.withRoomsLocked(List.of(lockedRoom), () -> "done"));
+  }
+}
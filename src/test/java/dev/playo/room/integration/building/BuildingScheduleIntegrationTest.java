@@ -0,0 +1,116 @@
+package dev.playo.room.integration.building;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.generated.roommanagement.model.RoomCreateRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.building.BuildingService;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.room.RoomService;
+import dev.playo.room.room.data.RoomRepository;
+import dev.playo.room.util.Characteristics;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class BuildingScheduleIntegrationTest extends AbstractPostgresContainerTest {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 7, 1);
+
+  @Autowired
+  private BuildingService buildingService;
+
+  @Autowired
+  private RoomService roomService;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private RoomRepository roomRepository;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  private Room room;
+
+  @BeforeEach
+  void setUp() {
+    var buildingRequest = new BuildingCreateRequest();
+    buildingRequest.setName("Schedule");
+    buildingRequest.setDescription("Test Building");
+    buildingRequest.setAddress("Test Address");
+    var building = this.buildingService.createBuilding(buildingRequest);
+
+    var roomRequest = new RoomCreateRequest();
+    roomRequest.setName("Schedule Room");
+    roomRequest.setChemSymbol("Ferrum");
+    roomRequest.setBuildingId(building.getId());
+    roomRequest.setCharacteristics(List.of(new Characteristic(Characteristics.SEATS_CHARACTERISTIC, 10)));
+    this.room = this.roomService.createRoom(roomRequest);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("the day of a booking is determined in Europe/Berlin, not in UTC")
+  void dayBoundsFollowBerlinTime() {
+    // 00:30 until 01:30 on the following day in Berlin
+    var booking = new BookingEntity();
+    booking.setRoom(this.roomRepository.getReferenceById(this.room.getId()));
+    booking.setStartTime(Instant.parse("2024-07-01T22:30:00Z"));
+    booking.setEndTime(Instant.parse("2024-07-01T23:30:00Z"));
+    var saved = this.bookingRepository.save(booking);
+
+    assertThat(this.schedule(DAY)).isEmpty();
+    assertThat(this.schedule(DAY.plusDays(1))).extracting(Booking::getId).containsExactly(saved.getId());
+  }
+
+  @Test
+  @DisplayName("the cached schedule of a day includes created bookings and drops cancelled ones")
+  void cachedScheduleFollowsBookingWrites() {
+    assertThat(this.schedule(DAY)).isEmpty();
+
+    var request = new RoomBookingRequest();
+    request.setRoomId(this.room.getId());
+    request.setStartTime(OffsetDateTime.parse("2024-07-01T10:00:00+02:00"));
+    request.setEndTime(OffsetDateTime.parse("2024-07-01T12:00:00+02:00"));
+    request.setLecturerIds(Set.of(UUID.randomUUID()));
+    request.setGroupSize(5);
+    var created = this.bookingService.createBooking(request);
+
+    assertThat(this.schedule(DAY)).extracting(Booking::getId).containsExactly(created.getId());
+    assertThat(this.schedule(DAY.plusDays(1))).isEmpty();
+
+    this.bookingService.cancelBooking(created.getId());
+    assertThat(this.schedule(DAY)).isEmpty();
+  }
+
+  private List<Booking> schedule(LocalDate date) {
+    return this.buildingService.allBookingsByBuildingIdAndDate(this.room.getBuildingId(), date);
+  }
+}
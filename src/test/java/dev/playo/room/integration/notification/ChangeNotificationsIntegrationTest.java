@@ -0,0 +1,121 @@
+package dev.playo.room.integration.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.notification.ChangeListener;
+import dev.playo.room.notification.ChangeNotifications;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.NonNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class ChangeNotificationsIntegrationTest extends AbstractPostgresContainerTest {
+
+  private static final String TOPIC = "test";
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+  private ChangeNotifications publisher;
+  private ChangeNotifications otherReplica;
+
+  /**
+   * Creates the notifications of a simulated replica, every replica listens on its own connection.
+   */
+  private ChangeNotifications replica() {
+    var notifications = new ChangeNotifications(this.dataSource, this.jdbcTemplate, 50, 100);
+    notifications.start();
+    return notifications;
+  }
+
+  @BeforeEach
+  void setUp() {
+    this.publisher = this.replica();
+    this.otherReplica = this.replica();
+    this.otherReplica.subscribe(TOPIC, new ChangeListener() {
+      @Override
+      public void changed(@NonNull String payload) {
+        ChangeNotificationsIntegrationTest.this.received.add(payload);
+      }
+
+      @Override
+      public void missedChanges() {
+      }
+    });
+
+    // the other replica starts listening in the background, changes published before are not delivered to it
+    for (var attempt = 0; attempt < 50 && this.poll(100) == null; attempt++) {
+      this.publisher.publish(TOPIC, "ready");
+    }
+    this.poll(200);
+    this.received.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.publisher.stop();
+    this.otherReplica.stop();
+  }
+
+  @Test
+  @DisplayName("a change is delivered to the other replicas once its transaction committed")
+  void changeIsDeliveredAfterCommit() {
+    this.transactionTemplate.executeWithoutResult(_ -> {
+      this.publisher.publish(TOPIC, "first|change");
+      assertNull(this.poll(200));
+    });
+
+    assertEquals("first|change", this.poll(5000));
+  }
+
+  @Test
+  @DisplayName("a change of a rolled back transaction is not delivered")
+  void rolledBackChangeIsNotDelivered() {
+    this.transactionTemplate.executeWithoutResult(status -> {
+      this.publisher.publish(TOPIC, "rolled back");
+      status.setRollbackOnly();
+    });
+    this.publisher.publish(TOPIC, "committed");
+
+    assertEquals("committed", this.poll(5000));
+  }
+
+  @Test
+  @DisplayName("a replica does not receive the changes it published itself")
+  void ownChangesAreNotDelivered() {
+    this.otherReplica.publish(TOPIC, "own");
+    this.publisher.publish(TOPIC, "other");
+
+    assertEquals("other", this.poll(5000));
+    assertNull(this.poll(200));
+  }
+
+  private String poll(long timeoutMillis) {
+    try {
+      return this.received.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(exception);
+    }
+  }
+}
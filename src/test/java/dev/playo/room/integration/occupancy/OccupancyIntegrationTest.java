@@ -0,0 +1,192 @@
+package dev.playo.room.integration.occupancy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
+import dev.playo.generated.roommanagement.model.BuildingOccupancy;
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.DayOccupancy;
+import dev.playo.generated.roommanagement.model.HourOfWeekOccupancy;
+import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.generated.roommanagement.model.RoomCreateRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.building.BuildingService;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.occupancy.OccupancyRollup;
+import dev.playo.room.occupancy.OccupancyService;
+import dev.playo.room.room.RoomService;
+import dev.playo.room.room.data.RoomRepository;
+import dev.playo.room.util.Characteristics;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class OccupancyIntegrationTest extends AbstractPostgresContainerTest {
+
+  // a monday
+  private static final LocalDate DAY = LocalDate.of(2024, 7, 1);
+
+  @Autowired
+  private OccupancyService occupancyService;
+
+  @Autowired
+  private BuildingService buildingService;
+
+  @Autowired
+  private RoomService roomService;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private OccupancyRollup occupancyRollup;
+
+  @Autowired
+  private RoomRepository roomRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  private Room room;
+
+  @BeforeEach
+  void setUp() {
+    var buildingRequest = new BuildingCreateRequest();
+    buildingRequest.setName("Occupancy");
+    buildingRequest.setDescription("Test Building");
+    buildingRequest.setAddress("Test Address");
+    var building = this.buildingService.createBuilding(buildingRequest);
+
+    var roomRequest = new RoomCreateRequest();
+    roomRequest.setName("Occupancy Room");
+    roomRequest.setChemSymbol("Cobalt");
+    roomRequest.setBuildingId(building.getId());
+    roomRequest.setCharacteristics(List.of(new Characteristic(Characteristics.SEATS_CHARACTERISTIC, 10)));
+    this.room = this.roomService.createRoom(roomRequest);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("the occupancy of a room follows created and cancelled bookings by local hour of the week")
+  void roomOccupancyFollowsBookings() {
+    var booking = this.book(
+      OffsetDateTime.parse("2024-07-01T10:00:00+02:00"),
+      OffsetDateTime.parse("2024-07-01T11:30:00+02:00"));
+
+    var occupancy = this.occupancyService.roomOccupancy(this.room.getId(), DAY, DAY.plusDays(6));
+    assertThat(occupancy.getHours()).hasSize(7 * 24);
+    var mondayTen = this.hourOfWeek(occupancy.getHours(), 1, 10);
+    assertThat(mondayTen.getOccupiedMinutes()).isEqualTo(60L);
+    assertThat(mondayTen.getUtilisation()).isEqualTo(1.0);
+    var mondayEleven = this.hourOfWeek(occupancy.getHours(), 1, 11);
+    assertThat(mondayEleven.getOccupiedMinutes()).isEqualTo(30L);
+    assertThat(mondayEleven.getUtilisation()).isEqualTo(0.5);
+    assertThat(occupancy.getHours()).extracting(HourOfWeekOccupancy::getOccupiedMinutes).containsOnly(0L, 30L, 60L);
+
+    this.bookingService.cancelBooking(booking);
+    var cancelled = this.occupancyService.roomOccupancy(this.room.getId(), DAY, DAY.plusDays(6));
+    assertThat(cancelled.getHours()).extracting(HourOfWeekOccupancy::getOccupiedMinutes).containsOnly(0L);
+  }
+
+  @Test
+  @DisplayName("the occupancy of a building sums up the bookings of its rooms by local day")
+  void buildingOccupancySumsUpDays() {
+    // 23:00 until 01:00 in Berlin, one hour on each day, which is outside the booking hours and written directly
+    var booking = new BookingEntity();
+    booking.setRoom(this.roomRepository.getReferenceById(this.room.getId()));
+    booking.setStartTime(Instant.parse("2024-07-01T21:00:00Z"));
+    booking.setEndTime(Instant.parse("2024-07-01T23:00:00Z"));
+    this.transactionTemplate.executeWithoutResult(_ -> this.occupancyRollup.bookingsCreated(List.of(booking)));
+    this.book(OffsetDateTime.parse("2024-07-02T09:00:00+02:00"), OffsetDateTime.parse("2024-07-02T10:00:00+02:00"));
+
+    var occupancy = this.occupancyService.buildingOccupancy(DAY, DAY.plusDays(2));
+    var building = occupancy.getBuildings().stream()
+      .filter(candidate -> candidate.getBuildingId().equals(this.room.getBuildingId()))
+      .findAny()
+      .map(BuildingOccupancy::getDays)
+      .orElseThrow();
+    assertThat(building).extracting(DayOccupancy::getDate).containsExactly(DAY, DAY.plusDays(1), DAY.plusDays(2));
+    assertThat(building).extracting(DayOccupancy::getOccupiedMinutes).containsExactly(60L, 120L, 0L);
+  }
+
+  @Test
+  @DisplayName("the occupancy cannot be requested for more than 366 days or for days in the wrong order")
+  void invalidDaysAreRejected() {
+    var tooLong = assertThrows(
+      GeneralProblemException.class,
+      () -> this.occupancyService.buildingOccupancy(DAY, DAY.plusDays(367)));
+    assertEquals(HttpStatus.BAD_REQUEST, tooLong.getStatus());
+
+    var reversed = assertThrows(
+      GeneralProblemException.class,
+      () -> this.occupancyService.roomOccupancy(this.room.getId(), DAY, DAY.minusDays(1)));
+    assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatus());
+
+    var unknownRoom = assertThrows(
+      GeneralProblemException.class,
+      () -> this.occupancyService.roomOccupancy(UUID.randomUUID(), DAY, DAY));
+    assertEquals(HttpStatus.NOT_FOUND, unknownRoom.getStatus());
+  }
+
+  @Test
+  @DisplayName("the occupancy of a room created through another replica is answered before the catalog knows it")
+  void roomMissingInCatalogIsFound() {
+    this.occupancyService.roomOccupancy(this.room.getId(), DAY, DAY);
+    // written like another replica would, this replica does not rebuild its catalog
+    var roomId = UUID.randomUUID();
+    this.jdbcTemplate.update(
+      "INSERT INTO rooms (id, building_id, name, chem_symbol, characteristics) VALUES (?, ?, 'r', 'r', '[]')",
+      roomId,
+      this.room.getBuildingId());
+
+    var occupancy = this.occupancyService.roomOccupancy(roomId, DAY, DAY);
+
+    assertThat(occupancy.getHours()).extracting(HourOfWeekOccupancy::getOccupiedMinutes).containsOnly(0L);
+  }
+
+  private UUID book(OffsetDateTime startTime, OffsetDateTime endTime) {
+    var request = new RoomBookingRequest();
+    request.setRoomId(this.room.getId());
+    request.setStartTime(startTime);
+    request.setEndTime(endTime);
+    request.setLecturerIds(Set.of(UUID.randomUUID()));
+    request.setGroupSize(5);
+    return this.bookingService.createBooking(request).getId();
+  }
+
+  private HourOfWeekOccupancy hourOfWeek(List<HourOfWeekOccupancy> hours, int dayOfWeek, int hour) {
+    return hours.stream()
+      .filter(candidate -> candidate.getDayOfWeek() == dayOfWeek && candidate.getHour() == hour)
+      .findAny()
+      .orElseThrow();
+  }
+}
@@ -0,0 +1,146 @@
+package dev.playo.room.integration.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.availability.DatabaseAvailabilityEngine;
+import dev.playo.room.room.data.RoomEntity;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Compares the latency of the allocation based anti-join with the previous {@code NOT IN} query on the bookings table
+ * on a dataset with more than one million allocations. Run using: ./gradlew test -Pbenchmark --tests "*Benchmark"
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class AvailabilityQueryBenchmark extends AbstractPostgresContainerTest {
+
+  private static final int ROOM_COUNT = 500;
+  private static final int BOOKINGS_PER_ROOM = 2_100;
+  private static final int WARMUP_ITERATIONS = 10;
+  private static final int MEASURED_ITERATIONS = 50;
+  private static final OffsetDateTime BASE_TIME = OffsetDateTime.of(2030, 1, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private DatabaseAvailabilityEngine availabilityEngine;
+
+  @BeforeEach
+  void seedAllocations() {
+    this.clearTables();
+
+    var buildingId = UUID.randomUUID();
+    this.jdbcTemplate.update("INSERT INTO buildings (id, name, address) VALUES (?, 'bench', 'bench')", buildingId);
+    this.jdbcTemplate.update("""
+      INSERT INTO rooms (id, building_id, name, chem_symbol, characteristics)
+      SELECT gen_random_uuid(), ?, 'r' || i, 'c' || i, '[{"type": "SEATS", "value": 30}]'::jsonb
+      FROM generate_series(1, ?) AS i
+      """, buildingId, ROOM_COUNT);
+
+    // every room gets one booking of one hour every two hours, the slot index is shifted per room so that inquiries
+    // always hit a mix of free and occupied rooms
+    this.jdbcTemplate.update("""
+      INSERT INTO bookings (id, start_time, end_time, room_id)
+      SELECT gen_random_uuid(),
+             CAST(? AS timestamptz) + (slot * 2 + room_number % 2) * interval '1 hour',
+             CAST(? AS timestamptz) + (slot * 2 + room_number % 2 + 1) * interval '1 hour',
+             room.id
+      FROM (SELECT id, row_number() OVER (ORDER BY id) AS room_number FROM rooms) room,
+           generate_series(0, ? - 1) AS slot
+      """, BASE_TIME, BASE_TIME, BOOKINGS_PER_ROOM);
+    this.jdbcTemplate.update("""
+      INSERT INTO booking_allocations (booking_id, room_id, start_time, end_time)
+      SELECT id, room_id, start_time, end_time FROM bookings
+      """);
+    this.jdbcTemplate.execute("ANALYZE rooms");
+    this.jdbcTemplate.execute("ANALYZE bookings");
+    this.jdbcTemplate.execute("ANALYZE booking_allocations");
+
+    var allocations = this.jdbcTemplate.queryForObject("SELECT count(*) FROM booking_allocations", Long.class);
+    assertThat(allocations).isGreaterThanOrEqualTo(1_000_000L);
+  }
+
+  @AfterEach
+  void clearTables() {
+    this.jdbcTemplate.update("DELETE FROM bookings");
+    this.jdbcTemplate.update("DELETE FROM rooms");
+    this.jdbcTemplate.update("DELETE FROM buildings");
+  }
+
+  @Test
+  void compareAllocationAntiJoinWithBookingsQuery() {
+    var startTime = BASE_TIME.plusDays(40).toInstant();
+    var endTime = startTime.plus(90, ChronoUnit.MINUTES);
+
+    var legacyIds = this.legacyQuery(startTime, endTime).stream().map(RoomEntity::getId).toList();
+    var engineIds = this.availabilityEngine.findAvailableRooms(startTime, endTime, List.of())
+      .stream()
+      .map(RoomEntity::getId)
+      .toList();
+    assertThat(engineIds).containsExactlyInAnyOrderElementsOf(legacyIds);
+
+    var legacyMicros = this.measure(() -> this.legacyQuery(startTime, endTime));
+    var engineMicros = this.measure(() -> this.availabilityEngine.findAvailableRooms(startTime, endTime, List.of()));
+    log.info(
+      "Availability query over 1M+ allocations: NOT IN p50={}us p95={}us, anti-join p50={}us p95={}us",
+      percentile(legacyMicros, 50),
+      percentile(legacyMicros, 95),
+      percentile(engineMicros, 50),
+      percentile(engineMicros, 95));
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<RoomEntity> legacyQuery(Instant startTime, Instant endTime) {
+    var query = this.entityManager.createNativeQuery("""
+      SELECT r.* FROM rooms r WHERE r.id NOT IN (SELECT b.room_id FROM bookings b
+      WHERE b.start_time < :endTime AND b.end_time > :startTime)
+      """, RoomEntity.class);
+    query.setParameter("startTime", startTime);
+    query.setParameter("endTime", endTime);
+    return query.getResultList();
+  }
+
+  private long[] measure(Supplier<List<RoomEntity>> query) {
+    for (var iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+      query.get();
+    }
+
+    var timings = new long[MEASURED_ITERATIONS];
+    for (var iteration = 0; iteration < MEASURED_ITERATIONS; iteration++) {
+      var start = System.nanoTime();
+      query.get();
+      timings[iteration] = (System.nanoTime() - start) / 1_000;
+      this.entityManager.clear();
+    }
+
+    Arrays.sort(timings);
+    return timings;
+  }
+
+  private static long percentile(long[] sortedTimings, int percentile) {
+    var index = (int) Math.ceil(percentile / 100.0 * sortedTimings.length) - 1;
+    return sortedTimings[Math.max(0, index)];
+  }
+}
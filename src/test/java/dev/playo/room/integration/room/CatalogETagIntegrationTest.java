@@ -0,0 +1,214 @@
+package dev.playo.room.integration.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.playo.generated.roommanagement.model.Building;
+import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.building.BuildingService;
+import dev.playo.room.catalog.CatalogSnapshot;
+import dev.playo.room.catalog.RoomCatalog;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.notification.ChangeNotifications;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class CatalogETagIntegrationTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BuildingService buildingService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private RoomCatalog roomCatalog;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("catalog endpoints answer a matching If-None-Match with 304 without querying the database")
+  void catalogEndpointsAnswerNotModifiedWithoutQueries() throws Exception {
+    var building = this.createBuilding("etagBuilding");
+
+    for (var path : new String[]{"/rooms", "/buildings", "/buildings/%s/rooms".formatted(building.getId())}) {
+      var eTag = this.mockMvc.perform(get(path))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+        .andReturn()
+        .getResponse()
+        .getHeader(HttpHeaders.ETAG);
+      assertThat(eTag).startsWith("\"catalog-");
+
+      var statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+      statistics.clear();
+      var response = this.mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andReturn()
+        .getResponse();
+
+      assertThat(response.getContentLength()).isZero();
+      assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+  }
+
+  @Test
+  @DisplayName("catalog endpoints return the full catalog with a new ETag after a building was created")
+  void catalogEndpointsReturnCatalogAfterChange() throws Exception {
+    var eTag = this.mockMvc.perform(get("/buildings"))
+      .andExpect(status().isOk())
+      .andReturn()
+      .getResponse()
+      .getHeader(HttpHeaders.ETAG);
+
+    this.createBuilding("changedBuilding");
+
+    var newETag = this.mockMvc.perform(get("/buildings").header(HttpHeaders.IF_NONE_MATCH, eTag))
+      .andExpect(status().isOk())
+      .andReturn()
+      .getResponse()
+      .getHeader(HttpHeaders.ETAG);
+    assertThat(newETag).isNotEqualTo(eTag);
+  }
+
+  @Test
+  @DisplayName("the ETag is derived from the catalog content, another replica with the same catalog sends the same tag")
+  void eTagIsDerivedFromContent() {
+    this.createBuilding("contentBuilding");
+    var snapshot = this.roomCatalog.snapshot();
+
+    // a replica that started later has a different version of the same catalog
+    var otherReplica = CatalogSnapshot.build(
+      snapshot.version() + 7,
+      snapshot.rows(),
+      snapshot.buildings(),
+      this.objectMapper);
+
+    assertThat(otherReplica.eTag()).isEqualTo(snapshot.eTag());
+  }
+
+  @Test
+  @DisplayName("catalog endpoints send the pre-compressed catalog with its own ETag to clients accepting gzip")
+  void catalogEndpointsSendGzipToAcceptingClients() throws Exception {
+    this.createBuilding("gzipBuilding");
+    var plain = this.mockMvc.perform(get("/buildings"))
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+      .andReturn()
+      .getResponse();
+
+    var compressed = this.mockMvc.perform(get("/buildings").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+      .andReturn()
+      .getResponse();
+
+    assertThat(compressed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(plain.getHeader(HttpHeaders.ETAG));
+    assertThat(String.join(",", compressed.getHeaders(HttpHeaders.VARY))).contains(HttpHeaders.ACCEPT_ENCODING);
+    try (var gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed.getContentAsByteArray()))) {
+      assertThat(gzipStream.readAllBytes()).isEqualTo(plain.getContentAsByteArray());
+    }
+
+    this.mockMvc.perform(get("/buildings").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+  }
+
+  @Test
+  @DisplayName("rooms of a building created through another replica are read from the database")
+  void roomsOfBuildingMissingInSnapshotAreReadFromDatabase() throws Exception {
+    this.roomCatalog.snapshot();
+    // written like another replica would, this replica does not rebuild its catalog
+    var buildingId = UUID.randomUUID();
+    var roomId = UUID.randomUUID();
+    this.jdbcTemplate.update("INSERT INTO buildings (id, name, address) VALUES (?, 'remote', 'remote')", buildingId);
+    this.jdbcTemplate.update("""
+      INSERT INTO rooms (id, building_id, name, chem_symbol, characteristics)
+      VALUES (?, ?, 'remote', 'remote', '[]')
+      """, roomId, buildingId);
+
+    this.mockMvc.perform(get("/buildings/{id}/rooms", buildingId))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[*].id").value(contains(roomId.toString())));
+  }
+
+  @Test
+  @DisplayName("the catalog is rebuilt when another replica changed it")
+  void catalogIsRebuiltOnChangeOfOtherReplica() throws InterruptedException {
+    var version = this.roomCatalog.snapshot().version();
+    var otherReplica = new ChangeNotifications(this.dataSource, this.jdbcTemplate, 50, 100);
+    this.transactionTemplate.executeWithoutResult(_ -> {
+      this.jdbcTemplate.update(
+        "INSERT INTO buildings (id, name, address) VALUES (?, 'remote', 'remote')",
+        UUID.randomUUID());
+      otherReplica.publish("room-catalog", "");
+    });
+
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (this.roomCatalog.snapshot().version() == version && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+    }
+
+    assertThat(this.roomCatalog.snapshot().buildings()).extracting(Building::getName).contains("remote");
+  }
+
+  @Test
+  @DisplayName("rooms of an unknown building are answered with 404")
+  void roomsOfUnknownBuildingAreNotFound() throws Exception {
+    this.mockMvc.perform(get("/buildings/{id}/rooms", UUID.randomUUID()))
+      .andExpect(status().isNotFound());
+  }
+
+  private Building createBuilding(String name) {
+    var request = new BuildingCreateRequest();
+    request.setName(name);
+    request.setDescription("Test Building");
+    request.setAddress("Test Address");
+    return this.buildingService.createBuilding(request);
+  }
+}
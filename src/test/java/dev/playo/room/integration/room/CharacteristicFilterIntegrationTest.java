@@ -0,0 +1,145 @@
+package dev.playo.room.integration.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.room.CharacteristicSqlBuilder;
+import jakarta.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Pins the rooms matched by the characteristic filters, which compare the text of the stored values.
+ */
+@SpringBootTest
+class CharacteristicFilterIntegrationTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  private UUID buildingId;
+  private int roomCount;
+
+  private static SearchCharacteristic search(String type, Object value, SearchCharacteristic.OperatorEnum operator) {
+    var characteristic = new SearchCharacteristic();
+    characteristic.setType(type);
+    characteristic.setValue(value);
+    characteristic.setOperator(operator);
+    return characteristic;
+  }
+
+  @BeforeEach
+  void setUp() {
+    this.buildingId = UUID.randomUUID();
+    this.jdbcTemplate.update(
+      "INSERT INTO buildings (id, name, address) VALUES (?, 'filter', 'filter')",
+      this.buildingId);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("an integer value equals the same number stored as number or as text")
+  void integerEqualsNumberAndText() {
+    var number = this.room("[{\"type\": \"SOCKETS\", \"value\": 4}]");
+    var text = this.room("[{\"type\": \"SOCKETS\", \"value\": \"4\"}]");
+    this.room("[{\"type\": \"SOCKETS\", \"value\": 5}]");
+
+    var matched = this.filter(search("SOCKETS", 4, SearchCharacteristic.OperatorEnum.EQUALS));
+
+    assertThat(matched).containsExactlyInAnyOrder(number, text);
+  }
+
+  @Test
+  @DisplayName("a text value equals the number or boolean it spells")
+  void textEqualsNumberAndBoolean() {
+    var number = this.room("[{\"type\": \"SOCKETS\", \"value\": 4}]");
+    var text = this.room("[{\"type\": \"SOCKETS\", \"value\": \"4\"}]");
+    var bool = this.room("[{\"type\": \"PROJECTOR\", \"value\": true}]");
+
+    assertThat(this.filter(search("SOCKETS", "4", SearchCharacteristic.OperatorEnum.EQUALS)))
+      .containsExactlyInAnyOrder(number, text);
+    assertThat(this.filter(search("PROJECTOR", "true", SearchCharacteristic.OperatorEnum.EQUALS)))
+      .containsExactly(bool);
+  }
+
+  @Test
+  @DisplayName("a boolean value equals the same boolean stored as boolean or as text")
+  void booleanEqualsBooleanAndText() {
+    var bool = this.room("[{\"type\": \"PROJECTOR\", \"value\": true}]");
+    var text = this.room("[{\"type\": \"PROJECTOR\", \"value\": \"true\"}]");
+    this.room("[{\"type\": \"PROJECTOR\", \"value\": false}]");
+
+    var matched = this.filter(search("PROJECTOR", true, SearchCharacteristic.OperatorEnum.EQUALS));
+
+    assertThat(matched).containsExactlyInAnyOrder(bool, text);
+  }
+
+  @Test
+  @DisplayName("a null value equals an explicit null and a missing value")
+  void nullEqualsNullAndMissingValue() {
+    var explicit = this.room("[{\"type\": \"NOTE\", \"value\": null}]");
+    var missing = this.room("[{\"type\": \"NOTE\"}]");
+    this.room("[{\"type\": \"NOTE\", \"value\": \"quiet\"}]");
+    this.room("[{\"type\": \"SEATS\", \"value\": 10}]");
+
+    var matched = this.filter(search("NOTE", null, SearchCharacteristic.OperatorEnum.EQUALS));
+
+    assertThat(matched).containsExactlyInAnyOrder(explicit, missing);
+  }
+
+  @Test
+  @DisplayName("seats are compared for seats stored as text and for rooms with multiple seats values")
+  void seatsComparedForTextAndMultipleValues() {
+    var number = this.room("[{\"type\": \"SEATS\", \"value\": 30}]");
+    var text = this.room("[{\"type\": \"SEATS\", \"value\": \"30\"}]");
+    var multiple = this.room("[{\"type\": \"SEATS\", \"value\": 5}, {\"type\": \"SEATS\", \"value\": 40}]");
+    this.room("[{\"type\": \"SEATS\", \"value\": 10}]");
+
+    var matched = this.filter(search("SEATS", 20, SearchCharacteristic.OperatorEnum.GREATER_THAN));
+
+    assertThat(matched).containsExactlyInAnyOrder(number, text, multiple);
+  }
+
+  private UUID room(String characteristics) {
+    var roomId = UUID.randomUUID();
+    var number = this.roomCount++;
+    this.jdbcTemplate.update("""
+      INSERT INTO rooms (id, building_id, name, chem_symbol, characteristics)
+      VALUES (?, ?, ?, ?, CAST(? AS jsonb))
+      """, roomId, this.buildingId, "r" + number, "c" + number, characteristics);
+    return roomId;
+  }
+
+  private Set<UUID> filter(SearchCharacteristic characteristic) {
+    var sql = new StringBuilder("SELECT r.id FROM rooms r WHERE TRUE");
+    Map<String, Object> parameters = new HashMap<>();
+    CharacteristicSqlBuilder.appendFilters(sql, parameters, List.of(characteristic));
+
+    var query = this.entityManager.createNativeQuery(sql.toString());
+    parameters.forEach(query::setParameter);
+    return ((List<?>) query.getResultList()).stream().map(UUID.class::cast).collect(Collectors.toSet());
+  }
+}
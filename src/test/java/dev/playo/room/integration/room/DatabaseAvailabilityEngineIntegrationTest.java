@@ -0,0 +1,131 @@
+package dev.playo.room.integration.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.generated.roommanagement.model.BuildingCreateRequest;
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.generated.roommanagement.model.RoomCreateRequest;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.availability.DatabaseAvailabilityEngine;
+import dev.playo.room.availability.TimeWindow;
+import dev.playo.room.booking.BookingService;
+import dev.playo.room.building.BuildingService;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.room.RoomService;
+import dev.playo.room.room.data.RoomEntity;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class DatabaseAvailabilityEngineIntegrationTest extends AbstractPostgresContainerTest {
+
+  private static final ZoneOffset OFFSET = ZoneOffset.ofHours(2);
+
+  @Autowired
+  private DatabaseAvailabilityEngine availabilityEngine;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private RoomService roomService;
+
+  @Autowired
+  private BuildingService buildingService;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  private UUID createRoom(UUID buildingId, String name, List<UUID> composedOf) {
+    var request = new RoomCreateRequest(
+      name,
+      name,
+      buildingId,
+      List.of(new Characteristic("SEATS", 30)),
+      composedOf);
+    return this.roomService.createRoom(request).getId();
+  }
+
+  private UUID createBuilding() {
+    var buildingRequest = new BuildingCreateRequest();
+    buildingRequest.setName("engine");
+    buildingRequest.setAddress("Test Address");
+    return this.buildingService.createBuilding(buildingRequest).getId();
+  }
+
+  private void bookRoom(UUID roomId) {
+    var booking = new RoomBookingRequest();
+    booking.setRoomId(roomId);
+    booking.setStartTime(LocalDateTime.of(2030, 7, 1, 10, 0).atOffset(OFFSET));
+    booking.setEndTime(LocalDateTime.of(2030, 7, 1, 12, 0).atOffset(OFFSET));
+    booking.setLecturerIds(Set.of(UUID.randomUUID()));
+    booking.setStudentGroupNames(Set.of());
+    booking.setGroupSize(10);
+    this.bookingService.createBooking(booking);
+  }
+
+  private static TimeWindow window(int startHour, int endHour) {
+    return new TimeWindow(
+      LocalDateTime.of(2030, 7, 1, startHour, 0).atOffset(OFFSET).toInstant(),
+      LocalDateTime.of(2030, 7, 1, endHour, 0).atOffset(OFFSET).toInstant());
+  }
+
+  @Test
+  @DisplayName("findAvailableRooms excludes the parent and the booked child of a composite room")
+  void findAvailableRoomsRespectsCompositeAllocations() {
+    var buildingId = this.createBuilding();
+    var firstChild = this.createRoom(buildingId, "child1", List.of());
+    var secondChild = this.createRoom(buildingId, "child2", List.of());
+    var parent = this.createRoom(buildingId, "parent", List.of(firstChild, secondChild));
+    var standalone = this.createRoom(buildingId, "standalone", List.of());
+    this.bookRoom(firstChild);
+
+    var overlapping = window(11, 13);
+    var overlappingRooms = this.availabilityEngine.findAvailableRooms(
+      overlapping.startTime(),
+      overlapping.endTime(),
+      List.of());
+    assertThat(overlappingRooms).extracting(RoomEntity::getId).containsExactlyInAnyOrder(secondChild, standalone);
+
+    var adjacent = window(12, 13);
+    var adjacentRooms = this.availabilityEngine.findAvailableRooms(adjacent.startTime(), adjacent.endTime(), List.of());
+    assertThat(adjacentRooms)
+      .extracting(RoomEntity::getId)
+      .containsExactlyInAnyOrder(firstChild, secondChild, parent, standalone);
+  }
+
+  @Test
+  @DisplayName("findAvailableRooms with multiple windows resolves the available rooms per window")
+  void findAvailableRoomsForMultipleWindows() {
+    var buildingId = this.createBuilding();
+    var firstChild = this.createRoom(buildingId, "child1", List.of());
+    var secondChild = this.createRoom(buildingId, "child2", List.of());
+    var parent = this.createRoom(buildingId, "parent", List.of(firstChild, secondChild));
+    var standalone = this.createRoom(buildingId, "standalone", List.of());
+    this.bookRoom(firstChild);
+    this.bookRoom(standalone);
+
+    var result = this.availabilityEngine.findAvailableRooms(List.of(window(11, 13), window(12, 13)), List.of());
+
+    assertThat(result.rooms())
+      .extracting(RoomEntity::getId)
+      .containsExactlyInAnyOrder(firstChild, secondChild, parent, standalone);
+    assertThat(result.availableRoomIds()).hasSize(2);
+    assertThat(result.availableRoomIds().get(0)).containsExactlyInAnyOrder(secondChild);
+    assertThat(result.availableRoomIds().get(1)).containsExactlyInAnyOrder(firstChild, secondChild, parent, standalone);
+  }
+}
@@ -0,0 +1,127 @@
+package dev.playo.room.integration.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.TestUtils;
+import dev.playo.room.building.data.BuildingEntity;
+import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.catalog.RoomCatalog;
+import dev.playo.room.integration.TestCleaner;
+import dev.playo.room.room.data.RoomEntity;
+import dev.playo.room.room.data.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class RoomCatalogQueryCountTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private RoomRepository roomRepository;
+
+  @Autowired
+  private BuildingRepository buildingRepository;
+
+  @Autowired
+  private RoomCatalog roomCatalog;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private TestCleaner testCleaner;
+
+  private BuildingEntity building;
+  private int createdRooms;
+
+  @BeforeEach
+  void setUp() {
+    this.testCleaner.clean();
+    this.building = TestUtils.createTestBuilding(this.buildingRepository);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.testCleaner.clean();
+  }
+
+  @Test
+  @DisplayName("GET /rooms issues the same amount of statements regardless of the amount of rooms")
+  void getRoomsStatementCountIsConstant() throws Exception {
+    this.createCompositeRooms(2);
+    var fewRoomsStatements = this.countStatementsOfGetRooms(8);
+
+    this.createCompositeRooms(30);
+    var manyRoomsStatements = this.countStatementsOfGetRooms(128);
+
+    assertThat(manyRoomsStatements).isEqualTo(fewRoomsStatements);
+    assertThat(manyRoomsStatements).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("GET /rooms?composable=true issues the same amount of statements regardless of the amount of rooms")
+  void getComposableRoomsStatementCountIsConstant() throws Exception {
+    this.createCompositeRooms(2);
+    var fewRoomsStatements = this.countStatementsOfGetRooms(2, "true");
+
+    this.createCompositeRooms(30);
+    var manyRoomsStatements = this.countStatementsOfGetRooms(32, "true");
+
+    assertThat(manyRoomsStatements).isEqualTo(fewRoomsStatements);
+  }
+
+  private long countStatementsOfGetRooms(int expectedRooms) throws Exception {
+    return this.countStatementsOfGetRooms(expectedRooms, "false");
+  }
+
+  private long countStatementsOfGetRooms(int expectedRooms, String composable) throws Exception {
+    var statistics = this.statistics();
+    statistics.clear();
+    // the rooms were written through the repository, which does not rebuild the catalog
+    this.roomCatalog.rebuild();
+    this.mockMvc.perform(get("/rooms").param("composable", composable))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.rooms.length()").value(expectedRooms));
+    return statistics.getPrepareStatementCount();
+  }
+
+  /**
+   * Creates the given amount of composite rooms, each composed of two rooms, and as many standalone rooms.
+   */
+  private void createCompositeRooms(int count) {
+    for (var index = 0; index < count; index++) {
+      this.roomRepository.save(this.nextRoom());
+      var parent = this.roomRepository.save(this.nextRoom());
+      for (var childIndex = 0; childIndex < 2; childIndex++) {
+        var child = this.nextRoom();
+        child.setParent(parent);
+        this.roomRepository.save(child);
+      }
+    }
+  }
+
+  private RoomEntity nextRoom() {
+    this.createdRooms++;
+    return TestUtils.createTestRoom(this.building, "room" + this.createdRooms, "Element" + this.createdRooms);
+  }
+
+  private Statistics statistics() {
+    return this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+}
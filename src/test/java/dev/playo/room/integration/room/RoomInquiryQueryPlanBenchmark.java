@@ -0,0 +1,108 @@
+package dev.playo.room.integration.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.room.CharacteristicSqlBuilder;
+import jakarta.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks that the characteristic filters of room inquiries use the indexes on the rooms table, on a dataset of 50k
+ * rooms. Run using: ./gradlew test -Pbenchmark --tests "*Benchmark"
+ */
+@Tag("benchmark")
+@SpringBootTest
+class RoomInquiryQueryPlanBenchmark extends AbstractPostgresContainerTest {
+
+  private static final int ROOM_COUNT = 50_000;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private static SearchCharacteristic search(String type, Object value, SearchCharacteristic.OperatorEnum operator) {
+    var characteristic = new SearchCharacteristic();
+    characteristic.setType(type);
+    characteristic.setValue(value);
+    characteristic.setOperator(operator);
+    return characteristic;
+  }
+
+  @BeforeEach
+  void seedRooms() {
+    this.clearTables();
+
+    var buildingId = UUID.randomUUID();
+    this.jdbcTemplate.update("INSERT INTO buildings (id, name, address) VALUES (?, 'plan', 'plan')", buildingId);
+    this.jdbcTemplate.update("""
+      INSERT INTO rooms (id, building_id, name, chem_symbol, characteristics)
+      SELECT gen_random_uuid(), ?, 'r' || i, 'c' || i, jsonb_build_array(
+        jsonb_build_object('type', 'SEATS', 'value', i % 300 + 1),
+        jsonb_build_object('type', 'PROJECTOR', 'value', i % 200 = 0),
+        jsonb_build_object('type', 'WHITEBOARD', 'value', i % 2 = 0))
+      FROM generate_series(1, ?) AS i
+      """, buildingId, ROOM_COUNT);
+    this.jdbcTemplate.execute("ANALYZE rooms");
+  }
+
+  @AfterEach
+  void clearTables() {
+    this.jdbcTemplate.update("DELETE FROM bookings");
+    this.jdbcTemplate.update("DELETE FROM rooms");
+    this.jdbcTemplate.update("DELETE FROM buildings");
+  }
+
+  @Test
+  @DisplayName("equality on a characteristic uses the gin index on the characteristics column")
+  void equalityUsesGinIndex() {
+    var characteristics = List.of(search("PROJECTOR", true, SearchCharacteristic.OperatorEnum.EQUALS));
+
+    assertThat(this.explain(characteristics)).contains("idx_rooms_characteristics");
+    assertThat(this.execute(characteristics)).isEqualTo(ROOM_COUNT / 200);
+  }
+
+  @Test
+  @DisplayName("range comparison on seats uses the btree index on the generated seats column")
+  void seatsRangeUsesBtreeIndex() {
+    var characteristics = List.of(search("SEATS", 300, SearchCharacteristic.OperatorEnum.GREATER_THAN_OR_EQUAL));
+
+    assertThat(this.explain(characteristics)).contains("idx_rooms_seats");
+    assertThat(this.execute(characteristics)).isEqualTo(ROOM_COUNT / 300);
+  }
+
+  private String explain(List<SearchCharacteristic> characteristics) {
+    var sql = new StringBuilder("EXPLAIN SELECT r.* FROM rooms r WHERE TRUE");
+    Map<String, Object> parameters = new HashMap<>();
+    CharacteristicSqlBuilder.appendFilters(sql, parameters, characteristics);
+
+    var query = this.entityManager.createNativeQuery(sql.toString());
+    parameters.forEach(query::setParameter);
+    return ((List<?>) query.getResultList()).stream().map(String::valueOf).collect(Collectors.joining("\n"));
+  }
+
+  private int execute(List<SearchCharacteristic> characteristics) {
+    var sql = new StringBuilder("SELECT r.id FROM rooms r WHERE TRUE");
+    Map<String, Object> parameters = new HashMap<>();
+    CharacteristicSqlBuilder.appendFilters(sql, parameters, characteristics);
+
+    var query = this.entityManager.createNativeQuery(sql.toString());
+    parameters.forEach(query::setParameter);
+    return query.getResultList().size();
+  }
+}
@@ -0,0 +1,120 @@
+package dev.playo.room.integration.student;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.playo.room.AbstractPostgresContainerTest;
+import dev.playo.room.student.StudentGroupClient;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+@EnableWireMock(@ConfigureWireMock(port = 9000))
+@SpringBootTest(properties = {
+  "room.client.group.batch-timeout-millis=1000",
+  "room.client.group.cache.refresh-seconds=1",
+  "room.client.group.cache.negative-ttl-seconds=1"
+})
+class StudentGroupClientTest extends AbstractPostgresContainerTest {
+
+  @Autowired
+  private StudentGroupClient studentGroupClient;
+
+  private static void stubGroup(String name, int studentsCount, int delayMillis) {
+    stubFor(get(urlPathEqualTo("/group/" + name))
+      .willReturn(okJson("{\"name\":\"%s\",\"students_count\":%d}".formatted(name, studentsCount))
+        .withFixedDelay(delayMillis)));
+  }
+
+  @Test
+  @DisplayName("getStudentGroupsByNames requests distinct groups once and concurrently")
+  void getStudentGroupsByNamesRequestsConcurrently() {
+    stubGroup("ParallelA", 10, 400);
+    stubGroup("ParallelB", 20, 400);
+    stubGroup("ParallelC", 30, 400);
+
+    var start = System.nanoTime();
+    var groups = this.studentGroupClient.getStudentGroupsByNames(
+      List.of("ParallelA", "ParallelB", "ParallelC", "ParallelA"));
+    var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertThat(groups).containsOnlyKeys("ParallelA", "ParallelB", "ParallelC");
+    assertThat(groups.get("ParallelB").studentsCount()).isEqualTo(20);
+    assertThat(elapsedMillis).isLessThan(1000);
+    verify(1, getRequestedFor(urlPathEqualTo("/group/ParallelA")));
+  }
+
+  @Test
+  @DisplayName("getStudentGroupsByNames omits groups that are not resolved before the deadline")
+  void getStudentGroupsByNamesOmitsSlowGroups() {
+    stubGroup("DeadlineFast", 5, 0);
+    stubGroup("DeadlineSlow", 5, 3000);
+
+    var start = System.nanoTime();
+    var groups = this.studentGroupClient.getStudentGroupsByNames(List.of("DeadlineFast", "DeadlineSlow"));
+    var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertThat(groups).containsOnlyKeys("DeadlineFast");
+    assertThat(elapsedMillis).isLessThan(2000);
+  }
+
+  @Test
+  @DisplayName("getStudentGroupsByNames answers cached groups without a request")
+  void getStudentGroupsByNamesUsesCache() {
+    stubGroup("CachedA", 7, 0);
+
+    this.studentGroupClient.getStudentGroupByName("CachedA");
+    var groups = this.studentGroupClient.getStudentGroupsByNames(List.of("CachedA"));
+
+    assertThat(groups.get("CachedA").studentsCount()).isEqualTo(7);
+    verify(1, getRequestedFor(urlPathEqualTo("/group/CachedA")));
+  }
+
+  @Test
+  @DisplayName("getStudentGroupByName only remembers a failed lookup for the negative ttl")
+  void getStudentGroupByNameRetriesFailedLookup() throws InterruptedException {
+    stubFor(get(urlPathEqualTo("/group/Outage")).willReturn(serverError()));
+    assertThat(this.studentGroupClient.getStudentGroupByName("Outage")).isNull();
+
+    stubGroup("Outage", 12, 0);
+    assertThat(this.studentGroupClient.getStudentGroupByName("Outage")).isNull();
+
+    Thread.sleep(1500);
+    var studentGroup = this.studentGroupClient.getStudentGroupByName("Outage");
+    assertThat(studentGroup).isNotNull();
+    assertThat(studentGroup.studentsCount()).isEqualTo(12);
+  }
+
+  @Test
+  @DisplayName("getStudentGroupByName serves the cached group while it is refreshed in the background")
+  void getStudentGroupByNameServesStaleGroupWhileRefreshing() throws InterruptedException {
+    stubGroup("Refreshed", 10, 0);
+    assertThat(this.studentGroupClient.getStudentGroupByName("Refreshed").studentsCount()).isEqualTo(10);
+
+    stubGroup("Refreshed", 20, 500);
+    Thread.sleep(1200);
+    var start = System.nanoTime();
+    var staleGroup = this.studentGroupClient.getStudentGroupByName("Refreshed");
+    var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    assertThat(staleGroup.studentsCount()).isEqualTo(10);
+    assertThat(elapsedMillis).isLessThan(250);
+
+    var deadline = System.nanoTime() + 3_000_000_000L;
+    var refreshedCount = staleGroup.studentsCount();
+    while (refreshedCount != 20 && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+      refreshedCount = this.studentGroupClient.getStudentGroupByName("Refreshed").studentsCount();
+    }
+    assertThat(refreshedCount).isEqualTo(20);
+  }
+}
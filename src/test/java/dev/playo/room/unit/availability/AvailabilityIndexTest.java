@@ -0,0 +1,108 @@
+package dev.playo.room.unit.availability;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.FreeBusyIndex;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.booking.data.allocation.AllocationSlice;
+import dev.playo.room.booking.data.allocation.BookingAllocation;
+import dev.playo.room.booking.data.allocation.BookingAllocationId;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.config.BusinessConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AvailabilityIndexTest {
+
+  private static final LocalDate DAY = LocalDate.of(2030, 7, 1);
+
+  private final UUID roomId = UUID.randomUUID();
+  private final UUID bookingId = UUID.randomUUID();
+
+  private BookingAllocationRepository allocationRepository;
+  private AvailabilityIndex availabilityIndex;
+
+  private static Instant at(int hour, int minute) {
+    return LocalDateTime.of(DAY, LocalTime.of(hour, minute)).atZone(ZoneId.systemDefault()).toInstant();
+  }
+
+  @BeforeEach
+  void setUp() {
+    var businessConfiguration = mock(BusinessConfiguration.class);
+    when(businessConfiguration.getEarlyBookingTime()).thenReturn(LocalTime.of(6, 0));
+    when(businessConfiguration.getLateBookingTime()).thenReturn(LocalTime.of(22, 0));
+
+    this.allocationRepository = mock(BookingAllocationRepository.class);
+    var freeBusyIndex = new FreeBusyIndex(5, businessConfiguration, new SimpleMeterRegistry());
+    this.availabilityIndex = new AvailabilityIndex(true, this.allocationRepository, freeBusyIndex);
+  }
+
+  @Test
+  @DisplayName("a booking registered while a reload reads the allocations is part of the reloaded index")
+  void bookingRegisteredDuringReloadIsKept() {
+    when(this.allocationRepository.findAllSlices()).thenAnswer(_ -> {
+      // committed after the allocations were read, without a transaction the change is applied immediately
+      this.availabilityIndex.registerBooking(this.booking());
+      return List.of();
+    });
+
+    this.availabilityIndex.reload();
+
+    assertTrue(this.availabilityIndex.isOccupied(this.roomId, at(10, 0), at(11, 0)));
+    assertFalse(this.availabilityIndex.isFreeOn(this.roomId, DAY));
+  }
+
+  @Test
+  @DisplayName("a booking removed while a reload reads the allocations does not come back with the reloaded index")
+  void bookingRemovedDuringReloadStaysRemoved() {
+    when(this.allocationRepository.findAllSlices()).thenReturn(List.of(this.slice()));
+    this.availabilityIndex.reload();
+    assertTrue(this.availabilityIndex.isOccupied(this.roomId, at(10, 0), at(11, 0)));
+
+    when(this.allocationRepository.findAllSlices()).thenAnswer(_ -> {
+      // the allocations were read before the cancellation committed
+      this.availabilityIndex.removeBookings(List.of(this.bookingId));
+      return List.of(this.slice());
+    });
+
+    this.availabilityIndex.reload();
+
+    assertFalse(this.availabilityIndex.isOccupied(this.roomId, at(10, 0), at(11, 0)));
+    assertTrue(this.availabilityIndex.isFreeOn(this.roomId, DAY));
+  }
+
+  private AllocationSlice slice() {
+    return new AllocationSlice(this.bookingId, this.roomId, at(10, 0), at(11, 0));
+  }
+
+  private BookingEntity booking() {
+    var booking = new BookingEntity();
+    booking.setId(this.bookingId);
+    booking.setStartTime(at(10, 0));
+    booking.setEndTime(at(11, 0));
+
+    var allocationId = new BookingAllocationId();
+    allocationId.setBookingId(this.bookingId);
+    allocationId.setRoomId(this.roomId);
+    var allocation = new BookingAllocation();
+    allocation.setId(allocationId);
+    allocation.setBooking(booking);
+    allocation.setStartTime(booking.getStartTime());
+    allocation.setEndTime(booking.getEndTime());
+    booking.getAllocations().add(allocation);
+    return booking;
+  }
+}
@@ -0,0 +1,107 @@
+package dev.playo.room.unit.availability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.FreeBusyIndex;
+import dev.playo.room.booking.data.allocation.AllocationSlice;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.config.BusinessConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FreeBusyIndexTest {
+
+  private static final LocalDate DAY = LocalDate.of(2030, 7, 1);
+
+  private final UUID roomId = UUID.randomUUID();
+  private final UUID bookingId = UUID.randomUUID();
+
+  private SimpleMeterRegistry meterRegistry;
+  private FreeBusyIndex freeBusyIndex;
+  private AvailabilityIndex availabilityIndex;
+
+  private static Instant at(int hour, int minute) {
+    return LocalDateTime.of(DAY, LocalTime.of(hour, minute)).atZone(ZoneId.systemDefault()).toInstant();
+  }
+
+  @BeforeEach
+  void setUp() {
+    var businessConfiguration = mock(BusinessConfiguration.class);
+    when(businessConfiguration.getEarlyBookingTime()).thenReturn(LocalTime.of(6, 0));
+    when(businessConfiguration.getLateBookingTime()).thenReturn(LocalTime.of(22, 0));
+
+    var allocationRepository = mock(BookingAllocationRepository.class);
+    when(allocationRepository.findAllSlices()).thenReturn(List.of(
+      new AllocationSlice(this.bookingId, this.roomId, at(10, 0), at(11, 32))));
+
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.freeBusyIndex = new FreeBusyIndex(5, businessConfiguration, this.meterRegistry);
+    this.availabilityIndex = new AvailabilityIndex(true, allocationRepository, this.freeBusyIndex);
+    this.availabilityIndex.reload();
+  }
+
+  @Test
+  @DisplayName("probes aligned to the slots are answered by the bitsets alone")
+  void alignedProbesAreExact() {
+    assertEquals(FreeBusyIndex.Occupancy.BUSY, this.freeBusyIndex.probe(at(11, 30), at(11, 35)).check(this.roomId));
+    assertEquals(FreeBusyIndex.Occupancy.FREE, this.freeBusyIndex.probe(at(11, 35), at(12, 0)).check(this.roomId));
+    assertEquals(FreeBusyIndex.Occupancy.FREE, this.freeBusyIndex.probe(at(8, 0), at(10, 0)).check(this.roomId));
+    assertEquals(
+      FreeBusyIndex.Occupancy.FREE,
+      this.freeBusyIndex.probe(at(10, 0), at(11, 0)).check(UUID.randomUUID()));
+  }
+
+  @Test
+  @DisplayName("probes partially covering a busy slot fall back to the timeline")
+  void unalignedProbesNeedTheTimeline() {
+    assertEquals(FreeBusyIndex.Occupancy.UNKNOWN, this.freeBusyIndex.probe(at(11, 33), at(12, 0)).check(this.roomId));
+    assertFalse(this.availabilityIndex.isOccupied(this.roomId, at(11, 33), at(12, 0)));
+    assertTrue(this.availabilityIndex.isOccupied(this.roomId, at(11, 31), at(12, 0)));
+  }
+
+  @Test
+  @DisplayName("probes outside of the booking hours of a single day are not covered")
+  void probesOutsideBookingHoursAreNotCovered() {
+    assertNull(this.freeBusyIndex.probe(at(5, 0), at(7, 0)));
+    assertNull(this.freeBusyIndex.probe(at(21, 0), at(23, 0)));
+    assertNotNull(this.freeBusyIndex.probe(at(6, 0), at(22, 0)));
+  }
+
+  @Test
+  @DisplayName("removing a booking clears the bitset of its day")
+  void removingBookingClearsDay() {
+    assertFalse(this.availabilityIndex.isFreeOn(this.roomId, DAY));
+    assertTrue(this.availabilityIndex.isFreeOn(this.roomId, DAY.plusDays(1)));
+
+    this.availabilityIndex.removeBookings(List.of(this.bookingId));
+
+    assertTrue(this.availabilityIndex.isFreeOn(this.roomId, DAY));
+    assertFalse(this.availabilityIndex.isOccupied(this.roomId, at(10, 0), at(11, 0)));
+  }
+
+  @Test
+  @DisplayName("the memory of the bitsets is reported as metric")
+  void memoryIsReported() {
+    var memory = this.meterRegistry.get("room.availability.free_busy.memory").gauge().value();
+    var days = this.meterRegistry.get("room.availability.free_busy.days").gauge().value();
+
+    assertTrue(memory > 0);
+    assertEquals(1, days);
+  }
+}
@@ -0,0 +1,82 @@
+package dev.playo.room.unit.availability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.playo.room.availability.RoomTimeline;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RoomTimelineTest {
+
+  @Test
+  @DisplayName("overlaps detects intersecting intervals and respects half-open bounds")
+  void overlapsRespectsHalfOpenBounds() {
+    var timeline = RoomTimeline.EMPTY.with(UUID.randomUUID(), 100, 200);
+
+    assertTrue(timeline.overlaps(150, 160));
+    assertTrue(timeline.overlaps(50, 101));
+    assertTrue(timeline.overlaps(199, 300));
+    assertFalse(timeline.overlaps(200, 300));
+    assertFalse(timeline.overlaps(0, 100));
+  }
+
+  @Test
+  @DisplayName("overlaps finds long intervals that started before shorter ones")
+  void overlapsUsesRunningMaximumOfEnds() {
+    var timeline = RoomTimeline.of(List.of(
+      new RoomTimeline.Interval(UUID.randomUUID(), 0, 1_000),
+      new RoomTimeline.Interval(UUID.randomUUID(), 100, 200),
+      new RoomTimeline.Interval(UUID.randomUUID(), 300, 400)));
+
+    assertTrue(timeline.overlaps(500, 600));
+    assertFalse(timeline.overlaps(1_000, 1_100));
+  }
+
+  @Test
+  @DisplayName("without and withoutEndedBefore remove the matching intervals only")
+  void removalKeepsUnrelatedIntervals() {
+    var first = UUID.randomUUID();
+    var second = UUID.randomUUID();
+    var timeline = RoomTimeline.EMPTY.with(first, 100, 200).with(second, 300, 400);
+
+    var withoutFirst = timeline.without(first);
+    assertEquals(1, withoutFirst.size());
+    assertFalse(withoutFirst.overlaps(100, 200));
+    assertTrue(withoutFirst.overlaps(300, 400));
+
+    var pruned = timeline.withoutEndedBefore(250);
+    assertEquals(1, pruned.size());
+    assertTrue(pruned.overlaps(350, 360));
+    assertSame(timeline, timeline.withoutEndedBefore(50));
+  }
+
+  @Test
+  @DisplayName("with replaces an existing interval of the same booking")
+  void withReplacesExistingBooking() {
+    var bookingId = UUID.randomUUID();
+    var timeline = RoomTimeline.EMPTY.with(bookingId, 100, 200).with(bookingId, 500, 600);
+
+    assertEquals(1, timeline.size());
+    assertFalse(timeline.overlaps(100, 200));
+    assertTrue(timeline.overlaps(550, 560));
+  }
+
+  @Test
+  @DisplayName("freeFrom returns the start of a free interval and the end of the blocking allocations otherwise")
+  void freeFromJumpsOverBlockingAllocations() {
+    var timeline = RoomTimeline.of(List.of(
+      new RoomTimeline.Interval(UUID.randomUUID(), 100, 300),
+      new RoomTimeline.Interval(UUID.randomUUID(), 200, 250),
+      new RoomTimeline.Interval(UUID.randomUUID(), 400, 500)));
+
+    assertEquals(0, timeline.freeFrom(0, 100));
+    assertEquals(300, timeline.freeFrom(50, 150));
+    assertEquals(300, timeline.freeFrom(300, 400));
+    assertEquals(500, timeline.freeFrom(300, 401));
+  }
+}
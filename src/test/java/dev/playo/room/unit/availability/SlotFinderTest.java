@@ -0,0 +1,117 @@
+package dev.playo.room.unit.availability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.RoomTimeline;
+import dev.playo.room.availability.SlotFinder;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.config.BusinessConfiguration;
+import dev.playo.room.exception.GeneralProblemException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SlotFinderTest {
+
+  @Mock
+  private AvailabilityIndex availabilityIndex;
+
+  @Mock
+  private BookingAllocationRepository allocationRepository;
+
+  @Mock
+  private BusinessConfiguration businessConfiguration;
+
+  @InjectMocks
+  private SlotFinder slotFinder;
+
+  private static Instant at(int day, int hour, int minute) {
+    return LocalDateTime.of(2030, 7, day, hour, minute).atZone(ZoneId.systemDefault()).toInstant();
+  }
+
+  private static long micros(Instant instant) {
+    return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+  }
+
+  @BeforeEach
+  void setUp() {
+    when(this.businessConfiguration.getEarlyBookingTime()).thenReturn(LocalTime.of(6, 0));
+    when(this.businessConfiguration.getLateBookingTime()).thenReturn(LocalTime.of(22, 0));
+    when(this.availabilityIndex.isAvailable()).thenReturn(true);
+  }
+
+  @Test
+  @DisplayName("findEarliestSlots skips allocations and returns the earliest slots across all rooms")
+  void findEarliestSlotsAcrossRooms() {
+    var busyRoom = new UUID(0, 1);
+    var freeRoom = new UUID(0, 2);
+    when(this.availabilityIndex.timeline(busyRoom)).thenReturn(RoomTimeline.of(List.of(
+      new RoomTimeline.Interval(UUID.randomUUID(), micros(at(1, 8, 0)), micros(at(1, 10, 0))),
+      new RoomTimeline.Interval(UUID.randomUUID(), micros(at(1, 9, 0)), micros(at(1, 11, 0))))));
+    when(this.availabilityIndex.timeline(freeRoom)).thenReturn(RoomTimeline.of(List.of(
+      new RoomTimeline.Interval(UUID.randomUUID(), micros(at(1, 8, 0)), micros(at(1, 12, 30))))));
+
+    var slots = this.slotFinder.findEarliestSlots(
+      List.of(busyRoom, freeRoom),
+      at(1, 8, 0),
+      at(1, 22, 0),
+      Duration.ofMinutes(90),
+      3);
+
+    assertEquals(3, slots.size());
+    assertEquals(busyRoom, slots.get(0).roomId());
+    assertEquals(at(1, 11, 0), slots.get(0).startTime());
+    assertEquals(busyRoom, slots.get(1).roomId());
+    assertEquals(at(1, 12, 30), slots.get(1).startTime());
+    assertEquals(freeRoom, slots.get(2).roomId());
+    assertEquals(at(1, 12, 30), slots.get(2).startTime());
+  }
+
+  @Test
+  @DisplayName("findEarliestSlots moves slots that do not fit into the booking hours to the next day")
+  void findEarliestSlotsRespectsBookingHours() {
+    var roomId = UUID.randomUUID();
+    when(this.availabilityIndex.timeline(roomId)).thenReturn(RoomTimeline.EMPTY);
+
+    var slots = this.slotFinder.findEarliestSlots(
+      List.of(roomId),
+      at(1, 21, 0),
+      at(3, 0, 0),
+      Duration.ofMinutes(90),
+      2);
+
+    assertEquals(2, slots.size());
+    assertEquals(at(2, 6, 0), slots.get(0).startTime());
+    assertEquals(at(2, 7, 30), slots.get(1).startTime());
+  }
+
+  @Test
+  @DisplayName("findEarliestSlots rejects durations longer than the booking hours")
+  void findEarliestSlotsRejectsTooLongDuration() {
+    assertThrows(GeneralProblemException.class, () -> this.slotFinder.findEarliestSlots(
+      List.of(UUID.randomUUID()),
+      at(1, 6, 0),
+      at(2, 6, 0),
+      Duration.ofHours(17),
+      1));
+  }
+}
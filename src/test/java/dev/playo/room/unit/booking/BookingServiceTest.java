@@ -2,33 +2,47 @@ package dev.playo.room.unit.booking;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import dev.playo.generated.roommanagement.model.Booking;
 import dev.playo.generated.roommanagement.model.Characteristic;
 import dev.playo.generated.roommanagement.model.RoomBookingRequest;
+import dev.playo.room.availability.AvailabilityIndex;
 import dev.playo.room.booking.BookingService;
+import dev.playo.room.booking.RoomLocks;
 import dev.playo.room.booking.data.BookingEntity;
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.booking.data.BookingRow;
+import dev.playo.room.booking.data.allocation.BookingAllocationRepository;
+import dev.playo.room.building.BuildingScheduleCache;
 import dev.playo.room.config.BusinessConfiguration;
 import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.occupancy.OccupancyRollup;
 import dev.playo.room.room.RoomService;
 import dev.playo.room.room.data.RoomEntity;
 import dev.playo.room.student.StudentGroupClient;
 import dev.playo.room.student.dto.StudentGroupResponse;
 import dev.playo.room.util.Characteristics;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,8 +50,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(SpringExtension.class)
 class BookingServiceTest {
@@ -49,7 +67,19 @@ class BookingServiceTest {
   @Mock
   private BookingRepository bookingRepository;
   @Mock
+  private AvailabilityIndex availabilityIndex;
+  @Mock
   private BusinessConfiguration businessConfiguration;
+  @Mock
+  private TransactionTemplate transactionTemplate;
+  @Mock
+  private BookingAllocationRepository allocationRepository;
+  @Mock
+  private RoomLocks roomLocks;
+  @Mock
+  private BuildingScheduleCache scheduleCache;
+  @Mock
+  private OccupancyRollup occupancyRollup;
 
   @InjectMocks
   private BookingService bookingService;
@@ -59,6 +89,14 @@ class BookingServiceTest {
     when(this.businessConfiguration.getMultiDayBookingMaxDays()).thenReturn(0);
     when(this.businessConfiguration.getEarlyBookingTime()).thenReturn(LocalTime.of(8, 0));
     when(this.businessConfiguration.getLateBookingTime()).thenReturn(LocalTime.of(18, 0));
+    when(this.transactionTemplate.execute(any())).thenAnswer(invocation -> {
+      TransactionCallback<?> callback = invocation.getArgument(0);
+      return callback.doInTransaction(mock(TransactionStatus.class));
+    });
+    when(this.roomLocks.withRoomsLocked(any(), any())).thenAnswer(invocation -> {
+      Supplier<?> action = invocation.getArgument(1);
+      return action.get();
+    });
   }
 
   @Test
@@ -78,9 +116,10 @@ class BookingServiceTest {
     var room = mock(RoomEntity.class);
     when(room.getName()).thenReturn("Raum 1");
     when(room.getCharacteristics()).thenReturn(List.of(seatsCharacteristic));
-    when(roomService.findRoomById(request.getRoomId())).thenReturn(room);
+    when(roomService.findRoomWithCompositionById(request.getRoomId())).thenReturn(room);
 
-    when(this.studentGroupClient.getStudentGroupByName(any())).thenReturn(new StudentGroupResponse("GroupA", 1));
+    when(this.studentGroupClient.getStudentGroupsByNames(any()))
+      .thenReturn(Map.of("GroupA", new StudentGroupResponse("GroupA", 1)));
 
     var bookingEntity = mock(BookingEntity.class);
     when(bookingRepository.saveAndFlush(any())).thenReturn(bookingEntity);
@@ -176,9 +215,10 @@ class BookingServiceTest {
     when(room.getName()).thenReturn("Raum 1");
     when(room.getComposedOf()).thenReturn(Set.of());
     when(room.getCharacteristics()).thenReturn(List.of(seatsCharacteristic));
-    when(this.roomService.findRoomById(request.getRoomId())).thenReturn(room);
+    when(this.roomService.findRoomWithCompositionById(request.getRoomId())).thenReturn(room);
 
-    when(this.studentGroupClient.getStudentGroupByName(any())).thenReturn(new StudentGroupResponse("GroupA", 1));
+    when(this.studentGroupClient.getStudentGroupsByNames(any()))
+      .thenReturn(Map.of("GroupA", new StudentGroupResponse("GroupA", 1)));
 
     when(this.bookingRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("overlap"));
 
@@ -187,6 +227,31 @@ class BookingServiceTest {
     assertTrue(ex.getDescription().contains("overlaps with an existing booking"));
   }
 
+  @Test
+  @DisplayName("createBooking rejects overlaps known to the availability index without writing")
+  void createBookingRejectsIndexedOverlapWithoutWriting() {
+    var request = new RoomBookingRequest();
+    request.setRoomId(UUID.randomUUID());
+    request.setStartTime(LocalDateTime.of(2024, 6, 1, 9, 0).atOffset(ZoneOffset.UTC));
+    request.setEndTime(LocalDateTime.of(2024, 6, 1, 12, 0).atOffset(ZoneOffset.UTC));
+    request.setLecturerIds(Set.of(UUID.randomUUID()));
+    request.setStudentGroupNames(Set.of("GroupA"));
+
+    var room = mock(RoomEntity.class);
+    when(room.getId()).thenReturn(request.getRoomId());
+    when(room.getName()).thenReturn("Raum 1");
+    when(room.getComposedOf()).thenReturn(Set.of());
+    when(this.roomService.findRoomWithCompositionById(request.getRoomId())).thenReturn(room);
+    when(this.availabilityIndex.isAvailable()).thenReturn(true);
+    when(this.availabilityIndex.isAnyOccupied(any(), any(), any())).thenReturn(true);
+
+    var ex = assertThrows(GeneralProblemException.class, () -> bookingService.createBooking(request));
+    assertEquals(HttpStatus.CONFLICT, ex.getStatus());
+    verify(this.studentGroupClient, never()).getStudentGroupsByNames(any());
+    verify(this.transactionTemplate, never()).execute(any());
+    verify(this.bookingRepository, never()).saveAndFlush(any());
+  }
+
   @Test
   @DisplayName("findBooking returns booking if found")
   void findBookingReturnsBookingIfFound() {
@@ -211,21 +276,85 @@ class BookingServiceTest {
   }
 
   @Test
-  @DisplayName("allKnownBookings returns all bookings as DTOs")
-  void allKnownBookingsReturnsAllBookings() {
-    var entity1 = mock(BookingEntity.class);
-    var entity2 = mock(BookingEntity.class);
-    var dto1 = mock(Booking.class);
-    var dto2 = mock(Booking.class);
-    when(entity1.toBookingDto()).thenReturn(dto1);
-    when(entity2.toBookingDto()).thenReturn(dto2);
-    when(this.bookingRepository.findAll()).thenReturn(List.of(entity1, entity2));
+  @DisplayName("findBookings maps the projected rows to DTOs and returns the cursor of the next page")
+  void findBookingsReturnsPageWithNextCursor() {
+    var roomId = UUID.randomUUID();
+    var seriesId = UUID.randomUUID();
+    var startTime = Instant.parse("2024-06-01T08:00:00Z");
+    var row1 = new BookingRow(
+      UUID.randomUUID(),
+      roomId,
+      startTime,
+      startTime.plusSeconds(3600),
+      Set.of(UUID.randomUUID()),
+      Set.of("GroupA"),
+      null);
+    var row2 = new BookingRow(
+      UUID.randomUUID(),
+      roomId,
+      startTime.plusSeconds(7200),
+      startTime.plusSeconds(10800),
+      Set.of(),
+      Set.of(),
+      seriesId);
+    var row3 = new BookingRow(
+      UUID.randomUUID(),
+      roomId,
+      startTime.plusSeconds(14400),
+      startTime.plusSeconds(18000),
+      Set.of(),
+      Set.of(),
+      null);
+    when(this.bookingRepository.findRowsAfter(any(), any(), any(), any())).thenReturn(List.of(row1, row2, row3));
+
+    var result = this.bookingService.findBookings(null, 2, null, null);
+
+    assertEquals(2, result.getBookings().size());
+    assertEquals(row1.id(), result.getBookings().get(0).getId());
+    assertEquals(roomId, result.getBookings().get(0).getRoomId());
+    assertEquals(startTime, result.getBookings().get(0).getStartTime().toInstant());
+    assertEquals(Set.of("GroupA"), result.getBookings().get(0).getStudentGroupNames());
+    assertEquals(seriesId, result.getBookings().get(1).getSeriesId());
+    assertEquals(row2.id(), result.getNextCursor());
+    verify(this.bookingRepository).findRowsAfter(
+      new UUID(0, 0),
+      Instant.EPOCH,
+      Instant.parse("9999-12-31T00:00:00Z"),
+      Limit.of(3));
+  }
+
+  @Test
+  @DisplayName("findBookings returns no cursor for the last page")
+  void findBookingsReturnsNoCursorForLastPage() {
+    var cursor = UUID.randomUUID();
+    var from = OffsetDateTime.parse("2024-06-01T00:00:00Z");
+    var to = OffsetDateTime.parse("2024-06-02T00:00:00Z");
+    when(this.bookingRepository.findRowsAfter(any(), any(), any(), any())).thenReturn(List.of());
+
+    var result = this.bookingService.findBookings(cursor, null, from, to);
+
+    assertTrue(result.getBookings().isEmpty());
+    assertNull(result.getNextCursor());
+    verify(this.bookingRepository).findRowsAfter(cursor, from.toInstant(), to.toInstant(), Limit.of(101));
+  }
+
+  @Test
+  @DisplayName("findBookings throws if the limit is out of range")
+  void findBookingsThrowsIfLimitIsOutOfRange() {
+    var ex = assertThrows(
+      GeneralProblemException.class,
+      () -> this.bookingService.findBookings(null, 1001, null, null));
 
-    var result = this.bookingService.allKnownBookings();
+    assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+    verify(this.bookingRepository, never()).findRowsAfter(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("findBookings throws if the time range is empty")
+  void findBookingsThrowsIfTimeRangeIsEmpty() {
+    var time = OffsetDateTime.parse("2024-06-01T00:00:00Z");
 
-    assertEquals(2, result.size());
-    assertTrue(result.contains(dto1));
-    assertTrue(result.contains(dto2));
+    assertThrows(GeneralProblemException.class, () -> this.bookingService.findBookings(null, null, time, time));
   }
 
   @Test
@@ -234,9 +363,16 @@ class BookingServiceTest {
     var bookingId = UUID.randomUUID();
     var entity = mock(BookingEntity.class);
     when(this.bookingRepository.findById(bookingId)).thenReturn(Optional.of(entity));
+    doAnswer(invocation -> {
+      Consumer<TransactionStatus> action = invocation.getArgument(0);
+      action.accept(mock(TransactionStatus.class));
+      return null;
+    }).when(this.transactionTemplate).executeWithoutResult(any());
 
     this.bookingService.cancelBooking(bookingId);
 
     verify(this.bookingRepository).delete(entity);
+    verify(this.scheduleCache).bookingChanged(entity);
+    verify(this.occupancyRollup).bookingCancelled(entity);
   }
 }
@@ -0,0 +1,79 @@
+package dev.playo.room.unit.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import dev.playo.room.availability.TimeWindow;
+import dev.playo.room.booking.RecurrenceRule;
+import dev.playo.room.booking.data.series.Recurrence;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RecurrenceRuleTest {
+
+  private static final LocalDateTime FIRST_START = LocalDateTime.of(2030, 10, 7, 10, 0);
+  private static final LocalDateTime FIRST_END = LocalDateTime.of(2030, 10, 7, 12, 0);
+
+  private static List<LocalDate> startDates(RecurrenceRule rule) {
+    return rule.occurrences()
+      .map(TimeWindow::startTime)
+      .map(startTime -> LocalDate.ofInstant(startTime, ZoneId.systemDefault()))
+      .toList();
+  }
+
+  @Test
+  @DisplayName("occurrences repeats weekly up to and including the until date")
+  void occurrencesRepeatWeeklyUntilEndDate() {
+    var rule = new RecurrenceRule(FIRST_START, FIRST_END, Recurrence.WEEKLY, LocalDate.of(2030, 10, 28), Set.of());
+
+    assertEquals(
+      List.of(
+        LocalDate.of(2030, 10, 7),
+        LocalDate.of(2030, 10, 14),
+        LocalDate.of(2030, 10, 21),
+        LocalDate.of(2030, 10, 28)),
+      startDates(rule));
+  }
+
+  @Test
+  @DisplayName("occurrences skips every second week and the exception dates of biweekly rules")
+  void occurrencesSkipExceptionDates() {
+    var rule = new RecurrenceRule(
+      FIRST_START,
+      FIRST_END,
+      Recurrence.BIWEEKLY,
+      LocalDate.of(2030, 11, 20),
+      Set.of(LocalDate.of(2030, 10, 21)));
+
+    assertEquals(
+      List.of(LocalDate.of(2030, 10, 7), LocalDate.of(2030, 11, 4), LocalDate.of(2030, 11, 18)),
+      startDates(rule));
+  }
+
+  @Test
+  @DisplayName("occurrences keeps the local time across a daylight saving time change")
+  void occurrencesKeepLocalTimeAcrossTimeChange() {
+    // the clocks in Europe/Berlin are set back on the 27th of October 2030
+    var rule = new RecurrenceRule(FIRST_START, FIRST_END, Recurrence.WEEKLY, LocalDate.of(2030, 11, 4), Set.of());
+
+    for (var occurrence : rule.occurrences().toList()) {
+      var start = occurrence.startTime().atZone(ZoneId.systemDefault());
+      var end = occurrence.endTime().atZone(ZoneId.systemDefault());
+      assertEquals(LocalTime.of(10, 0), start.toLocalTime());
+      assertEquals(LocalTime.of(12, 0), end.toLocalTime());
+    }
+  }
+
+  @Test
+  @DisplayName("occurrences is evaluated lazily")
+  void occurrencesAreLazy() {
+    var rule = new RecurrenceRule(FIRST_START, FIRST_END, Recurrence.WEEKLY, LocalDate.MAX, Set.of());
+
+    assertEquals(3, rule.occurrences().limit(3).count());
+  }
+}
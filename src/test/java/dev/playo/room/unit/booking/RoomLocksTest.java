@@ -0,0 +1,114 @@
+package dev.playo.room.unit.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import dev.playo.room.booking.RoomLocks;
+import dev.playo.room.exception.GeneralProblemException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class RoomLocksTest {
+
+  private static RoomLocks localLocks(int stripes, long timeoutMillis) {
+    return new RoomLocks(
+      true,
+      false,
+      stripes,
+      timeoutMillis,
+      mock(JdbcTemplate.class),
+      mock(TransactionTemplate.class));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  @DisplayName("withRoomsLocked serializes actions that share a room")
+  void withRoomsLockedSerializesSharedRooms() {
+    var roomLocks = localLocks(1024, 10_000);
+    var sharedRoom = UUID.randomUUID();
+    var running = new AtomicInteger();
+    var overlapped = new AtomicBoolean();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var index = 0; index < 50; index++) {
+        var otherRoom = UUID.randomUUID();
+        executor.submit(() -> roomLocks.withRoomsLocked(List.of(otherRoom, sharedRoom), () -> {
+          if (running.incrementAndGet() > 1) {
+            overlapped.set(true);
+          }
+          Thread.yield();
+          running.decrementAndGet();
+          return null;
+        }));
+      }
+    }
+
+    assertFalse(overlapped.get());
+  }
+
+  @Test
+  @DisplayName("withRoomsLocked does not block actions of unrelated rooms")
+  void withRoomsLockedDoesNotBlockUnrelatedRooms() throws Exception {
+    var roomLocks = localLocks(1024, 10_000);
+    var firstRoom = new UUID(0, 1);
+    var secondRoom = new UUID(0, 2);
+    var holding = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      executor.submit(() -> roomLocks.withRoomsLocked(List.of(firstRoom), () -> {
+        holding.countDown();
+        await(release);
+        return null;
+      }));
+      assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+      assertEquals("done", roomLocks.withRoomsLocked(List.of(secondRoom), () -> "done"));
+      release.countDown();
+    }
+  }
+
+  @Test
+  @DisplayName("withRoomsLocked fails with service unavailable if the lock is not acquired in time")
+  void withRoomsLockedTimesOut() throws Exception {
+    var roomLocks = localLocks(1024, 50);
+    var room = UUID.randomUUID();
+    var holding = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      executor.submit(() -> roomLocks.withRoomsLocked(List.of(room), () -> {
+        holding.countDown();
+        await(release);
+        return null;
+      }));
+      assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+      var ex = assertThrows(
+        GeneralProblemException.class,
+        () -> roomLocks.withRoomsLocked(List.of(room), () -> null));
+      assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+      release.countDown();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package dev.playo.room.unit.building;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import dev.playo.generated.roommanagement.model.Booking;
+import dev.playo.room.booking.data.BookingEntity;
+import dev.playo.room.building.BuildingScheduleCache;
+import dev.playo.room.building.data.BuildingEntity;
+import dev.playo.room.notification.ChangeListener;
+import dev.playo.room.notification.ChangeNotifications;
+import dev.playo.room.room.data.RoomEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BuildingScheduleCacheTest {
+
+  private static final LocalDate DAY = LocalDate.of(2030, 7, 1);
+
+  private final UUID buildingId = UUID.randomUUID();
+  private final UUID otherBuildingId = UUID.randomUUID();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private ChangeNotifications changeNotifications;
+  private BuildingScheduleCache scheduleCache;
+
+  private static Instant startOf(LocalDate date) {
+    return date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+  }
+
+  @BeforeEach
+  void setUp() {
+    this.changeNotifications = mock(ChangeNotifications.class);
+    this.scheduleCache = new BuildingScheduleCache(100, 60, new SimpleMeterRegistry(), this.changeNotifications);
+  }
+
+  @Test
+  @DisplayName("a cached schedule is returned without loading it again")
+  void cachedScheduleIsNotLoadedAgain() {
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY);
+
+    assertEquals(1, this.loads.get());
+  }
+
+  @Test
+  @DisplayName("a booking invalidates the days it spans in its building and nothing else")
+  void bookingInvalidatesOnlyItsDays() {
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY.plusDays(1));
+    this.load(this.buildingId, DAY.plusDays(2));
+    this.load(this.otherBuildingId, DAY);
+    this.loads.set(0);
+
+    // ends at midnight, the following day is not part of the booking
+    var booking = this.booking(this.buildingId, startOf(DAY).plusSeconds(3600), startOf(DAY.plusDays(2)));
+    this.scheduleCache.bookingChanged(booking);
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY.plusDays(1));
+    assertEquals(2, this.loads.get());
+
+    this.load(this.buildingId, DAY.plusDays(2));
+    this.load(this.otherBuildingId, DAY);
+    assertEquals(2, this.loads.get());
+  }
+
+  @Test
+  @DisplayName("a change of a building invalidates all days of that building")
+  void buildingChangeInvalidatesAllDaysOfBuilding() {
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY.plusDays(10));
+    this.load(this.otherBuildingId, DAY);
+    this.loads.set(0);
+
+    this.scheduleCache.buildingChanged(this.buildingId);
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY.plusDays(10));
+    this.load(this.otherBuildingId, DAY);
+
+    assertEquals(2, this.loads.get());
+  }
+
+  @Test
+  @DisplayName("removing ended bookings invalidates the days up to the removal only")
+  void endedBookingsInvalidatePastDays() {
+    this.load(this.buildingId, DAY.minusDays(1));
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY.plusDays(1));
+    this.loads.set(0);
+
+    this.scheduleCache.bookingsEndedBefore(startOf(DAY).plusSeconds(3600));
+    this.load(this.buildingId, DAY.minusDays(1));
+    this.load(this.buildingId, DAY);
+    this.load(this.buildingId, DAY.plusDays(1));
+
+    assertEquals(2, this.loads.get());
+  }
+
+  @Test
+  @DisplayName("a schedule loaded while a change is committed is not kept")
+  void scheduleLoadedDuringChangeIsNotCached() {
+    Supplier<List<Booking>> racingLoader = () -> {
+      this.loads.incrementAndGet();
+      this.scheduleCache.bookingChanged(this.booking(this.otherBuildingId, startOf(DAY), startOf(DAY.plusDays(1))));
+      return List.of();
+    };
+
+    this.scheduleCache.schedule(this.buildingId, DAY, racingLoader);
+    this.load(this.buildingId, DAY);
+
+    assertEquals(2, this.loads.get());
+  }
+
+  @Test
+  @DisplayName("the changes published by one replica invalidate the same schedules on another replica")
+  void publishedChangesInvalidateOtherReplica() {
+    var otherNotifications = mock(ChangeNotifications.class);
+    var otherReplica = new BuildingScheduleCache(100, 60, new SimpleMeterRegistry(), otherNotifications);
+    var listener = ArgumentCaptor.forClass(ChangeListener.class);
+    verify(otherNotifications).subscribe(eq("building-schedules"), listener.capture());
+    doAnswer(invocation -> {
+      listener.getValue().changed(invocation.getArgument(1));
+      return null;
+    }).when(this.changeNotifications).publish(eq("building-schedules"), anyString());
+
+    this.load(otherReplica, this.buildingId, DAY);
+    this.load(otherReplica, this.buildingId, DAY.plusDays(1));
+    this.load(otherReplica, this.otherBuildingId, DAY);
+    this.loads.set(0);
+
+    this.scheduleCache.bookingChanged(this.booking(this.buildingId, startOf(DAY), startOf(DAY.plusDays(1))));
+    this.load(otherReplica, this.buildingId, DAY);
+    this.load(otherReplica, this.buildingId, DAY.plusDays(1));
+    this.load(otherReplica, this.otherBuildingId, DAY);
+    assertEquals(1, this.loads.get());
+
+    this.scheduleCache.buildingChanged(this.otherBuildingId);
+    this.scheduleCache.bookingsEndedBefore(startOf(DAY.plusDays(1)).plusSeconds(3600));
+    this.load(otherReplica, this.buildingId, DAY);
+    this.load(otherReplica, this.buildingId, DAY.plusDays(1));
+    this.load(otherReplica, this.otherBuildingId, DAY);
+    assertEquals(4, this.loads.get());
+  }
+
+  @Test
+  @DisplayName("all schedules are invalidated if changes of other replicas might have been missed")
+  void missedChangesInvalidateEverything() {
+    var listener = ArgumentCaptor.forClass(ChangeListener.class);
+    verify(this.changeNotifications).subscribe(eq("building-schedules"), listener.capture());
+    this.load(this.buildingId, DAY);
+    this.load(this.otherBuildingId, DAY.plusDays(1));
+    this.loads.set(0);
+
+    listener.getValue().missedChanges();
+    this.load(this.buildingId, DAY);
+    this.load(this.otherBuildingId, DAY.plusDays(1));
+
+    assertEquals(2, this.loads.get());
+  }
+
+  private void load(UUID buildingId, LocalDate date) {
+    this.load(this.scheduleCache, buildingId, date);
+  }
+
+  private void load(BuildingScheduleCache scheduleCache, UUID buildingId, LocalDate date) {
+    scheduleCache.schedule(buildingId, date, () -> {
+      this.loads.incrementAndGet();
+      return List.of();
+    });
+  }
+
+  private BookingEntity booking(UUID buildingId, Instant startTime, Instant endTime) {
+    var building = new BuildingEntity();
+    building.setId(buildingId);
+    var room = new RoomEntity();
+    room.setBuilding(building);
+
+    var booking = new BookingEntity();
+    booking.setRoom(room);
+    booking.setStartTime(startTime);
+    booking.setEndTime(endTime);
+    return booking;
+  }
+}
@@ -0,0 +1,50 @@
+package dev.playo.room.unit.occupancy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.playo.room.occupancy.OccupancyRollup;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OccupancyRollupTest {
+
+  @Test
+  @DisplayName("a booking is split into the minutes of every hour it spans")
+  void bookingIsSplitIntoHours() {
+    var minutes = OccupancyRollup.hourlyMinutes(
+      Instant.parse("2024-07-01T08:15:00Z"),
+      Instant.parse("2024-07-01T10:45:00Z"));
+
+    assertEquals(
+      Map.of(
+        Instant.parse("2024-07-01T08:00:00Z"), 45,
+        Instant.parse("2024-07-01T09:00:00Z"), 60,
+        Instant.parse("2024-07-01T10:00:00Z"), 45),
+      minutes);
+  }
+
+  @Test
+  @DisplayName("a booking ending at a full hour does not count towards the following hour")
+  void bookingEndingAtFullHourEndsThere() {
+    var minutes = OccupancyRollup.hourlyMinutes(
+      Instant.parse("2024-07-01T08:00:00Z"),
+      Instant.parse("2024-07-01T10:00:00Z"));
+
+    assertEquals(
+      Map.of(Instant.parse("2024-07-01T08:00:00Z"), 60, Instant.parse("2024-07-01T09:00:00Z"), 60),
+      minutes);
+  }
+
+  @Test
+  @DisplayName("hours with less than a full booked minute are left out")
+  void partialMinutesAreLeftOut() {
+    var minutes = OccupancyRollup.hourlyMinutes(
+      Instant.parse("2024-07-01T08:59:30Z"),
+      Instant.parse("2024-07-01T09:00:20Z"));
+
+    assertTrue(minutes.isEmpty());
+  }
+}
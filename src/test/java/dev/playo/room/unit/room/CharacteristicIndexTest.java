@@ -0,0 +1,114 @@
+package dev.playo.room.unit.room;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.room.CharacteristicIndex;
+import dev.playo.room.room.data.RoomEntity;
+import dev.playo.room.room.data.RoomRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+@ExtendWith(MockitoExtension.class)
+class CharacteristicIndexTest {
+
+  @Mock
+  private RoomRepository roomRepository;
+
+  private CharacteristicIndex characteristicIndex;
+  private RoomEntity smallRoom;
+  private RoomEntity largeRoom;
+
+  private static RoomEntity room(int seats, boolean projector) {
+    var room = new RoomEntity();
+    room.setId(UUID.randomUUID());
+    room.setCharacteristics(List.of(new Characteristic("SEATS", seats), new Characteristic("PROJECTOR", projector)));
+    return room;
+  }
+
+  private static SearchCharacteristic search(String type, Object value, SearchCharacteristic.OperatorEnum operator) {
+    var characteristic = new SearchCharacteristic();
+    characteristic.setType(type);
+    characteristic.setValue(value);
+    characteristic.setOperator(operator);
+    return characteristic;
+  }
+
+  @BeforeEach
+  void setUp() {
+    this.smallRoom = room(20, false);
+    this.largeRoom = room(120, true);
+    when(this.roomRepository.findAll()).thenReturn(List.of(this.smallRoom, this.largeRoom));
+
+    this.characteristicIndex = new CharacteristicIndex(true, this.roomRepository);
+    this.characteristicIndex.reload();
+  }
+
+  @Test
+  @DisplayName("matchingRooms combines range and equality predicates")
+  void matchingRoomsCombinesPredicates() {
+    var result = this.characteristicIndex.matchingRooms(List.of(
+      search("SEATS", 60, SearchCharacteristic.OperatorEnum.GREATER_THAN_OR_EQUAL),
+      search("PROJECTOR", true, SearchCharacteristic.OperatorEnum.EQUALS)), Set.of());
+    assertEquals(Set.of(this.largeRoom.getId()), result);
+
+    var notEquals = this.characteristicIndex.matchingRooms(
+      List.of(search("PROJECTOR", true, SearchCharacteristic.OperatorEnum.NOT_EQUALS)),
+      Set.of());
+    assertEquals(Set.of(this.smallRoom.getId()), notEquals);
+  }
+
+  @Test
+  @DisplayName("matchingRooms removes excluded rooms and reflects incremental updates")
+  void matchingRoomsReflectsUpdates() {
+    var all = this.characteristicIndex.matchingRooms(List.of(), Set.of(this.largeRoom.getId()));
+    assertEquals(Set.of(this.smallRoom.getId()), all);
+
+    this.characteristicIndex.putRoom(this.smallRoom.getId(), List.of(new Characteristic("SEATS", 200)));
+    this.characteristicIndex.removeRoom(this.largeRoom.getId());
+
+    var result = this.characteristicIndex.matchingRooms(
+      List.of(search("SEATS", 150, SearchCharacteristic.OperatorEnum.GREATER_THAN)),
+      Set.of());
+    assertEquals(Set.of(this.smallRoom.getId()), result);
+  }
+
+  @Test
+  @DisplayName("rooms created or deleted while a reload reads the rooms are not lost by the reload")
+  void changesDuringReloadAreKept() {
+    var createdRoom = room(300, true);
+    when(this.roomRepository.findAll()).thenAnswer(_ -> {
+      // committed after the rooms were read, without a transaction the change is applied immediately
+      this.characteristicIndex.putRoom(createdRoom.getId(), createdRoom.getCharacteristics());
+      this.characteristicIndex.removeRoom(this.smallRoom.getId());
+      return List.of(this.smallRoom, this.largeRoom);
+    });
+
+    this.characteristicIndex.reload();
+
+    var result = this.characteristicIndex.matchingRooms(List.of(), Set.of());
+    assertEquals(Set.of(this.largeRoom.getId(), createdRoom.getId()), result);
+  }
+
+  @Test
+  @DisplayName("matchingRooms rejects range operators on non integer values")
+  void matchingRoomsRejectsUnsupportedOperator() {
+    var characteristics = List.of(search("PROJECTOR", true, SearchCharacteristic.OperatorEnum.LESS_THAN));
+    var ex = assertThrows(
+      GeneralProblemException.class,
+      () -> this.characteristicIndex.matchingRooms(characteristics, Set.of()));
+    assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+  }
+}
@@ -0,0 +1,98 @@
+package dev.playo.room.unit.room;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.RoomInquiry;
+import dev.playo.generated.roommanagement.model.SearchCharacteristic;
+import dev.playo.room.building.data.BuildingEntity;
+import dev.playo.room.room.RoomRanking;
+import dev.playo.room.room.data.RoomEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RoomRankingTest {
+
+  private final BuildingEntity mainBuilding = building();
+  private final BuildingEntity otherBuilding = building();
+
+  private static BuildingEntity building() {
+    var building = new BuildingEntity();
+    building.setId(UUID.randomUUID());
+    return building;
+  }
+
+  private static RoomEntity room(String name, BuildingEntity building, int seats, Characteristic... extras) {
+    var characteristics = new ArrayList<Characteristic>();
+    characteristics.add(new Characteristic("SEATS", seats));
+    characteristics.addAll(List.of(extras));
+
+    var room = new RoomEntity();
+    room.setId(UUID.randomUUID());
+    room.setName(name);
+    room.setBuilding(building);
+    room.setCharacteristics(characteristics);
+    return room;
+  }
+
+  private static RoomInquiry inquiry(int minimumSeats) {
+    var seats = new SearchCharacteristic();
+    seats.setType("SEATS");
+    seats.setValue(minimumSeats);
+    seats.setOperator(SearchCharacteristic.OperatorEnum.GREATER_THAN_OR_EQUAL);
+
+    var inquiry = new RoomInquiry();
+    inquiry.setCharacteristics(List.of(seats));
+    inquiry.setRanking(RoomInquiry.RankingEnum.BEST_FIT);
+    return inquiry;
+  }
+
+  @Test
+  @DisplayName("bestFit orders rooms by unused seats and keeps only the requested amount")
+  void bestFitOrdersBySeatSlack() {
+    var lectureHall = room("hall", this.mainBuilding, 300);
+    var seminarRoom = room("seminar", this.mainBuilding, 24);
+    var classroom = room("class", this.mainBuilding, 40);
+
+    var ranked = RoomRanking.bestFit(List.of(lectureHall, seminarRoom, classroom), inquiry(20), 2);
+
+    assertEquals(List.of(seminarRoom, classroom), ranked);
+  }
+
+  @Test
+  @DisplayName("bestFit uses the group size over the requested seats and ranks too small rooms last")
+  void bestFitUsesGroupSize() {
+    var small = room("small", this.mainBuilding, 20);
+    var large = room("large", this.mainBuilding, 60);
+    var request = inquiry(10);
+    request.setGroupSize(30);
+
+    var ranked = RoomRanking.bestFit(List.of(small, large), request, 5);
+
+    assertEquals(List.of(large, small), ranked);
+  }
+
+  @Test
+  @DisplayName("bestFit prefers the preferred building and then rooms without unrequested characteristics")
+  void bestFitPrefersBuildingAndFewerSurplus() {
+    var otherBuildingRoom = room("other", this.otherBuilding, 30);
+    var equippedRoom = room("equipped", this.mainBuilding, 30, new Characteristic("PROJECTOR", true));
+    var plainRoom = room("plain", this.mainBuilding, 30, new Characteristic("PROJECTOR", false));
+    var request = inquiry(30);
+    request.setPreferredBuildingId(this.mainBuilding.getId());
+
+    var ranked = RoomRanking.bestFit(List.of(otherBuildingRoom, equippedRoom, plainRoom), request, 3);
+
+    assertEquals(List.of(plainRoom, equippedRoom, otherBuildingRoom), ranked);
+  }
+
+  @Test
+  @DisplayName("bestFit returns nothing for a limit of zero")
+  void bestFitWithoutLimit() {
+    assertTrue(RoomRanking.bestFit(List.of(room("a", this.mainBuilding, 10)), inquiry(5), 0).isEmpty());
+  }
+}
@@ -1,12 +1,21 @@
 package dev.playo.room.unit.room;
 
 import dev.playo.generated.roommanagement.model.Characteristic;
+import dev.playo.generated.roommanagement.model.InquiryWindow;
 import dev.playo.generated.roommanagement.model.Room;
+import dev.playo.generated.roommanagement.model.RoomBatchInquiry;
 import dev.playo.generated.roommanagement.model.RoomCreateRequest;
+import dev.playo.generated.roommanagement.model.SlotInquiry;
+import dev.playo.room.availability.AvailabilityIndex;
+import dev.playo.room.availability.DatabaseAvailabilityEngine;
+import dev.playo.room.availability.SlotFinder;
 import dev.playo.room.booking.data.BookingRepository;
+import dev.playo.room.building.BuildingScheduleCache;
 import dev.playo.room.building.data.BuildingEntity;
 import dev.playo.room.building.data.BuildingRepository;
+import dev.playo.room.catalog.RoomCatalog;
 import dev.playo.room.exception.GeneralProblemException;
+import dev.playo.room.room.CharacteristicIndex;
 import dev.playo.room.room.RoomService;
 import dev.playo.room.room.data.RoomEntity;
 import dev.playo.room.room.data.RoomRepository;
@@ -14,18 +23,27 @@ import jakarta.persistence.EntityManager;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +61,24 @@ class RoomServiceTest {
   @Mock
   BuildingRepository buildingRepository;
 
+  @Mock
+  AvailabilityIndex availabilityIndex;
+
+  @Mock
+  CharacteristicIndex characteristicIndex;
+
+  @Mock
+  DatabaseAvailabilityEngine availabilityEngine;
+
+  @Mock
+  SlotFinder slotFinder;
+
+  @Mock
+  RoomCatalog roomCatalog;
+
+  @Mock
+  BuildingScheduleCache scheduleCache;
+
   @InjectMocks
   private RoomService roomService;
 
@@ -69,6 +105,7 @@ class RoomServiceTest {
     verify(roomRepository, times(1)).findById(roomId);
 
     verify(roomRepository, times(1)).delete(mockRoom);
+    verify(roomCatalog, times(1)).changed();
   }
 
   @Test
@@ -508,6 +545,82 @@ class RoomServiceTest {
     verify(buildingRepository, times(1)).existsById(request.getBuildingId());
     verify(roomRepository, never()).save(any(RoomEntity.class));
   }
-}
 
+  @Test
+  void findAvailableRoomsBatchShouldResolveEveryWindowFromTheIndexes() {
+    var building = new BuildingEntity();
+    building.setId(UUID.randomUUID());
+    var firstRoom = new RoomEntity();
+    firstRoom.setId(UUID.randomUUID());
+    firstRoom.setBuilding(building);
+    var secondRoom = new RoomEntity();
+    secondRoom.setId(UUID.randomUUID());
+    secondRoom.setBuilding(building);
+
+    var start = OffsetDateTime.parse("2030-07-01T10:00:00+02:00");
+    var request = new RoomBatchInquiry();
+    request.setCharacteristics(List.of());
+    request.setWindows(List.of(
+      new InquiryWindow(start, start.plusHours(1)),
+      new InquiryWindow(start.plusHours(1), start.plusHours(2))));
+
+    when(availabilityIndex.isAvailable()).thenReturn(true);
+    when(characteristicIndex.isAvailable()).thenReturn(true);
+    when(availabilityIndex.occupiedRooms(anyList())).thenReturn(List.of(Set.of(firstRoom.getId()), Set.of()));
+    when(characteristicIndex.matchingRooms(List.of(), Set.of()))
+      .thenReturn(Set.of(firstRoom.getId(), secondRoom.getId()));
+    when(roomRepository.findAllById(Set.of(firstRoom.getId(), secondRoom.getId())))
+      .thenReturn(List.of(firstRoom, secondRoom));
+
+    var response = roomService.findAvailableRoomsBatch(request);
+
+    assertEquals(2, response.getRooms().size());
+    assertEquals(2, response.getWindows().size());
+    assertEquals(start, response.getWindows().get(0).getStartTime());
+    assertEquals(List.of(secondRoom.getId()), response.getWindows().get(0).getRoomIds());
+    assertEquals(
+      Set.of(firstRoom.getId(), secondRoom.getId()),
+      Set.copyOf(response.getWindows().get(1).getRoomIds()));
+    verifyNoInteractions(availabilityEngine);
+  }
+
+  @Test
+  void findAvailableRoomsBatchWithInvalidWindowShouldThrowGeneralProblemException() {
+    var start = OffsetDateTime.parse("2030-07-01T10:00:00+02:00");
+    var request = new RoomBatchInquiry();
+    request.setCharacteristics(List.of());
+    request.setWindows(List.of(new InquiryWindow(start, start)));
+
+    var exception = assertThrows(GeneralProblemException.class, () -> roomService.findAvailableRoomsBatch(request));
 
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    verifyNoInteractions(availabilityIndex, availabilityEngine);
+  }
+
+  @Test
+  void findFreeSlotsStartingInThePastShouldStartAtNextFullMinute() {
+    var roomId = UUID.randomUUID();
+    var now = OffsetDateTime.now(ZoneOffset.UTC);
+    var request = new SlotInquiry();
+    request.setStartTime(now.minusHours(1));
+    request.setEndTime(now.plusDays(1));
+    request.setDurationMinutes(30);
+    request.setCharacteristics(List.of());
+
+    when(characteristicIndex.isAvailable()).thenReturn(true);
+    when(characteristicIndex.matchingRooms(List.of(), Set.of())).thenReturn(Set.of(roomId));
+    var startTime = ArgumentCaptor.forClass(Instant.class);
+    when(slotFinder.findEarliestSlots(
+      eq(Set.of(roomId)),
+      startTime.capture(),
+      any(),
+      eq(Duration.ofMinutes(30)),
+      anyInt())).thenReturn(List.of());
+
+    roomService.findFreeSlots(request);
+
+    assertEquals(0, startTime.getValue().getEpochSecond() % 60);
+    assertEquals(0, startTime.getValue().getNano());
+    assertTrue(startTime.getValue().isAfter(now.toInstant()));
+  }
+}
@@ -0,0 +1,67 @@
+package dev.playo.room.unit.student;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import dev.playo.room.student.CircuitBreaker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static void fail(CircuitBreaker circuitBreaker) {
+    assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> {
+      throw new IllegalStateException("remote call failed");
+    }));
+  }
+
+  @Test
+  @DisplayName("call opens the breaker once the failure rate is reached and rejects further calls")
+  void callOpensAfterFailureRate() {
+    var circuitBreaker = new CircuitBreaker("test", 10, 4, 50, Duration.ofMinutes(1));
+    circuitBreaker.call(() -> "ok");
+    circuitBreaker.call(() -> "ok");
+    fail(circuitBreaker);
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+    fail(circuitBreaker);
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+    var calls = new AtomicInteger();
+    assertThrows(CircuitBreaker.CallNotPermittedException.class, () -> circuitBreaker.call(calls::incrementAndGet));
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  @DisplayName("call only considers the outcomes of the last calls of the window")
+  void callForgetsOldOutcomes() {
+    var circuitBreaker = new CircuitBreaker("test", 4, 4, 50, Duration.ofMinutes(1));
+    fail(circuitBreaker);
+    for (var index = 0; index < 4; index++) {
+      circuitBreaker.call(() -> "ok");
+    }
+
+    fail(circuitBreaker);
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  @DisplayName("call closes the breaker after a successful trial call and reopens it after a failed one")
+  void callTrialsAfterOpenDuration() throws InterruptedException {
+    var circuitBreaker = new CircuitBreaker("test", 2, 2, 50, Duration.ofMillis(50));
+    fail(circuitBreaker);
+    fail(circuitBreaker);
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+    Thread.sleep(80);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    fail(circuitBreaker);
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+    Thread.sleep(80);
+    assertEquals("ok", circuitBreaker.call(() -> "ok"));
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+  }
+}
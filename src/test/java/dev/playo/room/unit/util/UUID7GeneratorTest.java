@@ -0,0 +1,74 @@
+package dev.playo.room.unit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.playo.room.util.UUID7Generator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UUID7GeneratorTest {
+
+  @Test
+  @DisplayName("generateUuid sets the version, the variant and the current timestamp")
+  void generateUuidEncodesVersionAndTimestamp() {
+    var before = System.currentTimeMillis();
+    var uuid = UUID7Generator.generateUuid();
+    var after = System.currentTimeMillis();
+
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    var timestamp = uuid.getMostSignificantBits() >>> 16;
+    // bursts of ids can carry the counter into the timestamp, which moves it ahead of the clock for a short time
+    assertTrue(timestamp >= before && timestamp <= after + 1_000, "timestamp " + timestamp + " is not current");
+  }
+
+  @Test
+  @DisplayName("generateUuid generates strictly ordered ids within the same millisecond")
+  void generateUuidIsMonotonic() {
+    var previous = UUID7Generator.generateUuid();
+    for (var index = 0; index < 100_000; index++) {
+      var next = UUID7Generator.generateUuid();
+      assertTrue(
+        Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+        next + " is not ordered after " + previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  @DisplayName("generateUuid generates unique, per thread ordered ids on concurrent threads")
+  void generateUuidIsUniqueAcrossThreads() throws Exception {
+    List<Future<List<UUID>>> futures = new ArrayList<>();
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      for (var thread = 0; thread < 8; thread++) {
+        futures.add(executor.submit(() -> {
+          List<UUID> uuids = new ArrayList<>();
+          for (var index = 0; index < 20_000; index++) {
+            uuids.add(UUID7Generator.generateUuid());
+          }
+          return uuids;
+        }));
+      }
+    }
+
+    var allUuids = new HashSet<UUID>();
+    for (var future : futures) {
+      var uuids = future.get();
+      for (var index = 1; index < uuids.size(); index++) {
+        assertTrue(Long.compareUnsigned(
+          uuids.get(index).getMostSignificantBits(),
+          uuids.get(index - 1).getMostSignificantBits()) > 0);
+      }
+      allUuids.addAll(uuids);
+    }
+
+    assertEquals(8 * 20_000, allUuids.size());
+  }
+}